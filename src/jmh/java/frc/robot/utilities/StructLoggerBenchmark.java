@@ -0,0 +1,62 @@
+package frc.robot.utilities;
+
+import edu.wpi.first.hal.HAL;
+import java.util.concurrent.TimeUnit;
+import monologue.Logged;
+import monologue.Monologue;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+// One logging cycle of a pivot's controller telemetry, a keyed log() per field the way the pivots
+// logged before against one packed StructLogger record
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class StructLoggerBenchmark {
+  private static class Owner implements Logged {}
+
+  private final Owner owner = new Owner();
+  private final PivotTelemetry telemetry = new PivotTelemetry();
+  private StructLogger<PivotTelemetry> logger;
+  private double cycle = 0;
+
+  @Setup
+  public void setup() {
+    HAL.initialize(500, 0);
+    Monologue.setupMonologue(owner, "Benchmark", false, false);
+    logger = new StructLogger<PivotTelemetry>(owner, "Controller", PivotTelemetry.struct);
+  }
+
+  @Benchmark
+  public void keyedLog() {
+    advance();
+    owner.log("Setpoint position", telemetry.setpointPosition);
+    owner.log("Next setpoint velocity", telemetry.setpointVelocity);
+    owner.log("Current Setpoint velocity", telemetry.currentSetpointVelocity);
+    owner.log("Accel", telemetry.accel);
+    owner.log("Feedforward voltage", telemetry.feedforwardVoltage);
+    owner.log("FeedbackVoltage", telemetry.feedbackVoltage);
+  }
+
+  @Benchmark
+  public void structLogger() {
+    advance();
+    logger.log(telemetry);
+  }
+
+  // Change every value each cycle, as the controller does
+  private void advance() {
+    cycle++;
+    telemetry.setpointPosition = cycle;
+    telemetry.setpointVelocity = cycle + 1;
+    telemetry.currentSetpointVelocity = cycle + 2;
+    telemetry.accel = cycle + 3;
+    telemetry.feedforwardVoltage = cycle + 4;
+    telemetry.feedbackVoltage = cycle + 5;
+  }
+}
@@ -0,0 +1,85 @@
+package frc.robot.utilities;
+
+import edu.wpi.first.math.estimator.SwerveDrivePoseEstimator;
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.kinematics.SwerveModulePosition;
+import frc.robot.Constants.kSwerve;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+// One robot loop of pose estimation, an odometry update and a vision measurement from 100 ms ago,
+// for SwervePoseEstimator against WPILib's SwerveDrivePoseEstimator
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SwervePoseEstimatorBenchmark {
+  private static final double period = 0.02;
+  private static final int visionDelay = 5; // loops
+
+  private SwervePoseEstimator estimator;
+  private SwerveDrivePoseEstimator reference;
+  private final double[] distances = new double[4];
+  private final double[] angles = new double[4];
+  private double time = 0;
+
+  @Setup
+  public void setup() {
+    estimator =
+        new SwervePoseEstimator(
+            kSwerve.moduleLocations, kSwerve.stateStdDevs, kSwerve.visionStdDevs);
+    estimator.resetPosition(0, distances, angles, new Pose2d());
+    reference =
+        new SwerveDrivePoseEstimator(
+            kSwerve.kinematics,
+            new Rotation2d(),
+            positions(),
+            new Pose2d(),
+            kSwerve.stateStdDevs,
+            kSwerve.visionStdDevs);
+  }
+
+  @Benchmark
+  public Pose2d swervePoseEstimator() {
+    double gyro = advance();
+    estimator.update(time, gyro, distances, angles);
+    estimator.addVisionMeasurement(visionPose(), time - visionDelay * period);
+    return estimator.getEstimatedPosition();
+  }
+
+  @Benchmark
+  public Pose2d swerveDrivePoseEstimator() {
+    double gyro = advance();
+    reference.updateWithTime(time, new Rotation2d(gyro), positions());
+    reference.addVisionMeasurement(visionPose(), time - visionDelay * period);
+    return reference.getEstimatedPosition();
+  }
+
+  // Step the modules and return the gyro angle (rad)
+  private double advance() {
+    time += period;
+    for (int i = 0; i < 4; i++) {
+      distances[i] += period * (2 + 0.2 * i);
+      angles[i] = 0.3 * Math.sin(time + i);
+    }
+    return 0.5 * Math.sin(time);
+  }
+
+  private Pose2d visionPose() {
+    return new Pose2d(time, 0.1 * Math.sin(time), new Rotation2d(0.5 * Math.sin(time)));
+  }
+
+  private SwerveModulePosition[] positions() {
+    var positions = new SwerveModulePosition[4];
+    for (int i = 0; i < 4; i++) {
+      positions[i] = new SwerveModulePosition(distances[i], new Rotation2d(angles[i]));
+    }
+    return positions;
+  }
+}
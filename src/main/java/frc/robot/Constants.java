@@ -11,6 +11,7 @@ import com.revrobotics.CANSparkBase.IdleMode;
 import edu.wpi.first.math.MatBuilder;
 import edu.wpi.first.math.Matrix;
 import edu.wpi.first.math.Nat;
+import edu.wpi.first.math.geometry.Pose2d;
 import edu.wpi.first.math.geometry.Rotation2d;
 import edu.wpi.first.math.geometry.Rotation3d;
 import edu.wpi.first.math.geometry.Transform3d;
@@ -27,8 +28,51 @@ public class Constants {
   public static TestMode testMode = TestMode.NONE;
   public static boolean logFileOnly = false;
   public static boolean logLazy = true;
+  public static String replayLog = ""; // wpilog to replay, overridden by REPLAY_LOG
   public static int configurationSetRetries = 5;
 
+  // Rate groups, offsets spread the groups across the 20 ms main loop
+  public static class kRates {
+    public static final double controlPeriod = 0.005; // 200 Hz, pivot controllers
+    public static final double controlOffset = 0.0025;
+    public static final double visionPeriod = 0.02;
+    public static final double visionOffset = 0.01;
+    public static final double loggingPeriod = 0.02;
+    public static final double loggingOffset = 0.015;
+    public static final double indicationsPeriod = 0.04;
+    public static final double indicationsOffset = 0.005;
+  }
+
+  // Thread priorities. Off until a robot measurement of the jitter logged on disable shows a gain.
+  // When on, control runs real-time and logging and indications move to normal priority threads.
+  public static class kThreads {
+    public static final boolean realtime = false;
+    public static final int mainPriority = 15; // 1-99, real-time preempts normal threads
+  }
+
+  // Loop overrun flight recorder
+  public static class kFlightRecorder {
+    public static final double duration = 3; // s of loops kept
+    public static final double dumpCooldown = 5; // s between snapshots
+    public static final boolean useJfr = false; // also dump a JFR segment, if the JRE has it
+  }
+
+  // JIT warmup of the enabled-only control paths while disabled
+  public static class kWarmup {
+    public static final int iterations = 12000; // past the JIT's compile thresholds
+    public static final double budget = 0.004; // s per disabled loop
+  }
+
+  // High rate SysId capture, sampled off the robot loop and logged in batches after each test
+  public static class kSysIdCapture {
+    public static final double period = 0.001; // 1 kHz
+    public static final double duration = 12; // s buffered per test, past SysIdRoutine's timeout
+    public static final int flushBatch = 1000; // samples logged per logging loop
+    // ms, status 1 and 2 of the captured Sparks during a test. The four drive motors at 2 ms are
+    // about half the bus, fine for a test on blocks.
+    public static final int framePeriod = 2;
+  }
+
   // Operator interface constants
   public static class kOI {
     public static double translationDeadzone = 0.08;
@@ -39,7 +83,8 @@ public class Constants {
   public enum SimMode {
     HARDWARE_IN_LOOP,
     DESKTOP_VISION,
-    DESKTOP
+    DESKTOP,
+    REPLAY
   }
 
   public enum TestMode {
@@ -89,6 +134,15 @@ public class Constants {
     public static final double autoAlignTimeout = 4;
   }
 
+  // Go-to targets for pathfinding over the navgrid, blue alliance poses flipped for red
+  public static class kPathfinding {
+    public static final Pose2d amp = new Pose2d(1.8515, 7.75, Rotation2d.fromDegrees(-90));
+    public static final Pose2d speaker = new Pose2d(1.4, 5.55, Rotation2d.fromDegrees(180));
+    public static final Pose2d source = new Pose2d(15.35, 0.95, Rotation2d.fromDegrees(-60));
+
+    public static final double fieldTimeout = 0.5; // s, drive straight if a new goal isn't ready
+  }
+
   public static class kClimber {
     public static int climberID = 18;
 
@@ -127,6 +181,20 @@ public class Constants {
       public static double shootVoltage = 5;
       public static double delay = 0.25;
     }
+
+    // Overlap the intake stages behind sensor interlocks instead of fixed waits
+    public static class kPipeline {
+      public static boolean enabled = true;
+      public static double rollerStartAngle = 1; // rad, rollers start once the intake is below
+    }
+  }
+
+  // Autonomous action timing, as distances along the Choreo trajectories
+  public static class kAutos {
+    public static double intakeDeployDistance = 0.1; // m, clear of the shot before deploying
+    public static double intakeGiveUpDistanceToGo = 0.3; // m, empty intake stops this far out
+
+    public static final double fieldLength = 16.54; // m, paths are mirrored across it for red
   }
 
   // Swerve subsystem constants (module constants included)
@@ -156,12 +224,13 @@ public class Constants {
 
     // Swerve uses ccw+ angular quanities and a coordinate plane with 0,0 at the robot's center
     // , forward is +x, and a module order based on the quadrant system (front left is first)
-    public static SwerveDriveKinematics kinematics =
-        new SwerveDriveKinematics(
-            new Translation2d(length / 2, width / 2),
-            new Translation2d(-length / 2, width / 2),
-            new Translation2d(-length / 2, -width / 2),
-            new Translation2d(length / 2, -width / 2));
+    public static final Translation2d[] moduleLocations = {
+      new Translation2d(length / 2, width / 2),
+      new Translation2d(-length / 2, width / 2),
+      new Translation2d(-length / 2, -width / 2),
+      new Translation2d(length / 2, -width / 2)
+    };
+    public static SwerveDriveKinematics kinematics = new SwerveDriveKinematics(moduleLocations);
 
     // Module angular offsets (rad)
     public static class Offsets {
@@ -186,6 +255,10 @@ public class Constants {
       public static final double maxOnTheFlyVel = 3;
       public static final double maxOnTheFlyAcc = 3;
 
+      // Distance (m) and angle (rad) from the goal a finished profile counts as there
+      public static final double transTolerance = 0.03;
+      public static final double angTolerance = 0.1;
+
       public static final HolonomicPathFollowerConfig pathFollowConfig =
           new HolonomicPathFollowerConfig(
               new PIDConstants(Auton.transP, 0.0, 0), // Translation PID constants
@@ -298,13 +371,9 @@ public class Constants {
   public static class kIntake {
     public static class kPivot {
       public static int pivotMotorID = 10;
-      public static double period = 0.02;
+      public static double period = kRates.controlPeriod;
       public static double minPIDOutput = -1.0;
       public static double maxPIDOutput = 1.0;
-      // PID
-      public static double kP = 1.5;
-      public static double kI = 0;
-      public static double kD = 0.03;
       // FF
       // public static double kS = 0.4273;
       public static double kS = 0.15;
@@ -312,10 +381,27 @@ public class Constants {
       public static double kV = 1.17;
       public static double kA = 0.043;
 
-      // ProfiledPIDController
+      // Profile
       public static double maxVel = 8;
       public static double maxAccel = 37;
 
+      // State space, LQR tolerances and Kalman filter std devs
+      public static double lqrPositionTolerance = 0.02; // rad
+      public static double lqrVelocityTolerance = 0.4; // rad/s
+      public static double kalmanPositionStdDev = 0.02; // rad, model
+      public static double kalmanVelocityStdDev = 0.4; // rad/s, model
+      public static double kalmanEncoderStdDev = 0.002; // rad, measurement
+
+      // At position checks
+      public static double positionTolerance = 0.08; // rad
+      public static double velocityTolerance = 0.5; // rad/s
+
+      // Homing, pushes into the home hardstop and zeroes the encoder once stalled
+      public static double homingVoltage = 2;
+      public static double homingCurrent = 15; // amps
+      public static double homingDebounce = 0.1; // s
+      public static double homingTimeout = 1; // s
+
       // Encoder
       public static int portA = 9;
       public static int portB = 8;
@@ -358,6 +444,9 @@ public class Constants {
       // Outtake tunable parameters
       public static double outtakeVoltage = -2.7;
       public static double ejectIntakeTime = 0.4;
+
+      // Simulation, time at full voltage for a note to reach the sensor
+      public static double simTravelTime = 0.3;
     }
   }
 
@@ -374,7 +463,7 @@ public class Constants {
       public static double minPIDOutput = -1.0;
       public static double maxPIDOutput = 1.0;
 
-      public static double period = 0.02;
+      public static double period = kRates.controlPeriod;
 
       // Encoder
       public static final int encoderChannelA = 0;
@@ -413,6 +502,28 @@ public class Constants {
 
       public static double maxVel = 6;
       public static double maxAccel = 15;
+
+      // State space, kA wasn't characterized so the model and sim use this instead
+      public enum Controller {
+        PROFILED_PID,
+        LQR
+      }
+
+      public static Controller defaultController = Controller.PROFILED_PID;
+      public static double modelKA = 0.05;
+      public static double lqrPositionTolerance = 0.02; // rad
+      public static double lqrVelocityTolerance = 0.5; // rad/s
+      public static double kalmanPositionStdDev = 0.02; // rad, model
+      public static double kalmanVelocityStdDev = 0.5; // rad/s, model
+      public static double kalmanEncoderStdDev = 0.002; // rad, measurement
+
+      // Settle time benchmark
+      public static final Rotation2d settleTolerance = Rotation2d.fromDegrees(1);
+      public static double settleVelocityTolerance = 0.1; // rad/s
+      public static double benchmarkHoldTime = 2; // s
+
+      // Simulation
+      public static final Rotation2d simMaxAngle = Rotation2d.fromDegrees(250);
     }
 
     public static class kFlywheels {
@@ -458,9 +569,30 @@ public class Constants {
       // Sensors
       public static int upperSensorPort = 4;
       public static int lowerSensorPort = 5;
+
+      // Simulation, time at full voltage for a note to reach the upper sensor
+      public static double simTravelTime = 0.2;
     }
   }
 
+  // NT publish rates (Hz) for each telemetry tier, DataLog always runs at the loop rate
+  public static class kTelemetry {
+    public static final double loopRate = 50;
+
+    public static final double criticalRate = 50;
+    public static final double diagnosticRate = 10;
+    public static final double slowRate = 1;
+
+    // Used while the FMS is attached
+    public static final double matchCriticalRate = 50;
+    public static final double matchDiagnosticRate = 2;
+    public static final double matchSlowRate = 0;
+  }
+
+  public static class kDeviceHealth {
+    public static final double period = 0.5; // s
+  }
+
   public static class kIndications {
     public static final int ledPort = 0;
     public static final int leftStripLength = 23;
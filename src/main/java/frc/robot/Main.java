@@ -10,6 +10,23 @@ public final class Main {
   private Main() {}
 
   public static void main(String... args) {
+    // Exit a class data sharing training run once it's loaded the classes, see build.gradle
+    Long trainingTime = Long.getLong("robot.trainingTime");
+    if (trainingTime != null) {
+      var exit =
+          new Thread(
+              () -> {
+                try {
+                  Thread.sleep(trainingTime * 1000);
+                } catch (InterruptedException e) {
+                  return;
+                }
+                System.exit(0);
+              });
+      exit.setDaemon(true);
+      exit.start();
+    }
+
     RobotBase.startRobot(Robot::new);
   }
 }
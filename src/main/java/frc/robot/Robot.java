@@ -5,24 +5,32 @@
 package frc.robot;
 
 import com.pathplanner.lib.commands.FollowPathCommand;
+import edu.wpi.first.math.geometry.Transform3d;
 import edu.wpi.first.networktables.GenericEntry;
 import edu.wpi.first.networktables.NetworkTableInstance;
 import edu.wpi.first.wpilibj.DataLogManager;
 import edu.wpi.first.wpilibj.DriverStation;
 import edu.wpi.first.wpilibj.Filesystem;
+import edu.wpi.first.wpilibj.Notifier;
+import edu.wpi.first.wpilibj.RobotBase;
+import edu.wpi.first.wpilibj.RobotController;
 import edu.wpi.first.wpilibj.TimedRobot;
 import edu.wpi.first.wpilibj.shuffleboard.BuiltInWidgets;
 import edu.wpi.first.wpilibj.shuffleboard.Shuffleboard;
 import edu.wpi.first.wpilibj2.command.Command;
-import edu.wpi.first.wpilibj2.command.Command.InterruptionBehavior;
 import edu.wpi.first.wpilibj2.command.CommandScheduler;
 import edu.wpi.first.wpilibj2.command.Commands;
 import edu.wpi.first.wpilibj2.command.button.CommandJoystick;
 import edu.wpi.first.wpilibj2.command.button.CommandXboxController;
-import edu.wpi.first.wpilibj2.command.button.Trigger;
 import frc.robot.Constants.SimMode;
+import frc.robot.Constants.kFlightRecorder;
 import frc.robot.Constants.kIntake.kPivot.IntakePosition;
+import frc.robot.Constants.kPathfinding;
+import frc.robot.Constants.kRates;
 import frc.robot.Constants.kShooter.kPivot.ShooterPosition;
+import frc.robot.Constants.kSwerve;
+import frc.robot.Constants.kThreads;
+import frc.robot.Constants.kWarmup;
 import frc.robot.commands.AutoRoutines;
 import frc.robot.commands.ClimberFactory;
 import frc.robot.commands.IntakeShooter;
@@ -36,10 +44,48 @@ import frc.robot.subsystems.IntakeRollers;
 import frc.robot.subsystems.ShooterFlywheels;
 import frc.robot.subsystems.ShooterPivot;
 import frc.robot.subsystems.Swerve;
+import frc.robot.subsystems.io.ClimberIO;
+import frc.robot.subsystems.io.ClimberIOSim;
+import frc.robot.subsystems.io.ClimberIOSpark;
+import frc.robot.subsystems.io.FlywheelsIO;
+import frc.robot.subsystems.io.FlywheelsIOSim;
+import frc.robot.subsystems.io.FlywheelsIOSpark;
+import frc.robot.subsystems.io.GyroIO;
+import frc.robot.subsystems.io.GyroIONavX;
+import frc.robot.subsystems.io.GyroIOSim;
+import frc.robot.subsystems.io.HandoffRollersIO;
+import frc.robot.subsystems.io.HandoffRollersIOSim;
+import frc.robot.subsystems.io.HandoffRollersIOTalon;
+import frc.robot.subsystems.io.IO;
+import frc.robot.subsystems.io.IntakePivotIOSpark;
+import frc.robot.subsystems.io.IntakeRollersIO;
+import frc.robot.subsystems.io.IntakeRollersIOSim;
+import frc.robot.subsystems.io.IntakeRollersIOSpark;
+import frc.robot.subsystems.io.ModuleIO;
+import frc.robot.subsystems.io.ModuleIOSim;
+import frc.robot.subsystems.io.ModuleIOSpark;
+import frc.robot.subsystems.io.PivotIO;
+import frc.robot.subsystems.io.PivotIOSim;
+import frc.robot.subsystems.io.ShooterPivotIOSpark;
+import frc.robot.subsystems.io.VisionIO;
+import frc.robot.subsystems.io.VisionIOPhoton;
+import frc.robot.utilities.AllocationMonitor;
+import frc.robot.utilities.DeviceHealth;
+import frc.robot.utilities.FileLog;
+import frc.robot.utilities.FlightRecorder;
+import frc.robot.utilities.NoteTracker;
+import frc.robot.utilities.NoteTracker.NoteState;
+import frc.robot.utilities.RateGroup;
+import frc.robot.utilities.Replay;
+import frc.robot.utilities.Telemetry;
+import frc.robot.utilities.ThreadPriorities;
+import frc.robot.utilities.Warmup;
 import java.io.BufferedReader;
 import java.io.File;
 import java.io.FileReader;
 import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.List;
 import java.util.Set;
 import monologue.Logged;
 import monologue.Monologue;
@@ -49,29 +95,91 @@ public class Robot extends TimedRobot implements Logged {
   private CommandJoystick oopsieWoopsieController = new CommandJoystick(1);
   private GenericEntry autoAmpDisableSwitch;
 
-  // Subsystems
-  private Swerve swerve = new Swerve();
-  private IntakeRollers intakeRollers = new IntakeRollers();
-  private IntakePivot intakePivot = new IntakePivot();
-  private ShooterFlywheels shooterFlywheels = new ShooterFlywheels();
-  private ShooterPivot shooterPivot = new ShooterPivot();
-  private HandoffRollers handoffRollers = new HandoffRollers();
-  private Climber climber = new Climber();
+  // Subsystems, with the hardware, sim or replay IO picked for the current mode
+  private Swerve swerve =
+      new Swerve(
+          IO.select(GyroIONavX::new, GyroIOSim::new, () -> new GyroIO() {}),
+          moduleIO(
+              kSwerve.CANID.frontLeftDrive,
+              kSwerve.CANID.frontLeftSteer,
+              kSwerve.Offsets.frontLeft),
+          moduleIO(
+              kSwerve.CANID.backLeftDrive, kSwerve.CANID.backLeftSteer, kSwerve.Offsets.backLeft),
+          moduleIO(
+              kSwerve.CANID.backRightDrive,
+              kSwerve.CANID.backRightSteer,
+              kSwerve.Offsets.backRight),
+          moduleIO(
+              kSwerve.CANID.frontRightDrive,
+              kSwerve.CANID.frontRightSteer,
+              kSwerve.Offsets.frontRight),
+          visionIO("camera1", kSwerve.aprilTagCamera1PositionTransform),
+          visionIO("camera2", kSwerve.aprilTagCamera2PositionTransform));
+  private IntakeRollers intakeRollers =
+      new IntakeRollers(
+          IO.select(
+              IntakeRollersIOSpark::new, IntakeRollersIOSim::new, () -> new IntakeRollersIO() {}));
+  private IntakePivot intakePivot =
+      new IntakePivot(
+          IO.select(IntakePivotIOSpark::new, PivotIOSim::intakePivot, () -> new PivotIO() {}));
+  private ShooterFlywheels shooterFlywheels =
+      new ShooterFlywheels(
+          IO.select(FlywheelsIOSpark::new, FlywheelsIOSim::new, () -> new FlywheelsIO() {}));
+  private ShooterPivot shooterPivot =
+      new ShooterPivot(
+          IO.select(ShooterPivotIOSpark::new, PivotIOSim::shooterPivot, () -> new PivotIO() {}));
+  private HandoffRollers handoffRollers =
+      new HandoffRollers(
+          IO.select(
+              HandoffRollersIOTalon::new,
+              HandoffRollersIOSim::new,
+              () -> new HandoffRollersIO() {}));
+  private Climber climber =
+      new Climber(IO.select(ClimberIOSpark::new, ClimberIOSim::new, () -> new ClimberIO() {}));
+
+  private NoteTracker noteTracker = new NoteTracker();
 
-  @SuppressWarnings("unused")
   private Indications indications =
       new Indications(
           swerve,
           intakePivot,
           shooterPivot,
-          intakeRollers,
-          handoffRollers,
           shooterFlywheels,
+          noteTracker,
           driverController);
 
+  // Diagnostics
+  @SuppressWarnings("unused")
+  private DeviceHealth deviceHealth = new DeviceHealth(swerve::isGyroConnected);
+
+  // Rate groups
+  private RateGroup mainLoop = new RateGroup(TimedRobot.kDefaultPeriod);
+  private RateGroup controlLoop = new RateGroup(kRates.controlPeriod);
+  private RateGroup visionLoop = new RateGroup(kRates.visionPeriod);
+  private RateGroup loggingLoop = new RateGroup(kRates.loggingPeriod);
+  private RateGroup indicationsLoop = new RateGroup(kRates.indicationsPeriod);
+  private Notifier loggingNotifier;
+  private Notifier indicationsNotifier;
+
+  // Allocation and garbage collection on the robot thread
+  private AllocationMonitor allocations = new AllocationMonitor();
+
+  // Snapshot of the last few seconds of loops whenever one overruns
+  private FlightRecorder flightRecorder =
+      new FlightRecorder(
+          kFlightRecorder.duration,
+          TimedRobot.kDefaultPeriod,
+          kFlightRecorder.dumpCooldown,
+          kFlightRecorder.useJfr,
+          allocations);
+
+  // Indications and logging run while disabled already, this covers what only runs enabled
+  private Warmup warmup = new Warmup(kWarmup.iterations, kWarmup.budget);
+
   // Factories
   private IntakeShooter intakeShooter =
-      new IntakeShooter(handoffRollers, intakePivot, intakeRollers, shooterFlywheels, shooterPivot);
+      new IntakeShooter(
+          handoffRollers, intakePivot, intakeRollers, shooterFlywheels, shooterPivot, noteTracker);
   private ClimberFactory climberFactory = new ClimberFactory(climber, shooterPivot);
   private SwerveShoot swerveShoot = new SwerveShoot(swerve, intakeShooter);
 
@@ -81,6 +189,20 @@ public class Robot extends TimedRobot implements Logged {
   private Command autoCommand;
   private SysIdRoutines sysIdRoutines;
 
+  private static ModuleIO moduleIO(int driveCANId, int steerCANId, double offset) {
+    return IO.select(
+        () -> new ModuleIOSpark(driveCANId, steerCANId, offset),
+        ModuleIOSim::new,
+        () -> new ModuleIO() {});
+  }
+
+  private static VisionIO visionIO(String name, Transform3d robotToCamera) {
+    return IO.select(
+        () -> new VisionIOPhoton(name, robotToCamera),
+        () -> new VisionIOPhoton(name, robotToCamera),
+        () -> new VisionIO() {});
+  }
+
   // Bind commands to triggers
   private void configureTeleopBindings() {
     // Default telop drive command
@@ -106,17 +228,20 @@ public class Robot extends TimedRobot implements Logged {
 
     driverController
         .leftBumper()
-        .and(() -> !intakeRollers.hasPiece() && !handoffRollers.hasPiece())
+        .and(() -> !noteTracker.hasNote())
         .whileTrue(intakeShooter.intakeProcess());
 
     driverController.y().onTrue(climberFactory.goUpFully());
     driverController.a().whileTrue(climber.climbDown(11));
     driverController.b().onTrue(intakeShooter.unjamNote());
 
+    // Drive around the field's obstacles to a scoring or pickup spot while held
+    driverController.povUp().whileTrue(swerve.driveToTargetCommand(kPathfinding.speaker));
+    driverController.povLeft().whileTrue(swerve.driveToTargetCommand(kPathfinding.amp));
+    driverController.povDown().whileTrue(swerve.driveToTargetCommand(kPathfinding.source));
+
     oopsieWoopsieController.button(3).onTrue(intakeShooter.unjamNote());
-    oopsieWoopsieController
-        .button(5)
-        .onTrue(intakeRollers.intake().deadlineWith(handoffRollers.outtakeCommand()));
+    oopsieWoopsieController.button(5).onTrue(intakeShooter.manualIntake());
     oopsieWoopsieController
         .button(4)
         .and(oopsieWoopsieController.button(1))
@@ -147,7 +272,7 @@ public class Robot extends TimedRobot implements Logged {
                 .unless(
                     () ->
                         shooterPivot.getGoalPosition() != ShooterPosition.HOME
-                            || !handoffRollers.hasPiece()
+                            || !noteTracker.is(NoteState.STAGED)
                             || !swerve.isInAutoAmpRange())
                 .withName("autoAmp"));
 
@@ -156,24 +281,20 @@ public class Robot extends TimedRobot implements Logged {
         .and(driverController.rightTrigger())
         .and(() -> autoAmpDisableSwitch.getBoolean(false))
         .and(() -> shooterPivot.getGoalPosition() == ShooterPosition.HOME)
-        .and(handoffRollers::hasPiece)
+        .and(() -> noteTracker.is(NoteState.STAGED))
         .onTrue(intakeShooter.pivotAmp());
   }
 
   private void configureCommands() {
-    new Trigger(intakeRollers::hasPiece)
-        .and(() -> !handoffRollers.hasPiece())
-        .and(intakePivot::isHome)
+    noteTracker
+        .state(NoteState.INDEXING)
         .and(DriverStation::isTeleopEnabled)
-        .onTrue(
-            intakeShooter.handOff().withInterruptBehavior(InterruptionBehavior.kCancelIncoming));
+        .onTrue(intakeShooter.indexAndHandOff());
 
-    new Trigger(intakeRollers::isIndexing)
+    // Spin up as soon as the note is on its way to the shooter
+    noteTracker
+        .state(NoteState.HANDOFF, NoteState.STAGED, NoteState.SHOOTING)
         .and(DriverStation::isTeleopEnabled)
-        .onTrue(intakeRollers.index());
-
-    new Trigger(DriverStation::isTeleopEnabled)
-        .and(handoffRollers::hasPiece)
         .and(shooterPivot::isHome)
         .and(swerve::isInSpeakerRange)
         .whileTrue(shooterFlywheels.spinUpSpeaker());
@@ -193,6 +314,70 @@ public class Robot extends TimedRobot implements Logged {
     driverController.a().whileTrue(Commands.deferredProxy(sysIdRoutines::getCommand));
   }
 
+  // Split the periodic work into groups that run at their own rates
+  private void configureRateGroups() {
+    mainLoop.add(allocations::update);
+    mainLoop.add(allocations.measure("CommandScheduler", CommandScheduler.getInstance()::run));
+    controlLoop.add(shooterPivot::controlPeriodic);
+    controlLoop.add(intakePivot::controlPeriodic);
+    visionLoop.add(swerve::visionPeriodic);
+    loggingLoop.add(allocations.measure("Monologue", Monologue::updateAll));
+    loggingLoop.add(allocations.measure("FileLog", FileLog::update));
+    loggingLoop.add(allocations.measure("Telemetry", Telemetry::update));
+    indicationsLoop.add(indications::update);
+
+    flightRecorder.addPhase("main", mainLoop::getLoopTime);
+    flightRecorder.addPhase("control", controlLoop::getLoopTime);
+    flightRecorder.addPhase("vision", visionLoop::getLoopTime);
+    flightRecorder.addPhase("logging", loggingLoop::getLoopTime);
+    flightRecorder.addPhase("indications", indicationsLoop::getLoopTime);
+
+    // Replay steps these itself after each main loop
+    if (Replay.isReplay()) return;
+    addPeriodic(controlLoop::run, kRates.controlPeriod, kRates.controlOffset);
+    addPeriodic(visionLoop::run, kRates.visionPeriod, kRates.visionOffset);
+
+    // Off a real-time loop, started on their own threads once init is done
+    if (isRealtime()) return;
+    addPeriodic(loggingLoop::run, kRates.loggingPeriod, kRates.loggingOffset);
+    addPeriodic(indicationsLoop::run, kRates.indicationsPeriod, kRates.indicationsOffset);
+  }
+
+  // Only the robot gets real-time scheduling, see ThreadPriorities
+  private boolean isRealtime() {
+    return kThreads.realtime && RobotBase.isReal();
+  }
+
+  // Raise the loop to real-time priority, with logging and indications on normal priority Notifiers
+  // so only control work is raised. They only read robot state, and an overrunning loop can't
+  // starve them along with NT and the DataLog writer.
+  private void startRealtime() {
+    loggingNotifier = new Notifier(loggingLoop::run);
+    loggingNotifier.setName("Logging");
+    loggingNotifier.startPeriodic(kRates.loggingPeriod);
+    indicationsNotifier = new Notifier(indicationsLoop::run);
+    indicationsNotifier.setName("Indications");
+    indicationsNotifier.startPeriodic(kRates.indicationsPeriod);
+    ThreadPriorities.setRealtime(kThreads.mainPriority);
+  }
+
+  // Mean and max jitter of each rate group since the last disable, to compare runs with and
+  // without kThreads.realtime
+  private void logJitter() {
+    var summary = new StringBuilder("Rate group jitter, realtime " + kThreads.realtime + ":");
+    var groups = List.of(mainLoop, controlLoop, visionLoop, loggingLoop, indicationsLoop);
+    var names = List.of("main", "control", "vision", "logging", "indications");
+    for (int i = 0; i < groups.size(); i++) {
+      var group = groups.get(i);
+      summary.append(
+          String.format(
+              " %s %.2f/%.2f ms",
+              names.get(i), group.getMeanJitter() * 1e3, group.getMaxJitter() * 1e3));
+      group.resetJitter();
+    }
+    DataLogManager.log(summary.toString());
+  }
+
   private void disableBrakeMode() {
     shooterPivot.setBrakeModeCommand(false).schedule();
   }
@@ -200,7 +385,9 @@ public class Robot extends TimedRobot implements Logged {
   @Override
   public void robotInit() {
     // Configure NetworkTables for simulation with photonvision running
-    if (Robot.isSimulation() && Constants.simMode != SimMode.DESKTOP) {
+    if (Robot.isSimulation()
+        && (Constants.simMode == SimMode.HARDWARE_IN_LOOP
+            || Constants.simMode == SimMode.DESKTOP_VISION)) {
       NetworkTableInstance instance = NetworkTableInstance.getDefault();
       instance.stopServer();
       // set the NT server if simulating this code.
@@ -228,13 +415,15 @@ public class Robot extends TimedRobot implements Logged {
     DataLogManager.log("Testing mode is " + Constants.testMode);
 
     // Start Monologue
+    // Telemetry moves Monologue to file only whenever the FMS is attached
     Monologue.setupMonologue(this, "system", Constants.logFileOnly, Constants.logLazy);
-    Monologue.setFileOnly(DriverStation.isFMSAttached() ? true : Constants.logFileOnly);
+    configureRateGroups();
 
     // Configure command bindings
     if (Constants.testMode != Constants.TestMode.SYSID) configureTeleopBindings();
     else if (Constants.testMode == Constants.TestMode.SYSID) {
-      sysIdRoutines = new SysIdRoutines(Set.of(swerve));
+      sysIdRoutines = new SysIdRoutines(Set.of(swerve, shooterFlywheels));
+      loggingLoop.add(sysIdRoutines::flush);
       configureSysIdBindings();
     }
 
@@ -244,8 +433,8 @@ public class Robot extends TimedRobot implements Logged {
     configureCommands();
 
     // Start auto selector
-    autoCommand = autos.getSelector().getSelected();
-    autos.getSelector().onChange((command) -> autoCommand = command);
+    autoCommand = autos.getCommand(autos.getSelector().getSelected());
+    autos.getSelector().onChange((name) -> autoCommand = autos.getCommand(name));
     Shuffleboard.getTab("Driver Info").add("Auto selector", autos.getSelector());
     autoAmpDisableSwitch =
         Shuffleboard.getTab("Driver Info")
@@ -254,19 +443,58 @@ public class Robot extends TimedRobot implements Logged {
             .getEntry();
 
     FollowPathCommand.warmupCommand().ignoringDisable(true).schedule();
+    warmup.add(swerve::warmup);
+    warmup.add(shooterPivot::warmup);
+    warmup.add(intakePivot::warmup);
+
+    // Control timing comes first once init is done, every rate group is added by now
+    if (isRealtime()) startRealtime();
+
+    // JVM start to the end of init, mostly class loading that the class data sharing archive cuts
+    double startupTime = ManagementFactory.getRuntimeMXBean().getUptime() * 1e-3;
+    log("Startup time", startupTime);
+    DataLogManager.log(String.format("Startup took %.2f s", startupTime));
+  }
+
+  @Override
+  public void startCompetition() {
+    // Replay runs the log through the loop as fast as possible instead of on the timer
+    if (Replay.isReplay()) Replay.run(this::robotInit, this::loopFunc);
+    else super.startCompetition();
+  }
+
+  @Override
+  protected void loopFunc() {
+    long start = RobotController.getFPGATime();
+    Replay.beginCycle();
+    super.loopFunc();
+    if (!Replay.isReplay()) flightRecorder.record((RobotController.getFPGATime() - start) * 1e-6);
+
+    // Replay only steps the main loop, so run the other groups for the same span of time
+    if (Replay.isReplay())
+      for (var group : List.of(controlLoop, visionLoop, loggingLoop, indicationsLoop))
+        group.runFor(getPeriod());
   }
 
   @Override
   public void robotPeriodic() {
-    CommandScheduler.getInstance().run();
-    Monologue.updateAll();
+    Replay.processDriverStation();
+    mainLoop.run();
   }
 
   @Override
-  public void disabledInit() {}
+  public void disabledInit() {
+    logJitter();
+  }
 
   @Override
-  public void disabledPeriodic() {}
+  public void disabledPeriodic() {
+    warmup.run();
+
+    // Compile the selected auto for the alliance once it's known, so auto starts with no path math
+    if (DriverStation.getAlliance().isPresent())
+      autoCommand = autos.getCommand(autos.getSelector().getSelected());
+  }
 
   @Override
   public void disabledExit() {}
@@ -274,6 +502,7 @@ public class Robot extends TimedRobot implements Logged {
   @Override
   public void autonomousInit() {
     intakePivot.reset();
+    autoCommand = autos.getCommand(autos.getSelector().getSelected());
     autoCommand.schedule();
   }
 
@@ -1,16 +1,25 @@
 package frc.robot.commands;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
 import com.pathplanner.lib.auto.NamedCommands;
-import com.pathplanner.lib.path.PathPlannerPath;
+import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj.DriverStation.Alliance;
+import edu.wpi.first.wpilibj.Filesystem;
 import edu.wpi.first.wpilibj.smartdashboard.SendableChooser;
 import edu.wpi.first.wpilibj2.command.Command;
 import edu.wpi.first.wpilibj2.command.Commands;
+import frc.robot.Constants.kAutos;
 import frc.robot.subsystems.IntakePivot;
 import frc.robot.subsystems.ShooterFlywheels;
 import frc.robot.subsystems.ShooterPivot;
 import frc.robot.subsystems.Swerve;
-import java.util.LinkedHashMap;
-import java.util.Map;
+import frc.robot.utilities.ChoreoTrajectory;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
 
 public class AutoRoutines {
   private final Swerve swerve;
@@ -24,11 +33,18 @@ public class AutoRoutines {
   @SuppressWarnings("unused")
   private final IntakePivot intakePivot;
 
-  private final LinkedHashMap<String, PathPlannerPath> paths =
-      new LinkedHashMap<String, PathPlannerPath>();
+  // Loaded the first time a selected routine uses them, mirrored copies for red
+  private final HashMap<String, ChoreoTrajectory> trajectories =
+      new HashMap<String, ChoreoTrajectory>();
+  private final HashMap<String, ChoreoTrajectory> mirroredTrajectories =
+      new HashMap<String, ChoreoTrajectory>();
 
-  private final LinkedHashMap<String, Command> routines = new LinkedHashMap<String, Command>();
-  private final SendableChooser<Command> selector = new SendableChooser<Command>();
+  // Routine definitions, only the selected one is compiled into a command
+  private JsonNode routines;
+  private final SendableChooser<String> selector = new SendableChooser<String>();
+  private String compiledName = "";
+  private Alliance compiledAlliance = Alliance.Blue;
+  private Command compiled = Commands.none();
 
   public AutoRoutines(
       Swerve swerve,
@@ -43,206 +59,134 @@ public class AutoRoutines {
     this.intakePivot = intakePivot;
 
     loadCommands();
-    loadPaths();
     loadRoutines();
     populateSendable();
   }
 
-  /* Add paths to the hashmap using this format:
-     paths.put("<Name>", PathPlannerPath.fromPathFile("<path file name>"));
-     ex:
-     paths.put("Crazy auto", swerve.followPathWithEventsCommand(paths.get("crazy_auto")));
-  */
-  private void loadPaths() {
-    paths.put("fourNote1", PathPlannerPath.fromChoreoTrajectory("four note.1"));
-    paths.put("fourNote2", PathPlannerPath.fromChoreoTrajectory("four note.2"));
-    paths.put("fourNote3", PathPlannerPath.fromChoreoTrajectory("four note.3"));
-    paths.put("fiveNote1", PathPlannerPath.fromChoreoTrajectory("five note.1"));
-    paths.put("fiveNote2", PathPlannerPath.fromChoreoTrajectory("five note.2"));
-    paths.put("fiveNote3", PathPlannerPath.fromChoreoTrajectory("five note.3"));
-    paths.put("fiveNote4", PathPlannerPath.fromChoreoTrajectory("five note.4"));
-    paths.put("shootTaxiLeft", PathPlannerPath.fromChoreoTrajectory("shootTaxiLeft"));
-    paths.put("shootTaxiRight", PathPlannerPath.fromChoreoTrajectory("shootTaxiRight"));
-    paths.put("testIntake", PathPlannerPath.fromChoreoTrajectory("testIntake"));
-    paths.put("far1", PathPlannerPath.fromChoreoTrajectory("far.1"));
-    paths.put("far2", PathPlannerPath.fromChoreoTrajectory("far.2"));
-    paths.put("midFar", PathPlannerPath.fromChoreoTrajectory("midFar"));
-    paths.put("stageNear", PathPlannerPath.fromChoreoTrajectory("stageNear"));
-  }
-
   // Add commands to PathPlanner in this form:
   // NamedCommands.registerCommand("<Name>", <command>);
-  // Must match the naming in the PathPlanner app
+  // Must match the naming in the PathPlanner app and deploy/routines.json
   private void loadCommands() {
     NamedCommands.registerCommand("intake", intakeShooterCommands.autoIntake());
     NamedCommands.registerCommand("shootSpeaker", intakeShooterCommands.autoShoot());
+    NamedCommands.registerCommand("shootSpeakerVelocity", intakeShooterCommands.shootSpeaker());
   }
 
-  /* Add routines to the hashmap using this format:
-     routines.put("<Name>", <Command to run>);
-     ex:
-     routines.put("Crazy auto", swerve.followPathWithEventsCommand(paths.get("Crazy auto")));
+  /* Routines are defined in deploy/routines.json in this format:
+     "<Name>": {
+       "flywheels": <volts to spin at for the whole routine, optional>,
+       "steps": [
+         {"wait": <seconds>},
+         {"print": "<message>"},
+         {"command": "<NamedCommands name>"},
+         {"path": "<Choreo trajectory in autos.chor>", "reset": <reset pose>, "intake": <intake>}
+       ]
+     }
+     The build checks every path against autos.chor and the generated trajectories.
   */
   private void loadRoutines() {
-    routines.put("No Auto", Commands.waitSeconds(0));
-    routines.put(
-        "fourNote",
-        flywheels
-            .shootVoltage(10)
-            .raceWith(
-                Commands.waitSeconds(0.5)
-                    .andThen(
-                        intakeShooterCommands
-                            .autoShoot()
-                            .andThen(
-                                swerve
-                                    .followPathCommand(paths.get("fourNote1"), true, true)
-                                    .alongWith(
-                                        Commands.waitSeconds(0.1)
-                                            .andThen(
-                                                intakeShooterCommands.autoIntake().withTimeout(2))))
-                            .andThen(intakeShooterCommands.autoShoot())
-                            .andThen(
-                                swerve
-                                    .followPathCommand(paths.get("fourNote2"), true)
-                                    .alongWith(intakeShooterCommands.autoIntake().withTimeout(2.4)))
-                            .andThen(intakeShooterCommands.autoShoot())
-                            .andThen(
-                                swerve
-                                    .followPathCommand(paths.get("fourNote3"), true)
-                                    .alongWith(intakeShooterCommands.autoIntake()))
-                            .andThen(intakeShooterCommands.autoShoot()))));
-
-    routines.put(
-        "fiveNote",
-        flywheels
-            .shootVoltage(10)
-            .raceWith(
-                Commands.waitSeconds(0.5)
-                    .andThen(
-                        intakeShooterCommands
-                            .autoShoot()
-                            .andThen(
-                                swerve
-                                    .followPathCommand(paths.get("fiveNote1"), true, true)
-                                    .deadlineWith(
-                                        Commands.waitSeconds(0.1)
-                                            .andThen(intakeShooterCommands.autoIntake())))
-                            .andThen(intakeShooterCommands.autoShoot())
-                            .andThen(
-                                swerve
-                                    .followPathCommand(paths.get("fiveNote2"), true, true)
-                                    .deadlineWith(intakeShooterCommands.autoIntake()))
-                            .andThen(intakeShooterCommands.autoShoot())
-                            .andThen(
-                                swerve
-                                    .followPathCommand(paths.get("fiveNote3"), true, true)
-                                    .deadlineWith(intakeShooterCommands.autoIntake()))
-                            .andThen(intakeShooterCommands.autoShoot())
-                            .andThen(
-                                swerve
-                                    .followPathCommand(paths.get("fiveNote4"), true, true)
-                                    .deadlineWith(intakeShooterCommands.autoIntake()))
-                            .andThen(intakeShooterCommands.autoShoot()))));
-
-    routines.put(
-        "far",
-        flywheels
-            .shootVoltage(10)
-            .raceWith(
-                Commands.waitSeconds(0.5)
-                    .andThen(
-                        intakeShooterCommands
-                            .autoShoot()
-                            .andThen(
-                                swerve
-                                    .followPathCommand(paths.get("far1"), true, true)
-                                    .deadlineWith(
-                                        Commands.waitSeconds(0.1)
-                                            .andThen(intakeShooterCommands.autoIntake())))
-                            .andThen(intakeShooterCommands.autoShoot())
-                            .andThen(
-                                swerve
-                                    .followPathCommand(paths.get("far2"), true)
-                                    .deadlineWith(intakeShooterCommands.autoIntake()))
-                            .andThen(intakeShooterCommands.autoShoot()))));
-
-    routines.put(
-        "midFar",
-        flywheels
-            .shootVoltage(10)
-            .raceWith(
-                Commands.waitSeconds(0.5)
-                    .andThen(
-                        intakeShooterCommands
-                            .autoShoot()
-                            .andThen(
-                                swerve
-                                    .followPathCommand(paths.get("midFar"), true, true)
-                                    .deadlineWith(
-                                        Commands.waitSeconds(0.1)
-                                            .andThen(intakeShooterCommands.autoIntake())))
-                            .andThen(intakeShooterCommands.autoShoot()))));
-
-    routines.put(
-        "midFarAndStageNear",
-        flywheels
-            .shootVoltage(10)
-            .raceWith(
-                Commands.waitSeconds(0.5)
-                    .andThen(
-                        intakeShooterCommands
-                            .autoShoot()
-                            .andThen(
-                                swerve
-                                    .followPathCommand(paths.get("midFar"), true, true)
-                                    .deadlineWith(
-                                        Commands.waitSeconds(0.1)
-                                            .andThen(intakeShooterCommands.autoIntake())))
-                            .andThen(intakeShooterCommands.autoShoot()))
-                    .andThen(
-                        swerve
-                            .followPathCommand(paths.get("stageNear"), true, true)
-                            .deadlineWith(
-                                Commands.waitSeconds(0.1)
-                                    .andThen(intakeShooterCommands.autoIntake())))
-                    .andThen(intakeShooterCommands.autoShoot())));
-
-    routines.put(
-        "test",
-        swerve
-            .followPathCommand(paths.get("testIntake"), true)
-            .andThen(Commands.print("Finished swerve"))
-            .andThen(Commands.waitSeconds(1))
-            .andThen(intakeShooterCommands.shootSpeaker())
-            .andThen(Commands.print("Made shot")));
-    routines.put(
-        "shootTaxiLeft",
-        flywheels
-            .shootVoltage(10)
-            .raceWith(
-                Commands.waitSeconds(0.5)
-                    .andThen(swerve.followPathCommand(paths.get("shootTaxiLeft"), true))));
-    routines.put(
-        "shootTaxiRight",
-        flywheels
-            .shootVoltage(10)
-            .raceWith(
-                Commands.waitSeconds(0.5)
-                    .andThen(swerve.followPathCommand(paths.get("shootTaxiRight"), true))));
-    routines.put("shootOnly", flywheels.shootVoltage(10));
+    try {
+      routines =
+          new ObjectMapper().readTree(new File(Filesystem.getDeployDirectory(), "routines.json"));
+    } catch (IOException e) {
+      DriverStation.reportError("Can't read auto routines", e.getStackTrace());
+      routines = JsonNodeFactory.instance.objectNode();
+    }
+
+    // Named commands are only known at runtime, check them at boot
+    routines
+        .fields()
+        .forEachRemaining(
+            (routine) -> {
+              for (var step : routine.getValue().path("steps")) {
+                if (step.has("command") && !NamedCommands.hasCommand(step.get("command").asText()))
+                  DriverStation.reportError(
+                      "Auto " + routine.getKey() + " uses unknown command " + step.get("command"),
+                      false);
+              }
+            });
   }
 
-  // Adds all the Commands to the sendable chooser
-  private void populateSendable() {
-    selector.setDefaultOption("No Auto", routines.get("No Auto"));
-    for (Map.Entry<String, Command> entry : routines.entrySet()) {
-      selector.addOption(entry.getKey(), entry.getValue());
+  // Get a routine's command for the current alliance, compiled the first time it's selected. Called
+  // while disabled so the trajectories are loaded and mirrored before auto starts.
+  public Command getCommand(String name) {
+    var alliance = DriverStation.getAlliance().orElse(Alliance.Blue);
+    if (!name.equals(compiledName) || alliance != compiledAlliance) {
+      compiledName = name;
+      compiledAlliance = alliance;
+      compiled = compile(name);
+    }
+    return compiled;
+  }
+
+  private Command compile(String name) {
+    var routine = routines.get(name);
+    if (routine == null) return Commands.none();
+
+    var steps = new ArrayList<Command>();
+    for (var step : routine.path("steps")) steps.add(compileStep(step));
+    var sequence = Commands.sequence(steps.toArray(Command[]::new));
+
+    // Flywheels spin for the whole routine, or on their own if it has no steps
+    if (!routine.has("flywheels")) return sequence;
+    var spin = flywheels.shootVoltage(routine.get("flywheels").asDouble());
+    return steps.isEmpty() ? spin : spin.raceWith(sequence);
+  }
+
+  private Command compileStep(JsonNode step) {
+    if (step.has("wait")) return Commands.waitSeconds(step.get("wait").asDouble());
+    if (step.has("print")) return Commands.print(step.get("print").asText());
+    if (step.has("command")) return NamedCommands.getCommand(step.get("command").asText());
+    if (step.has("path")) {
+      String path = step.get("path").asText();
+      boolean resetPose = step.path("reset").asBoolean(false);
+      if (step.path("intake").asBoolean(false)) return followAndIntake(path, resetPose);
+      return follow(path, resetPose);
+    }
+
+    DriverStation.reportError("Unknown auto step " + step, false);
+    return Commands.none();
+  }
+
+  // Follow a path with the intake deployed once the robot is clear of its start. An empty intake
+  // gives up near the end of the path, read from the trajectory, so the next shot isn't held up
+  private Command followAndIntake(String path, boolean resetPose) {
+    var trajectory = getTrajectory(path);
+    double deployTime = trajectory.timeAtDistance(kAutos.intakeDeployDistance);
+    double giveUpTime = trajectory.timeAtDistanceToGo(kAutos.intakeGiveUpDistanceToGo);
+    return follow(path, resetPose)
+        .alongWith(
+            Commands.waitSeconds(deployTime)
+                .andThen(intakeShooterCommands.autoIntake(giveUpTime - deployTime)));
+  }
+
+  // Follow a trajectory, running its event markers' named commands until it ends
+  private Command follow(String path, boolean resetPose) {
+    var trajectory = getTrajectory(path);
+    var follow = swerve.followTrajectoryCommand(trajectory, resetPose);
+    for (int i = 0; i < trajectory.getEventCount(); i++) {
+      follow =
+          follow.deadlineWith(
+              Commands.waitSeconds(trajectory.getEventTime(i))
+                  .andThen(NamedCommands.getCommand(trajectory.getEventName(i))));
     }
+    return follow;
+  }
+
+  private ChoreoTrajectory getTrajectory(String path) {
+    var trajectory = trajectories.computeIfAbsent(path, ChoreoTrajectory::load);
+    if (compiledAlliance == Alliance.Blue) return trajectory;
+    return mirroredTrajectories.computeIfAbsent(path, (name) -> trajectory.mirrored());
+  }
+
+  // Adds all the routine names to the sendable chooser
+  private void populateSendable() {
+    selector.setDefaultOption("No Auto", "No Auto");
+    routines.fieldNames().forEachRemaining((name) -> selector.addOption(name, name));
   }
 
-  // Retuns the SendableChooser of commands
-  public SendableChooser<Command> getSelector() {
+  // Retuns the SendableChooser of routine names
+  public SendableChooser<String> getSelector() {
     return selector;
   }
 }
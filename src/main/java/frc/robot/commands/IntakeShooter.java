@@ -2,12 +2,14 @@ package frc.robot.commands;
 
 import edu.wpi.first.math.geometry.Rotation2d;
 import edu.wpi.first.math.interpolation.InterpolatingDoubleTreeMap;
+import edu.wpi.first.wpilibj.Timer;
 import edu.wpi.first.wpilibj2.command.Command;
 import edu.wpi.first.wpilibj2.command.Command.InterruptionBehavior;
 import edu.wpi.first.wpilibj2.command.Commands;
 import frc.robot.Constants.kIntake;
 import frc.robot.Constants.kIntake.kPivot.IntakePosition;
 import frc.robot.Constants.kIntakeShooter.kHandOff;
+import frc.robot.Constants.kIntakeShooter.kPipeline;
 import frc.robot.Constants.kIntakeShooter.kShootAmp;
 import frc.robot.Constants.kIntakeShooter.kShootSpeaker;
 import frc.robot.Constants.kShooter.kPivot.ShooterPosition;
@@ -16,14 +18,18 @@ import frc.robot.subsystems.IntakePivot;
 import frc.robot.subsystems.IntakeRollers;
 import frc.robot.subsystems.ShooterFlywheels;
 import frc.robot.subsystems.ShooterPivot;
+import frc.robot.utilities.NoteTracker;
+import frc.robot.utilities.NoteTracker.NoteState;
+import monologue.Logged;
 
-public class IntakeShooter {
+public class IntakeShooter implements Logged {
 
   private final HandoffRollers handoffRollers;
   private final IntakePivot intakePivot;
   private final IntakeRollers intakeRollers;
   private final ShooterFlywheels shooterFlywheels;
   private final ShooterPivot shooterPivot;
+  private final NoteTracker noteTracker;
 
   private final InterpolatingDoubleTreeMap lookupTable = new InterpolatingDoubleTreeMap();
 
@@ -32,12 +38,14 @@ public class IntakeShooter {
       IntakePivot intakePivot,
       IntakeRollers intakeRollers,
       ShooterFlywheels shooterFlywheels,
-      ShooterPivot shooterPivot) {
+      ShooterPivot shooterPivot,
+      NoteTracker noteTracker) {
     this.handoffRollers = handoffRollers;
     this.intakePivot = intakePivot;
     this.intakeRollers = intakeRollers;
     this.shooterFlywheels = shooterFlywheels;
     this.shooterPivot = shooterPivot;
+    this.noteTracker = noteTracker;
 
     populateLookupTable();
   }
@@ -47,44 +55,129 @@ public class IntakeShooter {
     lookupTable.put(1.0, 30.0);
   }
 
+  // Run the intake until the sensor sees a note, which then starts indexing
+  private Command intakeNote() {
+    return intakeRollers
+        .intake()
+        .beforeStarting(() -> noteTracker.set(NoteState.INTAKING))
+        .finallyDo(
+            () ->
+                noteTracker.transition(
+                    NoteState.INTAKING,
+                    intakeRollers.sawPiece() ? NoteState.INDEXING : NoteState.NONE));
+  }
+
+  // Feed the staged note into the flywheels, after which the robot is empty
+  private Command feedNote(Command feed) {
+    return timed("Feed", feed)
+        .beforeStarting(() -> noteTracker.set(NoteState.SHOOTING))
+        .finallyDo(() -> noteTracker.set(NoteState.NONE));
+  }
+
+  // Log how long a stage ran for, to compare cycle times between sequencing modes
+  private Command timed(String stage, Command command) {
+    var timer = new Timer();
+    return command
+        .beforeStarting(timer::restart)
+        .finallyDo(() -> this.log("Stage time/" + stage, timer.get()));
+  }
+
   public Command intakeProcess() {
     return Commands.waitSeconds(kIntake.kRollers.intakeDeployWait)
-        .andThen(intakeRollers.intake())
+        .andThen(intakeNote())
         .deadlineWith(intakePivot.setIntakePosition(IntakePosition.DEPLOYED));
   }
 
+  // Intake with the handoff pushing back, for when the intake is stuck up
+  public Command manualIntake() {
+    return intakeNote().deadlineWith(handoffRollers.outtakeCommand());
+  }
+
   public Command autoIntake() {
-    return Commands.waitSeconds(kIntake.kRollers.intakeDeployWait)
-        .andThen(intakeRollers.intake())
-        .deadlineWith(intakePivot.setIntakePosition(IntakePosition.DEPLOYED))
-        .andThen(
-            intakeRollers
-                .index()
-                .alongWith(
-                    intakePivot.setIntakePosition(IntakePosition.HOME).until(intakePivot::isHome)))
-        .andThen(handOff());
+    return autoIntake(Double.POSITIVE_INFINITY);
+  }
+
+  // Give up if no note is in the intake by the timeout, a note that is gets handed off regardless
+  public Command autoIntake(double timeout) {
+    var intake = kPipeline.enabled ? pipelinedIntake() : sequentialIntake();
+    var stow = kPipeline.enabled ? pipelinedStow() : sequentialStow();
+    return timed(
+        "Intake cycle",
+        intake
+            .withTimeout(timeout)
+            .andThen(stow.andThen(handOff()).onlyIf(() -> noteTracker.is(NoteState.INDEXING))));
+  }
+
+  // Each stage waits out its fixed time before the next starts
+  private Command sequentialIntake() {
+    return timed("Deploy", Commands.waitSeconds(kIntake.kRollers.intakeDeployWait))
+        .andThen(timed("Intake", intakeNote()))
+        .deadlineWith(intakePivot.setIntakePosition(IntakePosition.DEPLOYED));
+  }
+
+  private Command sequentialStow() {
+    return timed(
+        "Index",
+        intakeRollers
+            .index()
+            .alongWith(
+                intakePivot.setIntakePosition(IntakePosition.HOME).until(intakePivot::isHome)));
+  }
+
+  // The rollers start once the intake is low enough to reach a note
+  private Command pipelinedIntake() {
+    return timed(
+            "Deploy",
+            Commands.waitUntil(() -> intakePivot.getPivotAngle() < kPipeline.rollerStartAngle))
+        .andThen(timed("Intake", intakeNote()))
+        .deadlineWith(intakePivot.setIntakePosition(IntakePosition.DEPLOYED));
+  }
+
+  // Indexing runs only until the intake is home so the handoff starts the moment it can
+  private Command pipelinedStow() {
+    return timed(
+        "Index",
+        intakeRollers
+            .index()
+            .until(intakePivot::isHome)
+            .alongWith(
+                intakePivot.setIntakePosition(IntakePosition.HOME).until(intakePivot::isHome)));
+  }
+
+  // Index the note while the intake comes home, then hand it off as soon as it gets there
+  public Command indexAndHandOff() {
+    var index =
+        kPipeline.enabled
+            ? intakeRollers.index().until(intakePivot::isHome)
+            : intakeRollers.index();
+    return timed("Index", index).andThen(Commands.waitUntil(intakePivot::isHome), handOff());
   }
 
   public Command autoShoot() {
-    return handoffRollers.feedShooterCommand().deadlineWith(intakeRollers.outtakeCommand());
+    return feedNote(
+        handoffRollers.feedShooterCommand().deadlineWith(intakeRollers.outtakeCommand()));
   }
 
   public Command shootSpeaker() {
     return shooterFlywheels
         .setShooterSpeed(kShootSpeaker.shootVelocity)
         .raceWith(
-            Commands.waitSeconds(kShootSpeaker.delay)
-                .until(shooterFlywheels::atVelocitySetpoint)
+            timed(
+                    "Spin up",
+                    Commands.waitSeconds(kShootSpeaker.delay)
+                        .until(shooterFlywheels::atVelocitySetpoint))
                 .andThen(
-                    handoffRollers
-                        .feedShooterCommand()
-                        .deadlineWith(intakeRollers.outtakeCommand())));
+                    feedNote(
+                        handoffRollers
+                            .feedShooterCommand()
+                            .deadlineWith(intakeRollers.outtakeCommand()))));
   }
 
   public Command handOff() {
-    return intakeRollers
-        .outtakeCommand()
-        .raceWith(handoffRollers.intakeCommand())
+    return timed("HandOff", intakeRollers.outtakeCommand().raceWith(handoffRollers.intakeCommand()))
+        .beforeStarting(() -> noteTracker.set(NoteState.HANDOFF))
+        .finallyDo(
+            () -> noteTracker.set(handoffRollers.sawPiece() ? NoteState.STAGED : NoteState.NONE))
         .withInterruptBehavior(InterruptionBehavior.kCancelIncoming)
         .withTimeout(kHandOff.timeout);
   }
@@ -103,7 +196,8 @@ public class IntakeShooter {
     return shooterFlywheels
         .shootVoltage(kShootAmp.shootVoltage)
         .raceWith(
-            Commands.waitSeconds(kShootAmp.delay).andThen(handoffRollers.feedShooterCommand()))
+            Commands.waitSeconds(kShootAmp.delay)
+                .andThen(feedNote(handoffRollers.feedShooterCommand())))
         .andThen(shooterPivot.goToPositionCommand(ShooterPosition.HOME));
   }
 
@@ -119,7 +213,8 @@ public class IntakeShooter {
             Commands.idle()
                 .until(() -> intakePivot.isAtPosition(IntakePosition.EJECT))
                 .andThen(intakeRollers.eject())
-                .deadlineWith(intakePivot.setIntakePosition(IntakePosition.EJECT)));
+                .deadlineWith(intakePivot.setIntakePosition(IntakePosition.EJECT)))
+        .finallyDo(() -> noteTracker.set(NoteState.NONE));
   }
 
   public Command sourceIntake() {
@@ -7,6 +7,7 @@ import edu.wpi.first.wpilibj2.command.Commands;
 import edu.wpi.first.wpilibj2.command.sysid.SysIdRoutine;
 import edu.wpi.first.wpilibj2.command.sysid.SysIdRoutine.Direction;
 import frc.robot.utilities.Characterizable;
+import frc.robot.utilities.SysIdCapture;
 import java.util.Set;
 
 public class SysIdRoutines {
@@ -21,6 +22,8 @@ public class SysIdRoutines {
   private final SendableChooser<String> testSelector = new SendableChooser<String>();
 
   private SysIdRoutine currentRoutine;
+  private SysIdCapture currentCapture;
+  private SysIdCapture lastCapture; // still being flushed after its test
 
   // Routine Types
   public static enum SysIdType {
@@ -51,30 +54,47 @@ public class SysIdRoutines {
     sysIdTab.add("Test Direction", testSelector);
     sysIdTab.add("Test Type", typeSelector);
 
-    subsystemSelector.onChange(
-        subsystem -> currentRoutine = subsystem.getRoutine(typeSelector.getSelected()));
-    typeSelector.onChange(
-        type -> currentRoutine = subsystemSelector.getSelected().getRoutine(type));
+    subsystemSelector.onChange(subsystem -> select(subsystem, typeSelector.getSelected()));
+    typeSelector.onChange(type -> select(subsystemSelector.getSelected(), type));
+  }
+
+  private void select(Characterizable subsystem, SysIdType type) {
+    currentRoutine = subsystem.getRoutine(type);
+    currentCapture = subsystem.getCapture(type);
   }
 
   public Command getCommand() {
     if (subsystemSelector.getSelected() == null || currentRoutine == null) return Commands.none();
 
+    Command test;
     switch (testSelector.getSelected()) {
       case "forwardStatic":
-        return currentRoutine.quasistatic(Direction.kForward);
+        test = currentRoutine.quasistatic(Direction.kForward);
+        break;
 
       case "reverseStatic":
-        return currentRoutine.quasistatic(Direction.kReverse);
+        test = currentRoutine.quasistatic(Direction.kReverse);
+        break;
 
       case "forwardDynamic":
-        return currentRoutine.dynamic(Direction.kForward);
+        test = currentRoutine.dynamic(Direction.kForward);
+        break;
 
       case "reverseDynamic":
-        return currentRoutine.dynamic(Direction.kReverse);
+        test = currentRoutine.dynamic(Direction.kReverse);
+        break;
 
       default:
         return Commands.none();
     }
+
+    if (currentCapture == null) return test;
+    lastCapture = currentCapture;
+    return currentCapture.wrap(test);
+  }
+
+  // Write the last test's high rate capture to the log in batches, call from the logging loop
+  public void flush() {
+    if (lastCapture != null) lastCapture.flush();
   }
 }
@@ -1,89 +1,100 @@
 package frc.robot.subsystems;
 
-import com.ctre.phoenix.motorcontrol.ControlMode;
-import com.ctre.phoenix.motorcontrol.NeutralMode;
-import com.ctre.phoenix.motorcontrol.can.TalonSRX;
-import edu.wpi.first.wpilibj.DigitalInput;
+import edu.wpi.first.wpilibj.Timer;
 import edu.wpi.first.wpilibj.shuffleboard.Shuffleboard;
 import edu.wpi.first.wpilibj2.command.Command;
 import edu.wpi.first.wpilibj2.command.Commands;
 import edu.wpi.first.wpilibj2.command.SubsystemBase;
 import frc.robot.Constants.kShooter.kHandoffRollers;
+import frc.robot.subsystems.io.HandoffRollersIO;
+import frc.robot.subsystems.io.HandoffRollersInputs;
+import frc.robot.utilities.LatencyHistogram;
+import frc.robot.utilities.Replay;
+import frc.robot.utilities.Telemetry;
+import frc.robot.utilities.Telemetry.Tier;
 import monologue.Annotations.Log;
 import monologue.Logged;
 
 public class HandoffRollers extends SubsystemBase implements Logged {
-  private final TalonSRX rollerTalonSRX = new TalonSRX(kHandoffRollers.canID);
-  private final DigitalInput upperSensor = new DigitalInput(kHandoffRollers.upperSensorPort);
-  private final DigitalInput lowerSensor = new DigitalInput(kHandoffRollers.lowerSensorPort);
-  private boolean hasPiece = false;
-
-  public HandoffRollers() {
-    rollerTalonSRX.setInverted(kHandoffRollers.inverted);
-    rollerTalonSRX.setNeutralMode(NeutralMode.Brake);
+  private final HandoffRollersIO io;
+  private final HandoffRollersInputs inputs = new HandoffRollersInputs();
+
+  // Note edges from the upper sensor interrupt
+  private long lastUpperEdges = 0;
+  private boolean upperEdge = false;
+  private final LatencyHistogram interruptLatency = new LatencyHistogram();
+  private final LatencyHistogram detectionLatency = new LatencyHistogram();
+
+  public HandoffRollers(HandoffRollersIO io) {
+    this.io = io;
     Shuffleboard.getTab("Driver Info").addBoolean("Upper Sensor", this::getUpperSensor);
-    Shuffleboard.getTab("Driver Info").addBoolean("Has Piece", this::hasPiece);
+
+    // Logged to file each logging cycle and published to NT at their tier's rate
+    Telemetry.addDouble(this, Tier.DIAGNOSTIC, "getVoltage", this::getVoltage);
   }
 
-  public void setVoltage(double voltage) {
-    rollerTalonSRX.set(ControlMode.PercentOutput, voltage / 12.0);
+  @Override
+  public void periodic() {
+    io.updateInputs(inputs);
+    Replay.processInputs("HandoffRollers", inputs);
+
+    // A new edge since the last loop, timed from the sensor to the handler and to this loop
+    upperEdge = inputs.upperEdges != lastUpperEdges;
+    if (upperEdge) {
+      lastUpperEdges = inputs.upperEdges;
+      interruptLatency.record(inputs.upperEdgeLatency);
+      if (!Replay.isReplay())
+        detectionLatency.record(Timer.getFPGATimestamp() - inputs.upperEdgeTimestamp);
+    }
   }
 
-  @Log.NT
-  public boolean hasPiece() {
-    return hasPiece;
+  public void setVoltage(double voltage) {
+    io.setVoltage(voltage);
   }
 
   public boolean getLowerSensor() {
-    return lowerSensor.get();
+    return inputs.lowerSensor;
   }
 
   @Log.NT
   public boolean getUpperSensor() {
-    return !upperSensor.get();
+    return inputs.upperSensor;
+  }
+
+  // The upper sensor sees a note, or the interrupt caught one since the last loop
+  public boolean sawPiece() {
+    return upperEdge || getUpperSensor();
   }
 
   public Command feedShooterCommand() {
-    return this.startEnd(
-            () -> setVoltage(kHandoffRollers.shooterFeedVoltage),
-            () -> {
-              setVoltage(0);
-              hasPiece = false;
-            })
+    return this.startEnd(() -> setVoltage(kHandoffRollers.shooterFeedVoltage), () -> setVoltage(0))
         .withTimeout(kHandoffRollers.shooterFeedTime);
   }
 
   public Command intakeSource() {
-    return this.startEnd(
-            () -> setVoltage(kHandoffRollers.sourceIntakeVoltage),
-            () -> {
-              setVoltage(0);
-              hasPiece = true;
-            })
+    return this.startEnd(() -> setVoltage(kHandoffRollers.sourceIntakeVoltage), () -> setVoltage(0))
         .withTimeout(kHandoffRollers.sourceIntakeFeedTime);
   }
 
   public Command intakeCommand() {
-    return this.runOnce(() -> setVoltage(kHandoffRollers.intakeVoltage))
-        .andThen(Commands.waitUntil(this::getUpperSensor))
+    return this.runOnce(
+            () -> {
+              io.setStopOnPiece(true);
+              setVoltage(kHandoffRollers.intakeVoltage);
+            })
+        .andThen(Commands.waitUntil(this::sawPiece))
         .finallyDo(
-            (interrupted) -> {
+            () -> {
+              io.setStopOnPiece(false);
               setVoltage(0);
-              if (getUpperSensor()) hasPiece = true;
             });
   }
 
   public Command outtakeCommand() {
-    return this.startEnd(
-        () -> setVoltage(-kHandoffRollers.intakeVoltage),
-        () -> {
-          setVoltage(0);
-          hasPiece = false;
-        });
+    return this.startEnd(() -> setVoltage(-kHandoffRollers.intakeVoltage), () -> setVoltage(0));
   }
 
-  @Log.NT
   public double getVoltage() {
-    return rollerTalonSRX.getMotorOutputVoltage();
+    return inputs.appliedVolts;
   }
 }
@@ -7,11 +7,12 @@ import edu.wpi.first.wpilibj.util.Color;
 import edu.wpi.first.wpilibj2.command.Commands;
 import edu.wpi.first.wpilibj2.command.SubsystemBase;
 import edu.wpi.first.wpilibj2.command.button.CommandXboxController;
-import edu.wpi.first.wpilibj2.command.button.Trigger;
 import frc.robot.Constants.kIndications;
 import frc.robot.Constants.kIntake.kPivot.IntakePosition;
 import frc.robot.utilities.LEDAnimations;
 import frc.robot.utilities.LEDSubStrip;
+import frc.robot.utilities.NoteTracker;
+import frc.robot.utilities.NoteTracker.NoteState;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
@@ -36,12 +37,10 @@ public class Indications extends SubsystemBase {
   @SuppressWarnings("unused")
   private final ShooterPivot shooterPivot;
 
-  private final IntakeRollers intakeRollers;
-  private final HandoffRollers handoffRollers;
-
   @SuppressWarnings("unused")
   private final ShooterFlywheels shooterFlywheels;
 
+  private final NoteTracker noteTracker;
   private final CommandXboxController driverController;
 
   // Indications Objects
@@ -72,16 +71,14 @@ public class Indications extends SubsystemBase {
       Swerve swerve,
       IntakePivot intakePivot,
       ShooterPivot shooterPivot,
-      IntakeRollers intakeRollers,
-      HandoffRollers handoffRollers,
       ShooterFlywheels shooterFlywheels,
+      NoteTracker noteTracker,
       CommandXboxController driverController) {
     this.swerve = swerve;
     this.intakePivot = intakePivot;
     this.shooterPivot = shooterPivot;
-    this.intakeRollers = intakeRollers;
-    this.handoffRollers = handoffRollers;
     this.shooterFlywheels = shooterFlywheels;
+    this.noteTracker = noteTracker;
     this.driverController = driverController;
 
     populateRules();
@@ -108,7 +105,7 @@ public class Indications extends SubsystemBase {
     ledsRules.add(
         new Rule(
             100,
-            () -> handoffRollers.hasPiece(),
+            () -> noteTracker.is(NoteState.STAGED),
             () -> {
               animations.monotone(leftStrip, Color.kGreen);
               animations.monotone(rightStrip, Color.kGreen);
@@ -117,7 +114,7 @@ public class Indications extends SubsystemBase {
     ledsRules.add(
         new Rule(
             80,
-            () -> intakeRollers.hasPiece(),
+            () -> noteTracker.is(NoteState.INDEXING) || noteTracker.is(NoteState.HANDOFF),
             () -> {
               animations.monotone(leftStrip, Color.kOrange);
               animations.monotone(rightStrip, Color.kOrange);
@@ -128,8 +125,8 @@ public class Indications extends SubsystemBase {
             60,
             () -> intakePivot.getGoalPosition() == IntakePosition.DEPLOYED,
             () -> {
-              animations.flashing(leftStrip, Color.kBlue, 12);
-              animations.flashing(rightStrip, Color.kBlue, 12);
+              animations.flashing(leftStrip, Color.kBlue, 6);
+              animations.flashing(rightStrip, Color.kBlue, 6);
             }));
 
     ledsRules.add(
@@ -143,7 +140,8 @@ public class Indications extends SubsystemBase {
   }
 
   private void bindTriggers() {
-    new Trigger(intakeRollers::isIndexing)
+    noteTracker
+        .state(NoteState.INDEXING)
         .onTrue(
             Commands.startEnd(
                     () -> driverController.getHID().setRumble(RumbleType.kBothRumble, 1),
@@ -151,8 +149,8 @@ public class Indications extends SubsystemBase {
                 .withTimeout(0.3));
   }
 
-  @Override
-  public void periodic() {
+  // Animate the leds, called from the indications rate group
+  public void update() {
     // Update data
     animations.update();
 
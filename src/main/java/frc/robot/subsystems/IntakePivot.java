@@ -5,14 +5,18 @@ import static edu.wpi.first.units.Units.Radians;
 import static edu.wpi.first.units.Units.RadiansPerSecond;
 import static edu.wpi.first.units.Units.Seconds;
 import static edu.wpi.first.units.Units.Volts;
-import static frc.robot.utilities.SparkConfigurator.getSparkMax;
 
-import com.revrobotics.CANSparkBase;
-import com.revrobotics.CANSparkBase.IdleMode;
-import com.revrobotics.CANSparkLowLevel;
-import com.revrobotics.CANSparkMax;
+import edu.wpi.first.math.Nat;
+import edu.wpi.first.math.VecBuilder;
 import edu.wpi.first.math.controller.ArmFeedforward;
-import edu.wpi.first.math.controller.ProfiledPIDController;
+import edu.wpi.first.math.controller.LinearQuadraticRegulator;
+import edu.wpi.first.math.estimator.KalmanFilter;
+import edu.wpi.first.math.filter.Debouncer;
+import edu.wpi.first.math.numbers.N1;
+import edu.wpi.first.math.numbers.N2;
+import edu.wpi.first.math.system.LinearSystem;
+import edu.wpi.first.math.system.LinearSystemLoop;
+import edu.wpi.first.math.system.plant.LinearSystemId;
 import edu.wpi.first.math.trajectory.TrapezoidProfile;
 import edu.wpi.first.math.trajectory.TrapezoidProfile.Constraints;
 import edu.wpi.first.units.Angle;
@@ -20,7 +24,6 @@ import edu.wpi.first.units.MutableMeasure;
 import edu.wpi.first.units.Time;
 import edu.wpi.first.units.Velocity;
 import edu.wpi.first.units.Voltage;
-import edu.wpi.first.wpilibj.Encoder;
 import edu.wpi.first.wpilibj.shuffleboard.Shuffleboard;
 import edu.wpi.first.wpilibj.shuffleboard.ShuffleboardTab;
 import edu.wpi.first.wpilibj2.command.Command;
@@ -29,190 +32,295 @@ import edu.wpi.first.wpilibj2.command.sysid.SysIdRoutine;
 import frc.robot.Constants.kIntake.kPivot;
 import frc.robot.Constants.kIntake.kPivot.IntakePosition;
 import frc.robot.commands.SysIdRoutines.SysIdType;
+import frc.robot.subsystems.io.PivotIO;
+import frc.robot.subsystems.io.PivotInputs;
 import frc.robot.utilities.Characterizable;
-import frc.robot.utilities.SparkConfigurator.LogData;
-import frc.robot.utilities.SparkConfigurator.Sensors;
-import java.util.Set;
+import frc.robot.utilities.PivotTelemetry;
+import frc.robot.utilities.Replay;
+import frc.robot.utilities.StructLogger;
+import frc.robot.utilities.Telemetry;
+import frc.robot.utilities.Telemetry.Tier;
 import java.util.function.DoubleSupplier;
 import monologue.Annotations.Log;
 import monologue.Logged;
 
 public class IntakePivot extends SubsystemBase implements Characterizable, Logged {
 
-  private final CANSparkMax pivotMotor;
-  private final Encoder pivotEncoder;
+  private final PivotIO io;
+  private final PivotInputs inputs = new PivotInputs();
 
   // Controls
   private final ArmFeedforward pivotFF;
-  private final ProfiledPIDController profiledPIDController;
-  private final TrapezoidProfile.Constraints constraints =
-      new Constraints(kPivot.maxVel, kPivot.maxAccel);
+  private final TrapezoidProfile profile =
+      new TrapezoidProfile(new Constraints(kPivot.maxVel, kPivot.maxAccel));
+  private final LinearSystemLoop<N2, N1, N1> loop;
   private final TrapezoidProfile.State goal;
   private final TrapezoidProfile.State currentSetpoint;
   private IntakePosition goalPosition = IntakePosition.HOME;
+  private boolean closedLoop = false;
+
+  // Homing
+  private final Debouncer stallDebouncer = new Debouncer(kPivot.homingDebounce);
+  private boolean homed = false;
+
+  // Logging
+  private final PivotTelemetry telemetry = new PivotTelemetry();
+  private final PivotTelemetry warmupTelemetry = new PivotTelemetry(); // saved across warmup
+  private final StructLogger<PivotTelemetry> telemetryLogger =
+      new StructLogger<PivotTelemetry>(this, "Controller", PivotTelemetry.struct);
 
   // Shuffleboard
   private ShuffleboardTab tab = Shuffleboard.getTab("Intake Pivot");
 
-  public IntakePivot() {
-    // Motor Configs
-    pivotMotor =
-        getSparkMax(
-            kPivot.pivotMotorID,
-            CANSparkLowLevel.MotorType.kBrushless,
-            false,
-            Set.of(Sensors.ABSOLUTE),
-            Set.of(LogData.POSITION, LogData.VELOCITY, LogData.VOLTAGE));
-    pivotMotor.setIdleMode(CANSparkBase.IdleMode.kBrake);
-    pivotMotor.burnFlash();
-
-    // Encoder Configs
-    pivotEncoder = new Encoder(kPivot.portA, kPivot.portB);
-    pivotEncoder.setReverseDirection(kPivot.invertedEncoder);
-    resetEncoder();
+  public IntakePivot(PivotIO io) {
+    this.io = io;
 
     // Feedforward Configs
     pivotFF = new ArmFeedforward(kPivot.kS, kPivot.kG, kPivot.kV, kPivot.kA);
 
-    pivotEncoder.setDistancePerPulse(2 * Math.PI / (kPivot.pulsesPerRevolution * kPivot.gearRatio));
-    pivotEncoder.reset();
+    io.updateInputs(inputs);
+
+    // State space loop from the characterized arm, gravity and friction are added separately
+    LinearSystem<N2, N1, N1> plant = LinearSystemId.identifyPositionSystem(kPivot.kV, kPivot.kA);
+    var lqr =
+        new LinearQuadraticRegulator<N2, N1, N1>(
+            plant,
+            VecBuilder.fill(kPivot.lqrPositionTolerance, kPivot.lqrVelocityTolerance),
+            VecBuilder.fill(12),
+            kPivot.period);
+    var observer =
+        new KalmanFilter<N2, N1, N1>(
+            Nat.N2(),
+            Nat.N1(),
+            plant,
+            VecBuilder.fill(kPivot.kalmanPositionStdDev, kPivot.kalmanVelocityStdDev),
+            VecBuilder.fill(kPivot.kalmanEncoderStdDev),
+            kPivot.period);
+    loop = new LinearSystemLoop<N2, N1, N1>(plant, lqr, observer, 12, kPivot.period);
 
-    profiledPIDController = new ProfiledPIDController(kPivot.kP, kPivot.kI, kPivot.kD, constraints);
-    profiledPIDController.reset(getPivotAngle());
     goal = new TrapezoidProfile.State(kPivot.intakeRadiansHome, 0);
-    profiledPIDController.setGoal(goal);
-    currentSetpoint = profiledPIDController.getSetpoint();
-    profiledPIDController.disableContinuousInput();
+    currentSetpoint = new TrapezoidProfile.State();
+    reset();
 
-    // Button to Reset Encoder
+    // Buttons to Reset Encoder and Home
     tab.add("Reset Intake Pivot Encoder", resetEncoder());
+    tab.add("Home Intake Pivot", home());
     tab.addString("Intake Position", () -> goalPosition.name());
+
+    // Logged to file each logging cycle and published to NT at their tier's rate
+    Telemetry.addDouble(this, Tier.CRITICAL, "getPivotAngle", this::getPivotAngle);
+    Telemetry.addDouble(this, Tier.FILE, "getEstimatedAngle", this::getEstimatedAngle);
+    Telemetry.addDouble(this, Tier.FILE, "getEstimatedVelocity", this::getEstimatedVelocity);
+    Telemetry.addDouble(this, Tier.DIAGNOSTIC, "getPivotVelocity", this::getPivotVelocity);
+    Telemetry.addDouble(this, Tier.DIAGNOSTIC, "getAppliedVoltage", this::getAppliedVoltage);
+    Telemetry.addDouble(this, Tier.DIAGNOSTIC, "getCurrent", this::getCurrent);
+    Telemetry.addDouble(this, Tier.DIAGNOSTIC, "getSetpointAngle", this::getSetpointAngle);
+    Telemetry.addDouble(this, Tier.DIAGNOSTIC, "getSetpointVelocity", this::getSetpointVelocity);
+    Telemetry.addDouble(this, Tier.DIAGNOSTIC, "getGoalAngle", this::getGoalAngle);
+    Telemetry.addDouble(this, Tier.DIAGNOSTIC, "getGoalVelocity", this::getGoalVelocity);
+  }
+
+  @Override
+  public void periodic() {
+    telemetryLogger.log(telemetry);
+  }
+
+  // Read the encoder and run the controller, called from the control rate group
+  public void controlPeriodic() {
+    io.updateInputs(inputs);
+    Replay.processInputs("IntakePivot", inputs);
+    if (closedLoop) io.setVoltage(calculateVoltage());
   }
 
   // MAIN CONTROLS -------------------------------
   public Command setIntakePosition(IntakePosition intakePosition) {
-    return this.runOnce(() -> goalPosition = intakePosition)
-        .andThen(setIntakePivotPos(intakePosition.angle));
+    var setPosition = this.runOnce(() -> goalPosition = intakePosition);
+    if (intakePosition != IntakePosition.HOME)
+      return setPosition.andThen(setIntakePivotPos(intakePosition.angle));
+
+    // Seat against the hardstop on every return home so the encoder can't drift
+    return setPosition.andThen(
+        setIntakePivotPos(intakePosition.angle).until(this::isProfileFinished),
+        home(),
+        setIntakePivotPos(intakePosition.angle));
   }
 
   public Command setIntakePivotPos(double posRad) {
-    return this.run(
+    return this.startRun(
+            this::reset,
             () -> {
-              pivotMotor.setVoltage(calculateVoltage(posRad));
+              goal.position = posRad;
+              goal.velocity = 0;
+              closedLoop = true;
             })
-        .finallyDo(() -> pivotMotor.setVoltage(0));
+        .finallyDo(
+            () -> {
+              closedLoop = false;
+              io.setVoltage(0);
+            });
+  }
+
+  // Push gently into the home hardstop and zero the encoder once the current shows it's stalled
+  public Command home() {
+    return this.startRun(
+            () -> stallDebouncer.calculate(false), () -> setOpenLoop(kPivot.homingVoltage))
+        .until(() -> stallDebouncer.calculate(isStalled()))
+        .withTimeout(kPivot.homingTimeout)
+        .andThen(this.runOnce(this::zeroAtHome).onlyIf(this::isStalled))
+        .finallyDo(() -> io.setVoltage(0))
+        .withName("Home Intake Pivot");
   }
 
   public Command setVoltageTest(DoubleSupplier volts) {
-    return this.startEnd(
-        () -> pivotMotor.setVoltage(volts.getAsDouble()), () -> pivotMotor.setVoltage(0));
+    return this.startEnd(() -> setOpenLoop(volts.getAsDouble()), () -> io.setVoltage(0));
   }
 
   // ---------- Public interface methods ----------
-  @Log.NT
   public double getPivotAngle() {
     return getRawEncoder() + kPivot.encoderOffset;
   }
 
+  // Restart the profile and estimator from the measured state
   public void reset() {
-    profiledPIDController.reset(getPivotAngle(), 0);
+    currentSetpoint.position = getPivotAngle();
+    currentSetpoint.velocity = getPivotVelocity();
+    loop.reset(VecBuilder.fill(currentSetpoint.position, currentSetpoint.velocity));
+  }
+
+  // Run the controller without applying its output, then put it back on the measured state, for
+  // JIT warmup while disabled. The logged telemetry is kept as it was.
+  public void warmup() {
+    warmupTelemetry.set(telemetry);
+    calculateVoltage();
+    reset();
+    telemetry.set(warmupTelemetry);
+  }
+
+  public double getEstimatedAngle() {
+    return loop.getXHat(0);
+  }
+
+  public double getEstimatedVelocity() {
+    return loop.getXHat(1);
   }
 
-  @Log.NT
   public double getPivotVelocity() {
-    return pivotEncoder.getRate();
+    return inputs.encoderVelocity;
   }
 
-  @Log.NT
   public double getAppliedVoltage() {
-    return pivotMotor.getAppliedOutput() * pivotMotor.getBusVoltage();
+    return inputs.appliedVolts;
   }
 
-  @Log.NT
   public double getCurrent() {
-    return pivotMotor.getOutputCurrent();
+    return inputs.current;
   }
 
   public void setBrakeMode(boolean on) {
-    if (on) {
-      pivotMotor.setIdleMode(IdleMode.kBrake);
-    } else {
-      pivotMotor.setIdleMode(IdleMode.kCoast);
-    }
+    io.setBrakeMode(on);
   }
 
-  @Log.NT
   public double getSetpointAngle() {
     return currentSetpoint.position;
   }
 
-  @Log.NT
   public double getSetpointVelocity() {
     return currentSetpoint.velocity;
   }
 
-  @Log.NT
   public double getGoalAngle() {
-    return profiledPIDController.getGoal().position;
+    return goal.position;
   }
 
-  @Log.NT
   public double getGoalVelocity() {
-    return profiledPIDController.getGoal().velocity;
+    return goal.velocity;
+  }
+
+  @Log.NT
+  public boolean isHomed() {
+    return homed;
   }
 
   public IntakePosition getGoalPosition() {
     return this.goalPosition;
   }
 
-  private double calculateVoltage(double angle) {
-    // Set appropriate goal
-    profiledPIDController.setGoal(angle);
-
-    // Update measurements and get feedback voltage
-    double feedbackVoltage = profiledPIDController.calculate(getPivotAngle());
-
+  private double calculateVoltage() {
     // Get setpoint from profile
-    var nextSetpoint = profiledPIDController.getSetpoint();
+    var nextSetpoint = profile.calculate(kPivot.period, currentSetpoint, goal);
 
     // Calculate acceleration
-    var accel = (nextSetpoint.velocity - currentSetpoint.velocity) / 0.02;
+    var accel = (nextSetpoint.velocity - currentSetpoint.velocity) / kPivot.period;
 
-    log("Accel", accel);
-    log("Next setpoint velocity", nextSetpoint.velocity);
-    log("Current Setpoint velocity", currentSetpoint.velocity);
+    // Correct the estimate with the encoder and step the loop to the next setpoint
+    loop.setNextR(nextSetpoint.position, nextSetpoint.velocity);
+    loop.correct(VecBuilder.fill(getPivotAngle()));
+    loop.predict(kPivot.period);
 
-    // Calculate voltages
-    double feedForwardVoltage =
-        pivotFF.calculate(nextSetpoint.position + kPivot.cogOffset, nextSetpoint.velocity, accel);
+    // The model covers kV and kA, gravity and static friction are added on top
+    double gravityVoltage =
+        pivotFF.calculate(nextSetpoint.position + kPivot.cogOffset, 0)
+            + kPivot.kS * Math.signum(nextSetpoint.velocity);
+    double modelVoltage = loop.getFeedforward().getUff(0);
+    double feedbackVoltage = loop.getU(0) - modelVoltage;
 
     // Log Values
-    this.log("FeedbackVoltage", feedbackVoltage);
-    this.log("Feedforward voltage", feedForwardVoltage);
+    telemetry.setpointPosition = nextSetpoint.position;
+    telemetry.setpointVelocity = nextSetpoint.velocity;
+    telemetry.currentSetpointVelocity = currentSetpoint.velocity;
+    telemetry.accel = accel;
+    telemetry.feedforwardVoltage = modelVoltage + gravityVoltage;
+    telemetry.feedbackVoltage = feedbackVoltage;
 
     currentSetpoint.position = nextSetpoint.position;
     currentSetpoint.velocity = nextSetpoint.velocity;
 
-    return feedForwardVoltage + feedbackVoltage;
+    return loop.getU(0) + gravityVoltage;
   }
 
   public boolean isHome() {
-    return ((Math.abs(profiledPIDController.getGoal().position - getPivotAngle())) < 0.12)
-        && (profiledPIDController.getGoal().position == kPivot.IntakePosition.HOME.angle);
+    return isAtPosition(IntakePosition.HOME);
   }
 
+  // Goal reached by both the profile and the pivot, and the pivot has come to rest
   public boolean isAtPosition(IntakePosition position) {
-    return position.angle == getSetpointAngle();
+    return goalPosition == position
+        && isProfileFinished()
+        && Math.abs(getPivotAngle() - position.angle) < kPivot.positionTolerance
+        && Math.abs(getPivotVelocity()) < kPivot.velocityTolerance;
+  }
+
+  private boolean isProfileFinished() {
+    return Math.abs(currentSetpoint.position - goal.position) < 1e-3
+        && Math.abs(currentSetpoint.velocity - goal.velocity) < 1e-3;
+  }
+
+  private boolean isStalled() {
+    return getCurrent() > kPivot.homingCurrent
+        && Math.abs(getPivotVelocity()) < kPivot.velocityTolerance;
+  }
+
+  private void zeroAtHome() {
+    io.resetEncoder();
+    // Reflect the reset now rather than on the next control cycle
+    inputs.encoderPosition = kPivot.intakeRadiansHome - kPivot.encoderOffset;
+    homed = true;
+    reset();
   }
 
   // Private hardware
+  private void setOpenLoop(double volts) {
+    closedLoop = false;
+    io.setVoltage(volts);
+  }
+
   private double getRawEncoder() {
-    return pivotEncoder.getDistance();
+    return inputs.encoderPosition;
   }
 
   // Reset Encoder
   public Command resetEncoder() {
-    return this.runOnce(() -> pivotEncoder.reset()).ignoringDisable(true);
+    return this.runOnce(io::resetEncoder).ignoringDisable(true);
   }
 
   // Return SysId Routine
@@ -229,15 +337,13 @@ public class IntakePivot extends SubsystemBase implements Characterizable, Logge
         new SysIdRoutine.Config(null, stepVoltage, timeout),
         new SysIdRoutine.Mechanism(
             (volts) -> {
-              pivotMotor.setVoltage(volts.magnitude());
+              setOpenLoop(volts.magnitude());
             },
             (log) -> {
               log.motor("intakePivotMotor")
-                  .voltage(
-                      appliedVoltage.mut_replace(
-                          pivotMotor.getBusVoltage() * pivotMotor.getAppliedOutput(), Volts))
-                  .angularPosition(angle.mut_replace(pivotEncoder.getDistance() * Math.PI, Radians))
-                  .angularVelocity(velocity.mut_replace(pivotEncoder.getRate(), RadiansPerSecond));
+                  .voltage(appliedVoltage.mut_replace(inputs.appliedVolts, Volts))
+                  .angularPosition(angle.mut_replace(inputs.encoderPosition * Math.PI, Radians))
+                  .angularVelocity(velocity.mut_replace(inputs.encoderVelocity, RadiansPerSecond));
             },
             this));
   }
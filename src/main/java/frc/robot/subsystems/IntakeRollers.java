@@ -1,104 +1,99 @@
 package frc.robot.subsystems;
 
-import static frc.robot.utilities.SparkConfigurator.getSparkMax;
-
-import com.revrobotics.CANSparkBase.IdleMode;
-import com.revrobotics.CANSparkLowLevel;
-import com.revrobotics.CANSparkMax;
-import com.revrobotics.RelativeEncoder;
-import edu.wpi.first.wpilibj.DigitalInput;
+import edu.wpi.first.wpilibj.Timer;
 import edu.wpi.first.wpilibj2.command.Command;
 import edu.wpi.first.wpilibj2.command.Command.InterruptionBehavior;
 import edu.wpi.first.wpilibj2.command.Commands;
 import edu.wpi.first.wpilibj2.command.SubsystemBase;
 import frc.robot.Constants.kIntake.kRollers;
-import frc.robot.utilities.SparkConfigurator.LogData;
-import java.util.Set;
+import frc.robot.subsystems.io.IntakeRollersIO;
+import frc.robot.subsystems.io.IntakeRollersInputs;
+import frc.robot.utilities.LatencyHistogram;
+import frc.robot.utilities.Replay;
+import frc.robot.utilities.Telemetry;
+import frc.robot.utilities.Telemetry.Tier;
 import monologue.Annotations.Log;
 import monologue.Logged;
 
 public class IntakeRollers extends SubsystemBase implements Logged {
 
-  private CANSparkMax intakeMotor;
-  private DigitalInput pieceCheck;
-  private RelativeEncoder insideEncoder;
-
-  private boolean hasPiece;
-  private boolean indexing;
-
-  public IntakeRollers() {
-    intakeMotor =
-        getSparkMax(
-            kRollers.rollerMotorID,
-            CANSparkLowLevel.MotorType.kBrushless,
-            false,
-            Set.of(),
-            Set.of(LogData.CURRENT, LogData.VOLTAGE, LogData.POSITION));
-    intakeMotor.setIdleMode(IdleMode.kBrake);
-    intakeMotor.setInverted(kRollers.invert);
-    intakeMotor.setSmartCurrentLimit(kRollers.currentLimit);
-    intakeMotor.setOpenLoopRampRate(kRollers.rampRate);
-    intakeMotor.burnFlash();
-
-    pieceCheck = new DigitalInput(kRollers.sensorChannel);
-    insideEncoder = intakeMotor.getEncoder();
-    hasPiece = false;
-    indexing = false;
+  private final IntakeRollersIO io;
+  private final IntakeRollersInputs inputs = new IntakeRollersInputs();
+
+  // Note edges from the sensor interrupt
+  private long lastPieceEdges = 0;
+  private boolean pieceEdge = false;
+  private final LatencyHistogram interruptLatency = new LatencyHistogram();
+  private final LatencyHistogram detectionLatency = new LatencyHistogram();
+
+  public IntakeRollers(IntakeRollersIO io) {
+    this.io = io;
+
+    // Logged to file each logging cycle and published to NT at their tier's rate
+    Telemetry.addDouble(this, Tier.DIAGNOSTIC, "getCurrent", this::getCurrent);
+    Telemetry.addDouble(this, Tier.SLOW, "getInsideEncoder", this::getInsideEncoder);
+    Telemetry.addDouble(this, Tier.DIAGNOSTIC, "getAppliedVoltage", this::getAppliedVoltage);
   }
 
-  public void runRollers(double volts) {
-    intakeMotor.setVoltage(volts);
+  @Override
+  public void periodic() {
+    io.updateInputs(inputs);
+    Replay.processInputs("IntakeRollers", inputs);
+
+    // A new edge since the last loop, timed from the sensor to the handler and to this loop
+    pieceEdge = inputs.pieceEdges != lastPieceEdges;
+    if (pieceEdge) {
+      lastPieceEdges = inputs.pieceEdges;
+      interruptLatency.record(inputs.pieceEdgeLatency);
+      if (!Replay.isReplay())
+        detectionLatency.record(Timer.getFPGATimestamp() - inputs.pieceEdgeTimestamp);
+    }
   }
 
-  @Log.NT
-  public boolean getPieceCheck() {
-    return !pieceCheck.get();
+  public void runRollers(double volts) {
+    io.setVoltage(volts);
   }
 
   @Log.NT
-  public boolean hasPiece() {
-    return hasPiece;
+  public boolean getPieceCheck() {
+    return inputs.pieceSensor;
   }
 
-  @Log.NT
-  public boolean isIndexing() {
-    return indexing;
+  // The sensor sees a note, or the interrupt caught one since the last loop
+  public boolean sawPiece() {
+    return pieceEdge || getPieceCheck();
   }
 
-  @Log.NT
   public double getCurrent() {
-    return intakeMotor.getOutputCurrent();
+    return inputs.current;
   }
 
-  @Log.NT
   public double getInsideEncoder() {
-    return insideEncoder.getPosition();
+    return inputs.position;
   }
 
-  @Log.NT
   public double getAppliedVoltage() {
-    return intakeMotor.getBusVoltage() * intakeMotor.getAppliedOutput();
+    return inputs.appliedVolts;
   }
 
   public Command intake() {
-    return this.runOnce(() -> runRollers(kRollers.intakeVoltage))
-        .andThen(Commands.waitUntil(this::getPieceCheck))
+    return this.runOnce(
+            () -> {
+              io.setStopOnPiece(true);
+              runRollers(kRollers.intakeVoltage);
+            })
+        .andThen(Commands.waitUntil(this::sawPiece))
         .finallyDo(
-            (interrupted) -> {
+            () -> {
+              io.setStopOnPiece(false);
               runRollers(0);
-              if (!interrupted) indexing = true;
             });
   }
 
   public Command index() {
     return this.run(() -> runRollers(kRollers.intakeVoltage))
         .withTimeout(kRollers.intakeTime)
-        .finallyDo(
-            () -> {
-              runRollers(0);
-              indexing = false;
-              hasPiece = true;
-            })
+        .finallyDo(() -> runRollers(0))
         .withInterruptBehavior(InterruptionBehavior.kCancelIncoming);
   }
 
@@ -107,12 +102,7 @@ public class IntakeRollers extends SubsystemBase implements Logged {
   }
 
   public Command outtakeCommand() {
-    return this.startEnd(
-        () -> runRollers(kRollers.outtakeVoltage),
-        () -> {
-          runRollers(0);
-          hasPiece = false;
-        });
+    return this.startEnd(() -> runRollers(kRollers.outtakeVoltage), () -> runRollers(0));
   }
 
   public Command unjamIntake() {
@@ -4,19 +4,13 @@ import static edu.wpi.first.units.MutableMeasure.mutable;
 import static edu.wpi.first.units.Units.Radians;
 import static edu.wpi.first.units.Units.RadiansPerSecond;
 import static edu.wpi.first.units.Units.Volts;
-import static frc.robot.utilities.SparkConfigurator.getSparkMax;
-
-import com.revrobotics.CANSparkBase.ControlType;
-import com.revrobotics.CANSparkBase.IdleMode;
-import com.revrobotics.CANSparkLowLevel;
-import com.revrobotics.CANSparkMax;
-import com.revrobotics.RelativeEncoder;
-import com.revrobotics.SparkPIDController;
+
 import edu.wpi.first.math.controller.SimpleMotorFeedforward;
 import edu.wpi.first.units.Angle;
 import edu.wpi.first.units.MutableMeasure;
 import edu.wpi.first.units.Velocity;
 import edu.wpi.first.units.Voltage;
+import edu.wpi.first.wpilibj.RobotBase;
 import edu.wpi.first.wpilibj2.command.Command;
 import edu.wpi.first.wpilibj2.command.SubsystemBase;
 import edu.wpi.first.wpilibj2.command.sysid.SysIdRoutine;
@@ -24,78 +18,59 @@ import frc.robot.Constants.kIntakeShooter.kShootSpeaker;
 import frc.robot.Constants.kShooter.kFlywheels;
 import frc.robot.Constants.kShooter.kFlywheels.kFlywheel1;
 import frc.robot.Constants.kShooter.kFlywheels.kFlywheel2;
+import frc.robot.Constants.kSysIdCapture;
 import frc.robot.commands.SysIdRoutines.SysIdType;
+import frc.robot.subsystems.io.FlywheelsIO;
+import frc.robot.subsystems.io.FlywheelsInputs;
 import frc.robot.utilities.Characterizable;
-import frc.robot.utilities.SparkConfigurator.LogData;
-import java.util.Set;
-import monologue.Annotations.Log;
+import frc.robot.utilities.Replay;
+import frc.robot.utilities.SysIdCapture;
+import frc.robot.utilities.Telemetry;
+import frc.robot.utilities.Telemetry.Tier;
 import monologue.Logged;
 
 public class ShooterFlywheels extends SubsystemBase implements Logged, Characterizable {
-  // Motor Controllers
-  private final CANSparkMax flywheel1;
-  private final CANSparkMax flywheel2;
+  // Hardware
+  private final FlywheelsIO io;
+  private final FlywheelsInputs inputs = new FlywheelsInputs();
 
   // Controls Objects
   private final SimpleMotorFeedforward fly1FF;
   private final SimpleMotorFeedforward fly2FF;
-  private final SparkPIDController fly1PID;
-  private final SparkPIDController fly2PID;
-  private final RelativeEncoder fly1Encoder;
-  private final RelativeEncoder fly2Encoder;
   private double setpoint;
-  private boolean hasPiece;
-
-  public ShooterFlywheels() {
-    flywheel1 =
-        getSparkMax(
-            kFlywheel1.canID,
-            CANSparkLowLevel.MotorType.kBrushless,
-            false,
-            Set.of(),
-            Set.of(LogData.POSITION, LogData.VELOCITY, LogData.VOLTAGE));
-    flywheel2 =
-        getSparkMax(
-            kFlywheel2.canID,
-            CANSparkLowLevel.MotorType.kBrushless,
-            false,
-            Set.of(),
-            Set.of(LogData.POSITION, LogData.VELOCITY, LogData.VOLTAGE));
-
-    flywheel1.setInverted(kFlywheels.invert);
-    flywheel2.setInverted(!kFlywheels.invert);
-    flywheel1.setIdleMode(IdleMode.kBrake);
-    flywheel2.setIdleMode(IdleMode.kBrake);
+
+  // Logging
+  private final double[] velocities = new double[2];
+  private final double[] appliedVoltages = new double[2];
+
+  // High rate SysId capture, made when first asked for
+  private SysIdCapture capture;
+  private final FlywheelsInputs captureInputs = new FlywheelsInputs();
+  private final FlywheelsInputs simSample = new FlywheelsInputs(); // last cycle's, under its lock
+
+  public ShooterFlywheels(FlywheelsIO io) {
+    this.io = io;
 
     // FeedForwards
     fly1FF = new SimpleMotorFeedforward(kFlywheel1.ks, kFlywheel1.kv, kFlywheel1.ka);
     fly2FF = new SimpleMotorFeedforward(kFlywheel2.ks, kFlywheel2.kv, kFlywheel2.ka);
 
-    // Encoders
-    fly1Encoder = flywheel1.getEncoder();
-    fly1Encoder.setPositionConversionFactor(kFlywheels.positionConversionFactor);
-    fly1Encoder.setVelocityConversionFactor(kFlywheels.velocityConversionFactor);
-    fly1Encoder.setAverageDepth(4);
-    fly1Encoder.setMeasurementPeriod(12);
-
-    fly2Encoder = flywheel2.getEncoder();
-    fly2Encoder.setPositionConversionFactor(kFlywheels.positionConversionFactor);
-    fly2Encoder.setVelocityConversionFactor(kFlywheels.velocityConversionFactor);
-    fly2Encoder.setAverageDepth(4);
-    fly2Encoder.setMeasurementPeriod(12);
-
-    // PIDS
-    fly1PID = flywheel1.getPIDController();
-    fly1PID.setFeedbackDevice(fly1Encoder);
-    fly1PID.setOutputRange(kFlywheel1.minPIDOutput, kFlywheel1.maxPIDOutput);
-    fly1PID.setP(kFlywheel1.kP);
-    fly1PID.setD(kFlywheel1.kD);
-
-    fly2PID = flywheel2.getPIDController();
-    fly2PID.setFeedbackDevice(fly2Encoder);
-    fly2PID.setOutputRange(kFlywheel2.minPIDOutput, kFlywheel2.maxPIDOutput);
-    fly2PID.setP(kFlywheel2.kP);
-    fly2PID.setD(kFlywheel2.kD);
+    // Logged to file each logging cycle and published to NT at their tier's rate
+    Telemetry.addDoubleArray(this, Tier.DIAGNOSTIC, "getVelocities", this::getVelocities);
+    Telemetry.addDouble(this, Tier.DIAGNOSTIC, "getSetpointVelocity", this::getSetpointVelocity);
+    Telemetry.addDoubleArray(this, Tier.DIAGNOSTIC, "getAppliedVoltages", this::getAppliedVoltages);
+  }
+
+  @Override
+  public void periodic() {
+    io.updateInputs(inputs);
+    Replay.processInputs("ShooterFlywheels", inputs);
+
+    if (RobotBase.isSimulation()) {
+      synchronized (simSample) {
+        copyInputs(inputs, simSample);
+      }
+    }
   }
 
   public Command setShooterSpeed(double velocity) { // TODO make sure inverted correctly
@@ -120,22 +95,20 @@ public class ShooterFlywheels extends SubsystemBase implements Logged, Character
 
   // ---------- Public interface methods ----------
 
-  @Log.NT
   public double[] getVelocities() {
-    return new double[] {fly1Encoder.getVelocity(), fly2Encoder.getVelocity()};
+    velocities[0] = inputs.velocities[0];
+    velocities[1] = inputs.velocities[1];
+    return velocities;
   }
 
-  @Log.NT
   public double getSetpointVelocity() {
     return setpoint;
   }
 
-  @Log.NT
   public double[] getAppliedVoltages() {
-    return new double[] {
-      flywheel1.getAppliedOutput() * flywheel1.getBusVoltage(),
-      flywheel2.getAppliedOutput() * flywheel2.getBusVoltage()
-    };
+    appliedVoltages[0] = inputs.appliedVolts[0];
+    appliedVoltages[1] = inputs.appliedVolts[1];
+    return appliedVoltages;
   }
 
   public boolean atVelocitySetpoint() {
@@ -146,14 +119,12 @@ public class ShooterFlywheels extends SubsystemBase implements Logged, Character
   }
 
   public void setVoltage(double voltage) {
-    flywheel1.setVoltage(voltage);
-    flywheel2.setVoltage(voltage);
+    io.setVoltage(voltage);
   }
 
   public void setVelocity(double velocity) {
     setpoint = velocity;
-    fly1PID.setReference(velocity, ControlType.kVelocity, 0, fly1FF.calculate(velocity));
-    fly2PID.setReference(velocity, ControlType.kVelocity, 0, fly2FF.calculate(velocity));
+    io.setVelocity(velocity, fly1FF.calculate(velocity), fly2FF.calculate(velocity));
   }
 
   public SysIdRoutine getRoutine(SysIdType type) {
@@ -167,39 +138,64 @@ public class ShooterFlywheels extends SubsystemBase implements Logged, Character
         new SysIdRoutine.Config(),
         new SysIdRoutine.Mechanism(
             (volts) -> {
-              flywheel1.setVoltage(volts.magnitude());
-              flywheel2.setVoltage(volts.magnitude());
+              io.setVoltage(volts.magnitude());
             },
             (log) -> {
-              fly1Encoder.setVelocityConversionFactor(Math.PI);
-              fly2Encoder.setVelocityConversionFactor(Math.PI);
-
               log.motor("flywheel1Motor")
-                  .voltage(appliedVoltage.mut_replace(flywheel1.getBusVoltage(), Volts))
-                  .angularPosition(angle.mut_replace(fly1Encoder.getPosition() * Math.PI, Radians))
-                  .angularVelocity(
-                      velocity.mut_replace(
-                          (fly1Encoder.getVelocity() * Math.PI), RadiansPerSecond));
+                  .voltage(appliedVoltage.mut_replace(inputs.appliedVolts[0], Volts))
+                  .angularPosition(angle.mut_replace(inputs.positions[0], Radians))
+                  .angularVelocity(velocity.mut_replace(inputs.velocities[0], RadiansPerSecond));
               log.motor("flywheel2Motor")
-                  .voltage(appliedVoltage.mut_replace(flywheel2.getBusVoltage(), Volts))
-                  .angularPosition(angle.mut_replace(fly2Encoder.getPosition() * Math.PI, Radians))
-                  .angularVelocity(
-                      velocity.mut_replace(
-                          (fly2Encoder.getVelocity() * Math.PI), RadiansPerSecond));
+                  .voltage(appliedVoltage.mut_replace(inputs.appliedVolts[1], Volts))
+                  .angularPosition(angle.mut_replace(inputs.positions[1], Radians))
+                  .angularVelocity(velocity.mut_replace(inputs.velocities[1], RadiansPerSecond));
             },
             this));
   }
 
+  // High rate capture for the dynamic tests the loop undersamples
+  public SysIdCapture getCapture(SysIdType type) {
+    if (capture == null) {
+      capture =
+          new SysIdCapture(
+              getName(),
+              new String[] {"flywheel1Motor", "flywheel2Motor"},
+              this::sampleSysId,
+              io::setCaptureFrames,
+              kSysIdCapture.period,
+              kSysIdCapture.duration,
+              kSysIdCapture.flushBatch);
+    }
+    return capture;
+  }
+
+  // Read straight from the hardware on the capture's thread. Simulated IO steps its model on every
+  // read, so there it copies the last cycle's inputs, handed over under a lock.
+  private void sampleSysId(double[] volts, double[] positions, double[] velocities) {
+    if (RobotBase.isReal()) {
+      io.updateInputs(captureInputs);
+    } else {
+      synchronized (simSample) {
+        copyInputs(simSample, captureInputs);
+      }
+    }
+    for (int i = 0; i < 2; i++) {
+      volts[i] = captureInputs.appliedVolts[i];
+      positions[i] = captureInputs.positions[i];
+      velocities[i] = captureInputs.velocities[i];
+    }
+  }
+
+  private static void copyInputs(FlywheelsInputs from, FlywheelsInputs to) {
+    for (int i = 0; i < 2; i++) {
+      to.positions[i] = from.positions[i];
+      to.velocities[i] = from.velocities[i];
+      to.appliedVolts[i] = from.appliedVolts[i];
+    }
+  }
+
   public boolean getPieceCheck() {
     // return !pieceCheck.get(); // Invert because of sensor
     return false;
   }
-
-  public void setHasPiece(boolean piece) {
-    hasPiece = piece;
-  }
-
-  public boolean pieceState() {
-    return hasPiece;
-  }
 }
@@ -5,79 +5,87 @@ import static edu.wpi.first.units.Units.Radians;
 import static edu.wpi.first.units.Units.RadiansPerSecond;
 import static edu.wpi.first.units.Units.Seconds;
 import static edu.wpi.first.units.Units.Volts;
-import static frc.robot.utilities.SparkConfigurator.*;
 
-import com.revrobotics.CANSparkBase.IdleMode;
-import com.revrobotics.CANSparkLowLevel;
-import com.revrobotics.CANSparkMax;
+import edu.wpi.first.math.Nat;
+import edu.wpi.first.math.VecBuilder;
 import edu.wpi.first.math.controller.ArmFeedforward;
+import edu.wpi.first.math.controller.LinearQuadraticRegulator;
 import edu.wpi.first.math.controller.ProfiledPIDController;
+import edu.wpi.first.math.estimator.KalmanFilter;
 import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.numbers.N1;
+import edu.wpi.first.math.numbers.N2;
+import edu.wpi.first.math.system.LinearSystem;
+import edu.wpi.first.math.system.LinearSystemLoop;
+import edu.wpi.first.math.system.plant.LinearSystemId;
 import edu.wpi.first.math.trajectory.TrapezoidProfile;
 import edu.wpi.first.units.Angle;
 import edu.wpi.first.units.MutableMeasure;
 import edu.wpi.first.units.Time;
 import edu.wpi.first.units.Velocity;
 import edu.wpi.first.units.Voltage;
-import edu.wpi.first.wpilibj.Encoder;
+import edu.wpi.first.wpilibj.Timer;
 import edu.wpi.first.wpilibj.shuffleboard.Shuffleboard;
+import edu.wpi.first.wpilibj.shuffleboard.ShuffleboardTab;
+import edu.wpi.first.wpilibj.smartdashboard.SendableChooser;
 import edu.wpi.first.wpilibj2.command.Command;
+import edu.wpi.first.wpilibj2.command.Commands;
 import edu.wpi.first.wpilibj2.command.SubsystemBase;
 import edu.wpi.first.wpilibj2.command.sysid.SysIdRoutine;
 import frc.robot.Constants.kShooter.kPivot;
+import frc.robot.Constants.kShooter.kPivot.Controller;
 import frc.robot.Constants.kShooter.kPivot.ShooterPosition;
 import frc.robot.commands.SysIdRoutines.SysIdType;
+import frc.robot.subsystems.io.PivotIO;
+import frc.robot.subsystems.io.PivotInputs;
 import frc.robot.utilities.Characterizable;
-import frc.robot.utilities.SparkConfigurator.LogData;
-import java.util.Set;
+import frc.robot.utilities.PivotTelemetry;
+import frc.robot.utilities.Replay;
+import frc.robot.utilities.StructLogger;
+import frc.robot.utilities.Telemetry;
+import frc.robot.utilities.Telemetry.Tier;
 import java.util.function.DoubleSupplier;
 import java.util.function.Supplier;
 import monologue.Annotations.Log;
 import monologue.Logged;
 
 public class ShooterPivot extends SubsystemBase implements Logged, Characterizable {
-  // Motorcontrollers
-  private final CANSparkMax pivotLeader;
-  private final CANSparkMax pivotFollower;
+  // Hardware
+  private final PivotIO io;
+  private final PivotInputs inputs = new PivotInputs();
 
   // Controls objects
   private final ArmFeedforward pivotFF;
   private final ProfiledPIDController pivotController;
+  private final TrapezoidProfile profile;
+  private final LinearSystemLoop<N2, N1, N1> loop;
+  private Controller controller = kPivot.defaultController;
   private final TrapezoidProfile.State goal;
   private ShooterPosition goalPosition = ShooterPosition.HOME;
+  private boolean closedLoop = false;
 
   // Encoder objects
-  private final Encoder pivotEncoder;
   private Rotation2d encoderOffset;
 
   private final TrapezoidProfile.State currentSetpoint;
 
-  public ShooterPivot() {
-    // Motor Initializations
-    pivotLeader =
-        getSparkMax(
-            kPivot.pivotLeaderID,
-            CANSparkLowLevel.MotorType.kBrushless,
-            true,
-            Set.of(),
-            Set.of(LogData.POSITION, LogData.VELOCITY, LogData.VOLTAGE));
-    pivotFollower =
-        getFollower(
-            pivotLeader, kPivot.pivotFollowerID, CANSparkLowLevel.MotorType.kBrushless, true);
-    pivotLeader.setInverted(kPivot.invertMotors);
-    pivotFollower.setInverted(!kPivot.invertMotors);
-    setBrakeMode(true);
-
-    pivotLeader.burnFlash();
-    pivotFollower.burnFlash();
+  // Settle time
+  private double settleStart = Double.NaN;
+
+  // Logging
+  private final PivotTelemetry telemetry = new PivotTelemetry();
+  private final PivotTelemetry warmupTelemetry = new PivotTelemetry(); // saved across warmup
+  private final StructLogger<PivotTelemetry> telemetryLogger =
+      new StructLogger<PivotTelemetry>(this, "Controller", PivotTelemetry.struct);
+
+  public ShooterPivot(PivotIO io) {
+    this.io = io;
 
     // Feed Forwards
     pivotFF = new ArmFeedforward(kPivot.kS, kPivot.kG, kPivot.kV, kPivot.kA);
 
     // Encoder Configs
-    pivotEncoder =
-        new Encoder(kPivot.encoderChannelA, kPivot.encoderChannelB, kPivot.invertEncoder);
-    pivotEncoder.setDistancePerPulse(kPivot.distancePerPulse);
+    io.updateInputs(inputs);
     resetEncoder(ShooterPosition.HARDSTOPS.angle);
 
     // Controller Configs
@@ -86,15 +94,76 @@ public class ShooterPivot extends SubsystemBase implements Logged, Characterizab
             kPivot.kP,
             0,
             kPivot.kD,
-            new TrapezoidProfile.Constraints(kPivot.maxVel, kPivot.maxAccel));
+            new TrapezoidProfile.Constraints(kPivot.maxVel, kPivot.maxAccel),
+            kPivot.period);
     goal = new TrapezoidProfile.State(ShooterPosition.HOME.angle.getRadians(), 0);
 
     pivotController.reset(getPivotAngle().getRadians());
     pivotController.setGoal(goal);
     currentSetpoint = pivotController.getSetpoint();
 
+    // State space loop from the characterized arm, gravity and friction are added separately
+    LinearSystem<N2, N1, N1> plant =
+        LinearSystemId.identifyPositionSystem(kPivot.kV, kPivot.modelKA);
+    var lqr =
+        new LinearQuadraticRegulator<N2, N1, N1>(
+            plant,
+            VecBuilder.fill(kPivot.lqrPositionTolerance, kPivot.lqrVelocityTolerance),
+            VecBuilder.fill(12),
+            kPivot.period);
+    var observer =
+        new KalmanFilter<N2, N1, N1>(
+            Nat.N2(),
+            Nat.N1(),
+            plant,
+            VecBuilder.fill(kPivot.kalmanPositionStdDev, kPivot.kalmanVelocityStdDev),
+            VecBuilder.fill(kPivot.kalmanEncoderStdDev),
+            kPivot.period);
+    loop = new LinearSystemLoop<N2, N1, N1>(plant, lqr, observer, 12, kPivot.period);
+    profile =
+        new TrapezoidProfile(new TrapezoidProfile.Constraints(kPivot.maxVel, kPivot.maxAccel));
+    loop.reset(VecBuilder.fill(getPivotAngle().getRadians(), 0));
+
     this.setDefaultCommand(holdAngle());
-    Shuffleboard.getTab("ShooterPivot").addString("Shooter Position", () -> goalPosition.name());
+    ShuffleboardTab tab = Shuffleboard.getTab("ShooterPivot");
+    tab.addString("Shooter Position", () -> goalPosition.name());
+
+    // Controller selection
+    var controllerChooser = new SendableChooser<Controller>();
+    for (var option : Controller.values()) controllerChooser.addOption(option.name(), option);
+    controllerChooser.setDefaultOption(controller.name(), controller);
+    controllerChooser.onChange(this::setController);
+    tab.add("Controller", controllerChooser);
+    tab.add("Controller benchmark", controllerBenchmark());
+
+    // Logged to file each logging cycle and published to NT at their tier's rate
+    Telemetry.addStruct(
+        this, Tier.CRITICAL, "getPivotAngle", this::getPivotAngle, Rotation2d.struct);
+    Telemetry.addDouble(this, Tier.DIAGNOSTIC, "getPivotVelocity", this::getPivotVelocity);
+    Telemetry.addDouble(this, Tier.DIAGNOSTIC, "getGoalAngle", this::getGoalAngle);
+    Telemetry.addDouble(this, Tier.DIAGNOSTIC, "getGoalVelocity", this::getGoalVelocity);
+    Telemetry.addDouble(this, Tier.DIAGNOSTIC, "getSetpointPosition", this::getSetpointPosition);
+    Telemetry.addDouble(this, Tier.DIAGNOSTIC, "getSetpointVelocity", this::getSetpointVelocity);
+    Telemetry.addDouble(this, Tier.DIAGNOSTIC, "getAppliedVoltage", this::getAppliedVoltage);
+    Telemetry.addDouble(this, Tier.SLOW, "getEncoderPos", this::getEncoderPos);
+    Telemetry.addDouble(this, Tier.SLOW, "getEncoderVel", this::getEncoderVel);
+    Telemetry.addDouble(this, Tier.SLOW, "getAppliedVolts", this::getAppliedVolts);
+  }
+
+  @Override
+  public void periodic() {
+    telemetryLogger.log(telemetry);
+  }
+
+  // Read the encoder and run the controller, called from the control rate group
+  public void controlPeriodic() {
+    io.updateInputs(inputs);
+    Replay.processInputs("ShooterPivot", inputs);
+    if (closedLoop) {
+      if (controller == Controller.LQR) io.setVoltage(calculateLQRVoltage());
+      else io.setVoltage(calculateVoltage());
+    }
+    updateSettleTime();
   }
 
   // ---------- Commands ----------
@@ -109,14 +178,14 @@ public class ShooterPivot extends SubsystemBase implements Logged, Characterizab
   public Command goToAngleCommand(Rotation2d angle) {
     return this.runOnce(this::resetProfile)
         .andThen(setGoal(angle))
-        .andThen(
-            this.run(() -> pivotLeader.setVoltage(calculateVoltage(angle))).until(this::isAtGoal))
+        .andThen(this.run(() -> closedLoop = true).until(this::isAtGoal))
+        .finallyDo(() -> closedLoop = false)
         .withName("Go to angle");
   }
 
   public Command holdAngle() {
-    return this.run(
-            () -> pivotLeader.setVoltage(calculateVoltage(Rotation2d.fromRadians(goal.position))))
+    return this.run(() -> closedLoop = true)
+        .finallyDo(() -> closedLoop = false)
         .withName("Hold angle");
   }
 
@@ -128,8 +197,9 @@ public class ShooterPivot extends SubsystemBase implements Logged, Characterizab
                   goal.position = angleSupplier.get().getRadians();
                   goal.velocity = 0;
                   pivotController.setGoal(goal);
-                  pivotLeader.setVoltage(calculateVoltage(angleSupplier.get()));
+                  closedLoop = true;
                 }))
+        .finallyDo(() -> closedLoop = false)
         .asProxy();
   }
 
@@ -142,7 +212,7 @@ public class ShooterPivot extends SubsystemBase implements Logged, Characterizab
   }
 
   public Command setVoltage(DoubleSupplier voltageSupplier) {
-    return this.run(() -> pivotLeader.setVoltage(voltageSupplier.getAsDouble())).asProxy();
+    return this.run(() -> setOpenLoop(voltageSupplier.getAsDouble())).asProxy();
   }
 
   public Command setGoal(Rotation2d angle) {
@@ -151,52 +221,90 @@ public class ShooterPivot extends SubsystemBase implements Logged, Characterizab
           goal.position = angle.getRadians();
           goal.velocity = 0;
           pivotController.setGoal(goal);
+          settleStart = Timer.getFPGATimestamp();
         });
   }
 
+  // Step to AMP and CLIMB with each controller, compare the logged settle times
+  public Command controllerBenchmark() {
+    Command benchmark = Commands.none();
+    for (var option : Controller.values()) {
+      benchmark =
+          benchmark.andThen(
+              Commands.runOnce(() -> setController(option)),
+              goToPositionCommand(ShooterPosition.HOME),
+              Commands.waitSeconds(kPivot.benchmarkHoldTime),
+              goToPositionCommand(ShooterPosition.AMP),
+              Commands.waitSeconds(kPivot.benchmarkHoldTime),
+              goToPositionCommand(ShooterPosition.HOME),
+              Commands.waitSeconds(kPivot.benchmarkHoldTime),
+              goToPositionCommand(ShooterPosition.CLIMB),
+              Commands.waitSeconds(kPivot.benchmarkHoldTime));
+    }
+    return benchmark
+        .andThen(Commands.runOnce(() -> setController(kPivot.defaultController)))
+        .withName("Controller benchmark");
+  }
+
   // ---------- Public interface methods ----------
 
   public Command setVolts(double volts) {
-    return this.run(() -> pivotLeader.setVoltage(volts)).finallyDo(() -> pivotLeader.setVoltage(0));
+    return this.run(() -> setOpenLoop(volts)).finallyDo(() -> io.setVoltage(0));
   }
 
   public void resetProfile() {
     pivotController.reset(getPivotAngle().getRadians(), getPivotVelocity());
+    currentSetpoint.position = getPivotAngle().getRadians();
+    currentSetpoint.velocity = getPivotVelocity();
+    loop.reset(VecBuilder.fill(currentSetpoint.position, currentSetpoint.velocity));
+  }
+
+  // Run both controllers without applying their output, then put them back on the measured state,
+  // for JIT warmup while disabled. The logged telemetry is kept as it was.
+  public void warmup() {
+    warmupTelemetry.set(telemetry);
+    calculateVoltage();
+    calculateLQRVoltage();
+    resetProfile();
+    telemetry.set(warmupTelemetry);
+  }
+
+  public void setController(Controller controller) {
+    this.controller = controller;
+    resetProfile();
   }
 
   @Log.NT
+  public Controller getController() {
+    return controller;
+  }
+
   public Rotation2d getPivotAngle() {
     return new Rotation2d(getRawEncoder().getRadians() + encoderOffset.getRadians());
   }
 
-  @Log.NT
   public double getPivotVelocity() {
-    return pivotEncoder.getRate();
+    return inputs.encoderVelocity;
   }
 
-  @Log.NT
   public double getGoalAngle() {
     return goal.position;
   }
 
-  @Log.NT
   public double getGoalVelocity() {
     return goal.velocity;
   }
 
-  @Log.NT
   public double getSetpointPosition() {
     return currentSetpoint.position;
   }
 
-  @Log.NT
   public double getSetpointVelocity() {
     return currentSetpoint.velocity;
   }
 
-  @Log.NT
   public double getAppliedVoltage() {
-    return pivotLeader.getAppliedOutput() * pivotLeader.getBusVoltage();
+    return inputs.appliedVolts;
   }
 
   @Log.NT
@@ -223,20 +331,14 @@ public class ShooterPivot extends SubsystemBase implements Logged, Characterizab
   }
 
   public void setBrakeMode(boolean on) {
-    if (on) {
-      pivotLeader.setIdleMode(IdleMode.kBrake);
-      pivotFollower.setIdleMode(IdleMode.kBrake);
-    } else {
-      pivotLeader.setIdleMode(IdleMode.kCoast);
-      pivotFollower.setIdleMode(IdleMode.kCoast);
-    }
+    io.setBrakeMode(on);
   }
 
-  public double calculateVoltage(Rotation2d angle) {
+  private double calculateVoltage() {
     // Get setpoint from profile
     var nextSetpoint = pivotController.getSetpoint();
 
-    var accel = (nextSetpoint.velocity - currentSetpoint.velocity) / 0.02;
+    var accel = (nextSetpoint.velocity - currentSetpoint.velocity) / kPivot.period;
 
     // Calculate voltages
     double feedForwardVoltage =
@@ -245,8 +347,12 @@ public class ShooterPivot extends SubsystemBase implements Logged, Characterizab
     double feedbackVoltage = pivotController.calculate(getPivotAngle().getRadians());
 
     // Log Values
-    this.log("FeedbackVoltage", feedbackVoltage);
-    this.log("Feedforward voltage", feedForwardVoltage);
+    telemetry.setpointPosition = nextSetpoint.position;
+    telemetry.setpointVelocity = nextSetpoint.velocity;
+    telemetry.currentSetpointVelocity = currentSetpoint.velocity;
+    telemetry.accel = accel;
+    telemetry.feedforwardVoltage = feedForwardVoltage;
+    telemetry.feedbackVoltage = feedbackVoltage;
 
     currentSetpoint.position = nextSetpoint.position;
     currentSetpoint.velocity = nextSetpoint.velocity;
@@ -254,10 +360,55 @@ public class ShooterPivot extends SubsystemBase implements Logged, Characterizab
     return feedForwardVoltage + feedbackVoltage;
   }
 
+  private double calculateLQRVoltage() {
+    // Get setpoint from profile
+    var nextSetpoint = profile.calculate(kPivot.period, currentSetpoint, goal);
+
+    // Correct the estimate with the encoder and step the loop to the next setpoint
+    loop.setNextR(nextSetpoint.position, nextSetpoint.velocity);
+    loop.correct(VecBuilder.fill(getPivotAngle().getRadians()));
+    loop.predict(kPivot.period);
+
+    // The model covers kV and kA, gravity and static friction are added on top
+    double gravityVoltage =
+        pivotFF.calculate(nextSetpoint.position + kPivot.cogOffset.getRadians(), 0)
+            + kPivot.kS * Math.signum(nextSetpoint.velocity);
+    double modelVoltage = loop.getFeedforward().getUff(0);
+    double feedbackVoltage = loop.getU(0) - modelVoltage;
+
+    // Log Values
+    telemetry.setpointPosition = nextSetpoint.position;
+    telemetry.setpointVelocity = nextSetpoint.velocity;
+    telemetry.currentSetpointVelocity = currentSetpoint.velocity;
+    telemetry.accel = (nextSetpoint.velocity - currentSetpoint.velocity) / kPivot.period;
+    telemetry.feedforwardVoltage = modelVoltage + gravityVoltage;
+    telemetry.feedbackVoltage = feedbackVoltage;
+
+    currentSetpoint.position = nextSetpoint.position;
+    currentSetpoint.velocity = nextSetpoint.velocity;
+
+    return loop.getU(0) + gravityVoltage;
+  }
+
+  // Log how long the pivot took to come to rest at a new goal
+  private void updateSettleTime() {
+    if (Double.isNaN(settleStart)) return;
+    if (Math.abs(getPivotAngle().getRadians() - goal.position) < kPivot.settleTolerance.getRadians()
+        && Math.abs(getPivotVelocity()) < kPivot.settleVelocityTolerance) {
+      this.log("Settle time/" + controller.name(), Timer.getFPGATimestamp() - settleStart);
+      settleStart = Double.NaN;
+    }
+  }
+
   // ---------- Private hardware interface methods ----------
 
+  private void setOpenLoop(double volts) {
+    closedLoop = false;
+    io.setVoltage(volts);
+  }
+
   private Rotation2d getRawEncoder() {
-    return Rotation2d.fromRadians(pivotEncoder.getDistance());
+    return Rotation2d.fromRadians(inputs.encoderPosition);
   }
 
   private void resetEncoder(Rotation2d angle) {
@@ -278,7 +429,7 @@ public class ShooterPivot extends SubsystemBase implements Logged, Characterizab
         new SysIdRoutine.Config(null, stepVoltage, timeout),
         new SysIdRoutine.Mechanism(
             (volts) -> {
-              pivotLeader.setVoltage(volts.magnitude());
+              setOpenLoop(volts.magnitude());
             },
             (log) -> {
               log.motor("shooterPivotMotor")
@@ -290,18 +441,15 @@ public class ShooterPivot extends SubsystemBase implements Logged, Characterizab
   }
 
   // Logging
-  @Log.NT
   public double getEncoderPos() {
-    return pivotEncoder.getDistance();
+    return inputs.encoderPosition;
   }
 
-  @Log.NT
   public double getEncoderVel() {
-    return pivotEncoder.getRate();
+    return inputs.encoderVelocity;
   }
 
-  @Log.NT
   public double getAppliedVolts() {
-    return pivotLeader.getBusVoltage() * pivotLeader.getAppliedOutput();
+    return inputs.appliedVolts;
   }
 }
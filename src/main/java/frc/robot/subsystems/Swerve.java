@@ -7,30 +7,23 @@ import static edu.wpi.first.units.Units.Radians;
 import static edu.wpi.first.units.Units.RadiansPerSecond;
 import static edu.wpi.first.units.Units.Volts;
 
-import com.kauailabs.navx.frc.AHRS;
 import com.pathplanner.lib.commands.FollowPathHolonomic;
 import com.pathplanner.lib.path.GoalEndState;
 import com.pathplanner.lib.path.PathConstraints;
 import com.pathplanner.lib.path.PathPlannerPath;
 import com.pathplanner.lib.util.GeometryUtil;
 import com.pathplanner.lib.util.PathPlannerLogging;
-import edu.wpi.first.apriltag.AprilTagFieldLayout;
-import edu.wpi.first.apriltag.AprilTagFields;
-import edu.wpi.first.hal.SimDouble;
+import edu.wpi.first.math.MathUtil;
 import edu.wpi.first.math.VecBuilder;
 import edu.wpi.first.math.controller.ProfiledPIDController;
-import edu.wpi.first.math.estimator.SwerveDrivePoseEstimator;
 import edu.wpi.first.math.geometry.Pose2d;
 import edu.wpi.first.math.geometry.Pose3d;
 import edu.wpi.first.math.geometry.Rotation2d;
 import edu.wpi.first.math.geometry.Translation2d;
 import edu.wpi.first.math.kinematics.ChassisSpeeds;
 import edu.wpi.first.math.kinematics.SwerveDriveKinematics;
-import edu.wpi.first.math.kinematics.SwerveModulePosition;
 import edu.wpi.first.math.kinematics.SwerveModuleState;
-import edu.wpi.first.math.trajectory.TrapezoidProfile;
 import edu.wpi.first.math.trajectory.TrapezoidProfile.Constraints;
-import edu.wpi.first.math.util.Units;
 import edu.wpi.first.units.Angle;
 import edu.wpi.first.units.Distance;
 import edu.wpi.first.units.Measure;
@@ -39,9 +32,8 @@ import edu.wpi.first.units.Velocity;
 import edu.wpi.first.units.Voltage;
 import edu.wpi.first.wpilibj.DriverStation;
 import edu.wpi.first.wpilibj.DriverStation.Alliance;
-import edu.wpi.first.wpilibj.RobotBase;
+import edu.wpi.first.wpilibj.Timer;
 import edu.wpi.first.wpilibj.shuffleboard.Shuffleboard;
-import edu.wpi.first.wpilibj.simulation.SimDeviceSim;
 import edu.wpi.first.wpilibj.smartdashboard.Field2d;
 import edu.wpi.first.wpilibj.smartdashboard.FieldObject2d;
 import edu.wpi.first.wpilibj.sysid.SysIdRoutineLog;
@@ -50,47 +42,55 @@ import edu.wpi.first.wpilibj2.command.Commands;
 import edu.wpi.first.wpilibj2.command.SubsystemBase;
 import edu.wpi.first.wpilibj2.command.sysid.SysIdRoutine;
 import frc.robot.Constants.kOI;
+import frc.robot.Constants.kPathfinding;
 import frc.robot.Constants.kSwerve;
 import frc.robot.Constants.kSwerve.Auton;
 import frc.robot.Constants.kSwerve.kModule;
 import frc.robot.Constants.kSwerveShoot;
+import frc.robot.Constants.kSysIdCapture;
 import frc.robot.commands.SysIdRoutines.SysIdType;
+import frc.robot.subsystems.io.GyroIO;
+import frc.robot.subsystems.io.GyroInputs;
+import frc.robot.subsystems.io.ModuleIO;
+import frc.robot.subsystems.io.ModuleInputs;
+import frc.robot.subsystems.io.VisionIO;
+import frc.robot.subsystems.io.VisionInputs;
 import frc.robot.utilities.Characterizable;
 import frc.robot.utilities.ChassisLimiter;
+import frc.robot.utilities.ChoreoTrajectory;
 import frc.robot.utilities.MAXSwerve;
-import java.util.Optional;
+import frc.robot.utilities.Pathfinder;
+import frc.robot.utilities.PoseProfile;
+import frc.robot.utilities.ProfileFollowerTelemetry;
+import frc.robot.utilities.Replay;
+import frc.robot.utilities.StructLogger;
+import frc.robot.utilities.SwervePoseEstimator;
+import frc.robot.utilities.SysIdCapture;
+import frc.robot.utilities.Telemetry;
+import frc.robot.utilities.Telemetry.Tier;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.function.BooleanSupplier;
 import java.util.function.DoubleSupplier;
 import monologue.Annotations.Log;
 import monologue.Logged;
-import org.photonvision.EstimatedRobotPose;
-import org.photonvision.PhotonCamera;
-import org.photonvision.PhotonPoseEstimator;
-import org.photonvision.PhotonPoseEstimator.PoseStrategy;
 
 public class Swerve extends SubsystemBase implements Logged, Characterizable {
   // Hardware
-  private final MAXSwerve frontLeftModule =
-      new MAXSwerve(
-          kSwerve.CANID.frontLeftDrive, kSwerve.CANID.frontLeftSteer, kSwerve.Offsets.frontLeft);
+  private final MAXSwerve frontLeftModule;
+  private final MAXSwerve backLeftModule;
+  private final MAXSwerve backRightModule;
+  private final MAXSwerve frontRightModule;
 
-  private final MAXSwerve backLeftModule =
-      new MAXSwerve(
-          kSwerve.CANID.backLeftDrive, kSwerve.CANID.backLeftSteer, kSwerve.Offsets.backLeft);
-
-  private final MAXSwerve backRightModule =
-      new MAXSwerve(
-          kSwerve.CANID.backRightDrive, kSwerve.CANID.backRightSteer, kSwerve.Offsets.backRight);
-
-  private final MAXSwerve frontRightModule =
-      new MAXSwerve(
-          kSwerve.CANID.frontRightDrive, kSwerve.CANID.frontRightSteer, kSwerve.Offsets.frontRight);
-
-  private final AHRS navX = new AHRS(kSwerve.navxPort);
+  private final GyroIO gyro;
+  private final GyroInputs gyroInputs = new GyroInputs();
 
   // Controls objects
-  private final SwerveDrivePoseEstimator poseEstimator;
+  private final SwervePoseEstimator poseEstimator;
+  private final double[] moduleDistances = new double[4];
+  private final double[] moduleAngles = new double[4];
   private final ChassisLimiter limiter;
+  private final ChassisLimiter warmupLimiter;
   @Log.NT private ChassisSpeeds chassisVelocityTarget = new ChassisSpeeds();
 
   public class SwerveState {
@@ -124,80 +124,91 @@ public class Swerve extends SubsystemBase implements Logged, Characterizable {
   private final FieldObject2d autonRobot = field2d.getObject("Autonomous Pose");
   private final FieldObject2d autonPath = field2d.getObject("Autonomous Path");
 
-  // Simulation
-  private final SimDeviceSim simNavX = new SimDeviceSim("navX-Sensor", 0);
-  private final SimDouble simNavXYaw = simNavX.getDouble("Yaw");
-
   // Vision Objects
-  private PhotonCamera camera1 = new PhotonCamera("camera1");
-  private PhotonCamera camera2 = new PhotonCamera("camera2");
-  private AprilTagFieldLayout fieldLayout;
-  private PhotonPoseEstimator photonPoseEstimator1;
-  private PhotonPoseEstimator photonPoseEstimator2;
+  private final VisionIO camera1;
+  private final VisionIO camera2;
   @Log.NT private Pose3d photonPose = new Pose3d();
+  private final VisionInputs camera1Inputs = new VisionInputs();
+  private final VisionInputs camera2Inputs = new VisionInputs();
 
   private boolean visionEnable = false;
 
   // Path following
-  private ProfiledPIDController xController;
-  private ProfiledPIDController yController;
-  private ProfiledPIDController rotController;
-  private TrapezoidProfile.Constraints pathFollowConstraints =
-      new Constraints(Auton.maxOnTheFlyVel, Auton.maxOnTheFlyAcc);
-  private ChassisSpeeds pathChassisSpeeds;
-
-  public Swerve() {
+  private final PoseProfile poseProfile =
+      new PoseProfile(
+          Auton.maxOnTheFlyVel, Auton.maxOnTheFlyAcc, Auton.maxAngVel, Auton.maxAngAccel);
+
+  // Fields to the go-to targets are ready before they're needed
+  private final Pathfinder pathfinder =
+      new Pathfinder(
+          List.of(
+              kPathfinding.amp.getTranslation(),
+              kPathfinding.speaker.getTranslation(),
+              kPathfinding.source.getTranslation(),
+              GeometryUtil.flipFieldPosition(kPathfinding.amp.getTranslation()),
+              GeometryUtil.flipFieldPosition(kPathfinding.speaker.getTranslation()),
+              GeometryUtil.flipFieldPosition(kPathfinding.source.getTranslation())));
+
+  // High rate SysId capture, made when first asked for
+  private SysIdCapture capture;
+  private final ModuleInputs[] captureInputs = new ModuleInputs[4];
+
+  private final ProfileFollowerTelemetry profileTelemetry = new ProfileFollowerTelemetry();
+  private final StructLogger<ProfileFollowerTelemetry> profileLogger =
+      new StructLogger<ProfileFollowerTelemetry>(
+          this, "Profile follower", ProfileFollowerTelemetry.struct);
+
+  public Swerve(
+      GyroIO gyro,
+      ModuleIO frontLeft,
+      ModuleIO backLeft,
+      ModuleIO backRight,
+      ModuleIO frontRight,
+      VisionIO camera1,
+      VisionIO camera2) {
+    // Hardware
+    frontLeftModule =
+        new MAXSwerve(
+            frontLeft, "Swerve/Module" + kSwerve.CANID.frontLeftDrive, kSwerve.Offsets.frontLeft);
+    backLeftModule =
+        new MAXSwerve(
+            backLeft, "Swerve/Module" + kSwerve.CANID.backLeftDrive, kSwerve.Offsets.backLeft);
+    backRightModule =
+        new MAXSwerve(
+            backRight, "Swerve/Module" + kSwerve.CANID.backRightDrive, kSwerve.Offsets.backRight);
+    frontRightModule =
+        new MAXSwerve(
+            frontRight,
+            "Swerve/Module" + kSwerve.CANID.frontRightDrive,
+            kSwerve.Offsets.frontRight);
+    this.gyro = gyro;
+    this.camera1 = camera1;
+    this.camera2 = camera2;
+
     Shuffleboard.getTab("Swerve").add(this);
     // Setup controls objects
     limiter = new ChassisLimiter(kSwerve.maxTransAccel, kSwerve.maxAngAccel);
+    warmupLimiter = new ChassisLimiter(kSwerve.maxTransAccel, kSwerve.maxAngAccel);
+    gyro.updateInputs(gyroInputs);
     poseEstimator =
-        new SwerveDrivePoseEstimator(
-            kSwerve.kinematics,
-            getGyroRaw(),
-            new SwerveModulePosition[] {
-              frontLeftModule.getPositon(),
-              backLeftModule.getPositon(),
-              backRightModule.getPositon(),
-              frontRightModule.getPositon()
-            },
-            new Pose2d(0, 0, new Rotation2d()),
-            kSwerve.stateStdDevs,
-            kSwerve.visionStdDevs);
-
-    // Vision
-    try {
-      fieldLayout =
-          AprilTagFieldLayout.loadFromResource(AprilTagFields.k2024Crescendo.m_resourceFile);
-    } catch (Exception e) {
-      System.out.println("Failed to load field layout");
-    }
-    photonPoseEstimator1 =
-        new PhotonPoseEstimator(
-            fieldLayout,
-            PoseStrategy.MULTI_TAG_PNP_ON_COPROCESSOR,
-            camera1,
-            kSwerve.aprilTagCamera1PositionTransform);
-    photonPoseEstimator1.setMultiTagFallbackStrategy(PoseStrategy.LOWEST_AMBIGUITY);
-    photonPoseEstimator2 =
-        new PhotonPoseEstimator(
-            fieldLayout,
-            PoseStrategy.MULTI_TAG_PNP_ON_COPROCESSOR,
-            camera2,
-            kSwerve.aprilTagCamera2PositionTransform);
-    photonPoseEstimator1.setMultiTagFallbackStrategy(PoseStrategy.LOWEST_AMBIGUITY);
+        new SwervePoseEstimator(
+            kSwerve.moduleLocations, kSwerve.stateStdDevs, kSwerve.visionStdDevs);
+    readModules();
+    poseEstimator.resetPosition(gyroInputs.yaw, moduleDistances, moduleAngles, new Pose2d());
 
     // Bind Path Follower command logging methods
     PathPlannerLogging.setLogActivePathCallback(autonPath::setPoses);
     PathPlannerLogging.setLogTargetPoseCallback(autonRobot::setPose);
 
-    // Path Follower Profiles
-    xController = new ProfiledPIDController(Auton.transP, 0, 0, pathFollowConstraints);
-    xController.setTolerance(0.03);
-    yController = new ProfiledPIDController(Auton.transP, 0, 0, pathFollowConstraints);
-    yController.setTolerance(0.03);
-    rotController = new ProfiledPIDController(Auton.angP, 0, 0, pathFollowConstraints);
-    rotController.enableContinuousInput(-Math.PI, Math.PI);
-    rotController.setTolerance(0.1);
+    // Logged to file each logging cycle and published to NT at their tier's rate
+    Telemetry.addStruct(this, Tier.CRITICAL, "getPose", this::getPose, Pose2d.struct);
+    Telemetry.addStruct(
+        this, Tier.DIAGNOSTIC, "getChassisSpeeds", this::getChassisSpeeds, ChassisSpeeds.struct);
+    Telemetry.addStruct(this, Tier.DIAGNOSTIC, "getHeading", this::getHeading, Rotation2d.struct);
+    Telemetry.addDouble(this, Tier.SLOW, "getGyroYawRate", this::getGyroYawRate);
+    Telemetry.addStruct(this, Tier.DIAGNOSTIC, "getGyroRaw", this::getGyroRaw, Rotation2d.struct);
+    Telemetry.addStructArray(
+        this, Tier.DIAGNOSTIC, "getModuleStates", this::getModuleStates, SwerveModuleState.struct);
   }
 
   // ---------- Drive Commands ----------
@@ -333,80 +344,157 @@ public class Swerve extends SubsystemBase implements Logged, Characterizable {
     return followPathCommand(path, useAlliance, false);
   }
 
+  // Follow a Choreo trajectory's own states, sampled by time with the velocities as feedforward
+  // and position feedback on top. Red alliance trajectories come already mirrored.
+  public Command followTrajectoryCommand(ChoreoTrajectory trajectory, boolean resetPose) {
+    var timer = new Timer();
+    var target = new ChoreoTrajectory.State();
+    var speeds = new ChassisSpeeds();
+    return this.runOnce(
+            () -> {
+              swerveState.mode = SwerveState.Mode.AUTO_DRIVE;
+              if (resetPose) setPose(trajectory.getInitialPose());
+              timer.restart();
+            })
+        .andThen(
+            this.run(
+                    () -> {
+                      trajectory.sample(timer.get(), target);
+                      double heading = poseEstimator.getTheta();
+                      double xFB = Auton.transP * (target.x - poseEstimator.getX());
+                      double yFB = Auton.transP * (target.y - poseEstimator.getY());
+                      double rotFB = Auton.angP * MathUtil.angleModulus(target.heading - heading);
+
+                      // Field relative to robot relative
+                      double vx = target.velocityX + xFB;
+                      double vy = target.velocityY + yFB;
+                      double cos = Math.cos(heading);
+                      double sin = Math.sin(heading);
+                      speeds.vxMetersPerSecond = vx * cos + vy * sin;
+                      speeds.vyMetersPerSecond = -vx * sin + vy * cos;
+                      speeds.omegaRadiansPerSecond = target.angularVelocity + rotFB;
+
+                      // Log the follower state as a single record
+                      profileTelemetry.xSetpoint = target.x;
+                      profileTelemetry.ySetpoint = target.y;
+                      profileTelemetry.rotSetpoint = target.heading;
+                      profileTelemetry.xSetVel = target.velocityX;
+                      profileTelemetry.ySetVel = target.velocityY;
+                      profileTelemetry.rotSetVel = target.angularVelocity;
+                      profileTelemetry.xFB = xFB;
+                      profileTelemetry.yFB = yFB;
+                      profileTelemetry.rotFB = rotFB;
+                      profileTelemetry.xAtGoal = false;
+                      profileTelemetry.yAtGoal = false;
+                      profileTelemetry.rotAtGoal = false;
+                      profileLogger.log(profileTelemetry);
+
+                      drive(speeds, true);
+                    })
+                .until(() -> timer.hasElapsed(trajectory.getTotalTime())))
+        .finallyDo(
+            () -> {
+              drive(new ChassisSpeeds(), true);
+              swerveState.mode = SwerveState.Mode.IDLE;
+            })
+        .withName("followTrajectoryCommand");
+  }
+
   // Generate an on-the-fly path to reach a certain pose
   public Command driveToPointCommand(Pose2d goalPose) {
     return driveToPoint(goalPose, goalPose.getRotation()).withName("driveToPointCommand");
   }
 
-  // Generate an on-the-fly path to reach a certain pose with a given holonomic rotation
+  // Generate an on-the-fly path around the field's obstacles to reach a certain pose with a given
+  // holonomic rotation
   public Command driveToPoint(Pose2d goalPose, Rotation2d holonomicRotation) {
-    return this.runOnce(() -> swerveState.mode = SwerveState.Mode.AUTO_DRIVE)
+    return this.runOnce(
+            () -> {
+              swerveState.mode = SwerveState.Mode.AUTO_DRIVE;
+              pathfinder.prepare(goalPose.getTranslation());
+            })
         .andThen(
-            this.defer(
-                () ->
-                    followPathCommand(
-                        new PathPlannerPath(
-                            PathPlannerPath.bezierFromPoses(getPose(), goalPose),
-                            new PathConstraints(
-                                kSwerve.Auton.maxVel,
-                                kSwerve.Auton.maxAccel,
-                                kSwerve.Auton.maxAngVel,
-                                kSwerve.maxAngAccel),
-                            new GoalEndState(0.0, holonomicRotation)),
-                        false)))
+            Commands.waitUntil(() -> pathfinder.isReady(goalPose.getTranslation()))
+                .withTimeout(kPathfinding.fieldTimeout))
+        .andThen(this.defer(() -> followPathCommand(pathTo(goalPose, holonomicRotation), false)))
         .finallyDo(() -> swerveState.mode = SwerveState.Mode.IDLE)
         .withName("driveToPoint");
   }
 
+  // Drive around obstacles to a target given for the blue alliance
+  public Command driveToTargetCommand(Pose2d bluePose) {
+    return this.defer(
+            () -> {
+              if (DriverStation.getAlliance().isPresent()
+                  && DriverStation.getAlliance().get() == Alliance.Red) {
+                return driveToPointCommand(GeometryUtil.flipFieldPose(bluePose));
+              }
+              return driveToPointCommand(bluePose);
+            })
+        .withName("driveToTargetCommand");
+  }
+
+  // Drive straight to a pose on a profile coupled across x, y and heading, so the chassis limits
+  // hold for the whole robot and every axis arrives at once
   public Command driveToPointProfiles(Pose2d goal) {
+    var timer = new Timer();
+    var target = new ChoreoTrajectory.State();
+    var speeds = new ChassisSpeeds();
+    var atGoal = new boolean[1]; // this command's own end condition, the record is only logged
     return this.runOnce(
             () -> {
-              // Reset Profiles
-              ChassisSpeeds speeds =
-                  ChassisSpeeds.fromRobotRelativeSpeeds(getChassisSpeeds(), getHeading());
-              xController.reset(getPose().getX(), speeds.vxMetersPerSecond);
-              yController.reset(getPose().getY(), speeds.vyMetersPerSecond);
-              rotController.reset(
-                  getPose().getRotation().getRadians(), speeds.omegaRadiansPerSecond);
-
-              // Set Goals
-              xController.setGoal(goal.getX());
-              yController.setGoal(goal.getY());
-              rotController.setGoal(goal.getRotation().getRadians());
+              poseProfile.reset(
+                  getPose(),
+                  ChassisSpeeds.fromRobotRelativeSpeeds(getChassisSpeeds(), getHeading()),
+                  goal);
+              timer.restart();
+              atGoal[0] = false;
             })
         .andThen(
             this.run(
                     () -> {
-                      // Calculate Feedback
-                      double xFB = xController.calculate(getPose().getX());
-                      double yFB = yController.calculate(getPose().getY());
-
-                      double rotFB = rotController.calculate(getPose().getRotation().getRadians());
-
-                      // Calculate full chassis Speeds
-                      pathChassisSpeeds =
-                          new ChassisSpeeds(
-                              xFB + xController.getSetpoint().velocity,
-                              yFB + yController.getSetpoint().velocity,
-                              rotFB + rotController.getSetpoint().velocity);
-                      this.log("xControllerSetpoint", xController.getSetpoint().position);
-                      this.log("yControllerSetpoint", yController.getSetpoint().position);
-                      this.log("rotController", rotController.getSetpoint().position);
-                      this.log("xSetVel", xController.getSetpoint().velocity);
-                      this.log("ySetVel", yController.getSetpoint().velocity);
-                      this.log("rotSetVel", rotController.getSetpoint().velocity);
-                      this.log("xFB", xFB);
-                      this.log("yFB", yFB);
-                      this.log("rotFB", rotFB);
-                      this.log("x at goal", xController.atGoal());
-                      this.log("y at goal", yController.atGoal());
-                      this.log("z at goal", rotController.atGoal());
-                      drive(
-                          ChassisSpeeds.fromFieldRelativeSpeeds(pathChassisSpeeds, getHeading()),
-                          true);
+                      poseProfile.sample(timer.get(), target);
+                      double heading = poseEstimator.getTheta();
+                      double xError = target.x - poseEstimator.getX();
+                      double yError = target.y - poseEstimator.getY();
+                      double rotError = MathUtil.angleModulus(target.heading - heading);
+                      double xFB = Auton.transP * xError;
+                      double yFB = Auton.transP * yError;
+                      double rotFB = Auton.angP * rotError;
+
+                      // Field relative to robot relative
+                      double vx = target.velocityX + xFB;
+                      double vy = target.velocityY + yFB;
+                      double cos = Math.cos(heading);
+                      double sin = Math.sin(heading);
+                      speeds.vxMetersPerSecond = vx * cos + vy * sin;
+                      speeds.vyMetersPerSecond = -vx * sin + vy * cos;
+                      speeds.omegaRadiansPerSecond = target.angularVelocity + rotFB;
+
+                      boolean done = timer.hasElapsed(poseProfile.getTotalTime());
+                      boolean xAtGoal = done && Math.abs(xError) < Auton.transTolerance;
+                      boolean yAtGoal = done && Math.abs(yError) < Auton.transTolerance;
+                      boolean rotAtGoal = done && Math.abs(rotError) < Auton.angTolerance;
+                      atGoal[0] = xAtGoal && yAtGoal && rotAtGoal;
+
+                      // Log the follower state as a single record
+                      profileTelemetry.xSetpoint = target.x;
+                      profileTelemetry.ySetpoint = target.y;
+                      profileTelemetry.rotSetpoint = target.heading;
+                      profileTelemetry.xSetVel = target.velocityX;
+                      profileTelemetry.ySetVel = target.velocityY;
+                      profileTelemetry.rotSetVel = target.angularVelocity;
+                      profileTelemetry.xFB = xFB;
+                      profileTelemetry.yFB = yFB;
+                      profileTelemetry.rotFB = rotFB;
+                      profileTelemetry.xAtGoal = xAtGoal;
+                      profileTelemetry.yAtGoal = yAtGoal;
+                      profileTelemetry.rotAtGoal = rotAtGoal;
+                      profileLogger.log(profileTelemetry);
+
+                      drive(speeds, true);
                     })
-                .until(
-                    () -> xController.atGoal() && yController.atGoal() && rotController.atGoal()));
+                .until(() -> atGoal[0]));
   }
 
   public Command driveFieldSpeedsCommand(ChassisSpeeds fieldRelativeSpeeds) {
@@ -468,13 +556,56 @@ public class Swerve extends SubsystemBase implements Logged, Characterizable {
     }
   }
 
+  // High rate capture of the drive motors for the linear tests, the gyro can't be read any faster
+  public SysIdCapture getCapture(SysIdType routineType) {
+    if (routineType == SysIdType.ANGULAR) return null;
+
+    if (capture == null) {
+      for (int i = 0; i < captureInputs.length; i++) captureInputs[i] = new ModuleInputs();
+      capture =
+          new SysIdCapture(
+              getName(),
+              new String[] {
+                frontLeftModule.getFullPath(),
+                backLeftModule.getFullPath(),
+                backRightModule.getFullPath(),
+                frontRightModule.getFullPath()
+              },
+              this::sampleSysId,
+              this::setCaptureFrames,
+              kSysIdCapture.period,
+              kSysIdCapture.duration,
+              kSysIdCapture.flushBatch);
+    }
+    return capture;
+  }
+
+  private void sampleSysId(double[] volts, double[] positions, double[] velocities) {
+    frontLeftModule.sampleInputs(captureInputs[0]);
+    backLeftModule.sampleInputs(captureInputs[1]);
+    backRightModule.sampleInputs(captureInputs[2]);
+    frontRightModule.sampleInputs(captureInputs[3]);
+    for (int i = 0; i < captureInputs.length; i++) {
+      volts[i] = captureInputs[i].driveAppliedVolts;
+      positions[i] = captureInputs[i].drivePosition;
+      velocities[i] = captureInputs[i].driveVelocity;
+    }
+  }
+
+  private void setCaptureFrames(boolean capture) {
+    frontLeftModule.setCaptureFrames(capture);
+    backLeftModule.setCaptureFrames(capture);
+    backRightModule.setCaptureFrames(capture);
+    frontRightModule.setCaptureFrames(capture);
+  }
+
   /*public Command characterizeWheelDiameter() {
     final Double startPosition = 0;
     double startAngle = 0;
     return driveFieldSpeedsCommand(new ChassisSpeeds(0, 0, 3))
         .raceWith(Commands.waitSeconds(1)
         .andThen(this.runOnce(() -> {
-            startPosition = getPositions()[0].distanceMeters;
+            startPosition = moduleDistances[0];
             startAngle = getHeading().getRadians();
         }))
         );
@@ -488,15 +619,20 @@ public class Swerve extends SubsystemBase implements Logged, Characterizable {
     chassisVelocityTarget = speeds;
     limiter.update(ChassisSpeeds.fromRobotRelativeSpeeds(speeds, getHeading()));
 
-    // Discretize to reduce drift when rotating
-    speeds = ChassisSpeeds.discretize(speeds, 0.02);
-
-    // Convert to module states and desaturate speeds to prevent exceeding module capabilities
-    var targetStates = kSwerve.kinematics.toSwerveModuleStates(speeds);
-    SwerveDriveKinematics.desaturateWheelSpeeds(targetStates, kModule.maxWheelSpeed);
-    speeds = kSwerve.kinematics.toChassisSpeeds(targetStates);
+    setStates(calculateModuleStates(speeds), closedLoopDrive);
+  }
 
-    setStates(targetStates, closedLoopDrive);
+  // Run the teleop drive math on a scratch limiter without commanding the modules, for JIT warmup
+  // while disabled
+  public void warmup() {
+    var speeds = warmupLimiter.calculate(joystickToChassis(0.5, -0.5, 0.5, false));
+    speeds = ChassisSpeeds.fromFieldRelativeSpeeds(speeds, getHeading());
+    warmupLimiter.update(ChassisSpeeds.fromRobotRelativeSpeeds(speeds, getHeading()));
+    var states = calculateModuleStates(speeds);
+    frontLeftModule.warmup(states[0]);
+    backLeftModule.warmup(states[1]);
+    backRightModule.warmup(states[2]);
+    frontRightModule.warmup(states[3]);
   }
 
   // Convert driver field relative speeds to chassis speeds
@@ -522,13 +658,11 @@ public class Swerve extends SubsystemBase implements Logged, Characterizable {
   }
 
   // Retrieve the pose estimation pose
-  @Log.NT
   public Pose2d getPose() {
     return poseEstimator.getEstimatedPosition();
   }
 
   // Retrieve measured ChassisSpeeds
-  @Log.NT
   public ChassisSpeeds getChassisSpeeds() {
     return kSwerve.kinematics.toChassisSpeeds(getModuleStates());
   }
@@ -541,46 +675,55 @@ public class Swerve extends SubsystemBase implements Logged, Characterizable {
   public void setVisionEnable(boolean bool) {
     visionEnable = bool;
   }
+
+  // Fuse the cameras into the pose estimate, called from the vision rate group
+  public void visionPeriodic() {
+    if (DriverStation.isTeleop()) {
+      updatePoseWithCameraData();
+    }
+  }
+
   // AddVisionMeasurement With Two camera streams
   public void updatePoseWithCameraData() {
-    if (camera1.isConnected()) {
-      var result = camera1.getLatestResult();
-      Optional<EstimatedRobotPose> estimatedGlobalPose = photonPoseEstimator1.update(result);
-      if (estimatedGlobalPose.isPresent()) {
-        double distance = result.getBestTarget().getBestCameraToTarget().getTranslation().getNorm();
-        if (poseEstimateIsGood(estimatedGlobalPose.get())) {
+    camera1.updateInputs(camera1Inputs);
+    camera2.updateInputs(camera2Inputs);
+    Replay.processInputs("Swerve/Camera1", camera1Inputs);
+    Replay.processInputs("Swerve/Camera2", camera2Inputs);
+
+    if (camera1Inputs.connected) {
+      if (camera1Inputs.hasEstimate) {
+        double distance = camera1Inputs.bestTargetDistance;
+        var estimatedPose = camera1Inputs.getEstimatedPose();
+        if (poseEstimateIsGood(camera1Inputs)) {
           log("Using Estimate", true);
           poseEstimator.addVisionMeasurement(
-              estimatedGlobalPose.get().estimatedPose.toPose2d(),
-              estimatedGlobalPose.get().timestampSeconds,
-              kSwerve.visionStdDevs.times(distance * kSwerve.visionScalingFactor));
+              estimatedPose.toPose2d(),
+              camera1Inputs.timestamp,
+              distance * kSwerve.visionScalingFactor);
         } else log("Using Estimate", false);
-        photonPose = estimatedGlobalPose.get().estimatedPose;
+        photonPose = estimatedPose;
       }
     }
-    if (camera2.isConnected()) {
-      var cam2Result = camera2.getLatestResult();
-      if (cam2Result.getMultiTagResult().estimatedPose.isPresent) { // checks the pose exists
-        double poseAmbiguity = cam2Result.getBestTarget().getPoseAmbiguity();
+    if (camera2Inputs.connected) {
+      if (camera2Inputs.hasMultiTag) { // checks the pose exists
+        double poseAmbiguity = camera2Inputs.bestTargetAmbiguity;
         if (poseAmbiguity < 0.2
-            && poseAmbiguity >= 0) { // check if the ambiguity is in the correct bounds
-          Optional<EstimatedRobotPose> estimatedGlobalPoseVision = photonPoseEstimator2.update();
+            && poseAmbiguity >= 0
+            && camera2Inputs.hasEstimate) { // check if the ambiguity is in the correct bounds
           poseEstimator.addVisionMeasurement(
-              estimatedGlobalPoseVision.get().estimatedPose.toPose2d(),
-              estimatedGlobalPoseVision.get().timestampSeconds);
+              camera2Inputs.getEstimatedPose().toPose2d(), camera2Inputs.timestamp);
         }
       }
     }
   }
 
-  public boolean poseEstimateIsGood(EstimatedRobotPose photonPoseEstimate) {
+  public boolean poseEstimateIsGood(VisionInputs cameraInputs) {
     boolean tagsWithinRange = false;
     double furthestTag = 0;
 
     // Iterate over tags and set flag if there is at least one tag in range as well as find the
     // furthest tag
-    for (var tag : photonPoseEstimate.targetsUsed) {
-      var distance = tag.getBestCameraToTarget().getTranslation().getNorm();
+    for (var distance : cameraInputs.tagDistances) {
       if (distance <= 3.2) tagsWithinRange = true;
 
       if (furthestTag < distance) furthestTag = distance;
@@ -593,34 +736,35 @@ public class Swerve extends SubsystemBase implements Logged, Characterizable {
     if (!tagsWithinRange || furthestTag > 5) return false;
 
     // If estimated position is underground or flying throw out the result
-    if (Math.abs(photonPoseEstimate.estimatedPose.getZ()) > 0.17) return false;
+    if (Math.abs(cameraInputs.estimatedPose[2]) > 0.17) return false;
 
     return true;
   }
 
   // Set an initial pose for the pose estimator
   public void setPose(Pose2d pose) {
-    poseEstimator.resetPosition(getGyroRaw(), getPositions(), pose);
+    readModules();
+    poseEstimator.resetPosition(gyroInputs.yaw, moduleDistances, moduleAngles, pose);
   }
 
   // Zero out the gyro (current heading becomes 0)
   public void zeroGyro() {
-    poseEstimator.resetPosition(
-        getGyroRaw(),
-        getPositions(),
-        new Pose2d(getPose().getTranslation(), Rotation2d.fromRadians(0)));
+    setPose(new Pose2d(getPose().getTranslation(), Rotation2d.fromRadians(0)));
   }
 
   // Return the heading of the robot as measured by the pose estimator
-  @Log.NT
   public Rotation2d getHeading() {
     return getPose().getRotation();
   }
 
   // Get gyro yaw rate (radians/s CCW +)
-  @Log.NT
   public double getGyroYawRate() {
-    return Units.degreesToRadians(navX.getRawGyroZ());
+    return gyroInputs.yawRate;
+  }
+
+  // Whether the gyro is still talking to the roboRIO
+  public boolean isGyroConnected() {
+    return gyroInputs.connected;
   }
 
   public SwerveState getSwerveState() {
@@ -660,23 +804,34 @@ public class Swerve extends SubsystemBase implements Logged, Characterizable {
   // ---------- Private hardware interface methods ----------
 
   // Get direct gyro reading as Rotation2d
-  @Log.NT
   private Rotation2d getGyroRaw() {
-    return navX.getRotation2d();
+    return new Rotation2d(gyroInputs.yaw);
   }
 
-  // Retrieve the positions (angle and distance traveled) for each swerve module
-  private SwerveModulePosition[] getPositions() {
-    return new SwerveModulePosition[] {
-      frontLeftModule.getPositon(),
-      backLeftModule.getPositon(),
-      backRightModule.getPositon(),
-      frontRightModule.getPositon()
-    };
+  // Module states for chassis speeds, desaturated to what the modules can do
+  private SwerveModuleState[] calculateModuleStates(ChassisSpeeds speeds) {
+    // Discretize to reduce drift when rotating
+    speeds = ChassisSpeeds.discretize(speeds, 0.02);
+
+    // Convert to module states and desaturate speeds to prevent exceeding module capabilities
+    var targetStates = kSwerve.kinematics.toSwerveModuleStates(speeds);
+    SwerveDriveKinematics.desaturateWheelSpeeds(targetStates, kModule.maxWheelSpeed);
+    return targetStates;
+  }
+
+  // Copy each module's distance and steer angle into the odometry arrays
+  private void readModules() {
+    moduleDistances[0] = frontLeftModule.getDistance();
+    moduleDistances[1] = backLeftModule.getDistance();
+    moduleDistances[2] = backRightModule.getDistance();
+    moduleDistances[3] = frontRightModule.getDistance();
+    moduleAngles[0] = frontLeftModule.getSteerAngle();
+    moduleAngles[1] = backLeftModule.getSteerAngle();
+    moduleAngles[2] = backRightModule.getSteerAngle();
+    moduleAngles[3] = frontRightModule.getSteerAngle();
   }
 
   // Retrieve the state (velocity and heading) for each swerve module
-  @Log.NT
   private SwerveModuleState[] getModuleStates() {
     return new SwerveModuleState[] {
       frontLeftModule.getState(),
@@ -700,14 +855,17 @@ public class Swerve extends SubsystemBase implements Logged, Characterizable {
   // Update pose estimator and log data
   @Override
   public void periodic() {
-    if (RobotBase.isSimulation())
-      simNavXYaw.set(
-          simNavXYaw.get()
-              + chassisVelocityTarget.omegaRadiansPerSecond * -360 / (2 * Math.PI) * 0.02);
-    poseEstimator.update(getGyroRaw(), getPositions());
-    if (DriverStation.isTeleop()) {
-      updatePoseWithCameraData();
-    }
+    // Read sensors
+    gyro.setCommandedYawRate(chassisVelocityTarget.omegaRadiansPerSecond);
+    gyro.updateInputs(gyroInputs);
+    Replay.processInputs("Swerve/Gyro", gyroInputs);
+    frontLeftModule.updateInputs();
+    backLeftModule.updateInputs();
+    backRightModule.updateInputs();
+    frontRightModule.updateInputs();
+
+    readModules();
+    poseEstimator.update(gyroInputs.yaw, moduleDistances, moduleAngles);
     field2d.setRobotPose(getPose());
   }
 
@@ -747,6 +905,26 @@ public class Swerve extends SubsystemBase implements Logged, Characterizable {
         translationVelocity.get(0, 0), translationVelocity.get(1, 0), zRotation);
   }
 
+  // Path from the current pose through the pathfinder's waypoints, heading along the direction of
+  // travel at each one
+  private PathPlannerPath pathTo(Pose2d goalPose, Rotation2d holonomicRotation) {
+    var waypoints = pathfinder.plan(getPose().getTranslation(), goalPose.getTranslation());
+    var poses = new ArrayList<Pose2d>();
+    for (int i = 0; i < waypoints.size(); i++) {
+      var from = waypoints.get(Math.max(i - 1, 0));
+      var to = waypoints.get(Math.min(i + 1, waypoints.size() - 1));
+      poses.add(new Pose2d(waypoints.get(i), to.minus(from).getAngle()));
+    }
+    return new PathPlannerPath(
+        PathPlannerPath.bezierFromPoses(poses),
+        new PathConstraints(
+            kSwerve.Auton.maxVel,
+            kSwerve.Auton.maxAccel,
+            kSwerve.Auton.maxAngVel,
+            kSwerve.maxAngAccel),
+        new GoalEndState(0.0, holonomicRotation));
+  }
+
   private void resetPose(PathPlannerPath path, boolean useAlliance) {
     var trajectory = path.getTrajectory(new ChassisSpeeds(), new Rotation2d());
     var initialPose = trajectory.getInitialTargetHolonomicPose();
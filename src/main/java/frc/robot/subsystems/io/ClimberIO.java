@@ -0,0 +1,8 @@
+package frc.robot.subsystems.io;
+
+// Climber hardware layer, the default methods are the replay implementation
+public interface ClimberIO {
+  default void updateInputs(ClimberInputs inputs) {}
+
+  default void setVoltage(double volts) {}
+}
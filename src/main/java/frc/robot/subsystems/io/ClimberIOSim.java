@@ -0,0 +1,23 @@
+package frc.robot.subsystems.io;
+
+// Climber winch that turns at a fixed rate per volt
+public class ClimberIOSim implements ClimberIO {
+  private static final double rotationsPerVoltSecond = 1;
+
+  private double position = 0;
+  private double appliedVolts = 0;
+
+  @Override
+  public void updateInputs(ClimberInputs inputs) {
+    position += appliedVolts * rotationsPerVoltSecond * 0.02;
+
+    inputs.position = position;
+    inputs.appliedVolts = appliedVolts;
+    inputs.current = 0;
+  }
+
+  @Override
+  public void setVoltage(double volts) {
+    appliedVolts = volts;
+  }
+}
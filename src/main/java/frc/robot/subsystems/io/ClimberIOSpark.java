@@ -0,0 +1,40 @@
+package frc.robot.subsystems.io;
+
+import static frc.robot.utilities.SparkConfigurator.getSparkMax;
+
+import com.revrobotics.CANSparkBase.IdleMode;
+import com.revrobotics.CANSparkLowLevel.MotorType;
+import com.revrobotics.CANSparkMax;
+import com.revrobotics.RelativeEncoder;
+import com.revrobotics.SparkPIDController;
+import frc.robot.Constants.kClimber;
+import frc.robot.utilities.SparkConfigurator.LogData;
+import java.util.Set;
+
+public class ClimberIOSpark implements ClimberIO {
+  private final CANSparkMax climbMotor;
+  private final RelativeEncoder climbEncoder;
+
+  public ClimberIOSpark() {
+    climbMotor =
+        getSparkMax(
+            kClimber.climberID, MotorType.kBrushless, false, Set.of(), Set.of(LogData.VOLTAGE));
+    climbMotor.setIdleMode(IdleMode.kBrake);
+    climbEncoder = climbMotor.getEncoder();
+    SparkPIDController climbPID = climbMotor.getPIDController();
+    climbPID.setP(kClimber.kP);
+    climbPID.setD(kClimber.kD);
+  }
+
+  @Override
+  public void updateInputs(ClimberInputs inputs) {
+    inputs.position = climbEncoder.getPosition();
+    inputs.appliedVolts = climbMotor.getAppliedOutput() * climbMotor.getBusVoltage();
+    inputs.current = climbMotor.getOutputCurrent();
+  }
+
+  @Override
+  public void setVoltage(double volts) {
+    climbMotor.setVoltage(volts);
+  }
+}
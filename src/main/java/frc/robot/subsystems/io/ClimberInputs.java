@@ -0,0 +1,24 @@
+package frc.robot.subsystems.io;
+
+import frc.robot.utilities.InputsTable;
+import frc.robot.utilities.LoggableInputs;
+
+public class ClimberInputs implements LoggableInputs {
+  public double position = 0; // rotations
+  public double appliedVolts = 0;
+  public double current = 0; // amps
+
+  @Override
+  public void toLog(InputsTable table) {
+    table.put("Position", position);
+    table.put("AppliedVolts", appliedVolts);
+    table.put("Current", current);
+  }
+
+  @Override
+  public void fromLog(InputsTable table) {
+    position = table.get("Position", position);
+    appliedVolts = table.get("AppliedVolts", appliedVolts);
+    current = table.get("Current", current);
+  }
+}
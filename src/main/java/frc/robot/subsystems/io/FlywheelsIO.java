@@ -0,0 +1,14 @@
+package frc.robot.subsystems.io;
+
+// Shooter flywheels hardware layer, the default methods are the replay implementation
+public interface FlywheelsIO {
+  default void updateInputs(FlywheelsInputs inputs) {}
+
+  default void setVoltage(double volts) {}
+
+  // Closed loop velocity in rad/s with a feedforward voltage for each wheel
+  default void setVelocity(double velocity, double ffVolts1, double ffVolts2) {}
+
+  // Fast status frames for a SysId capture while it runs, or back to normal
+  default void setCaptureFrames(boolean capture) {}
+}
@@ -0,0 +1,38 @@
+package frc.robot.subsystems.io;
+
+import frc.robot.Constants.kShooter.kFlywheels.kFlywheel1;
+import frc.robot.Constants.kShooter.kFlywheels.kFlywheel2;
+
+// Ideal flywheels, each wheel instantly reaches its commanded or steady state speed
+public class FlywheelsIOSim implements FlywheelsIO {
+  private final double[] velocities = new double[2];
+  private final double[] appliedVolts = new double[2];
+  private final double[] positions = new double[2];
+
+  @Override
+  public void updateInputs(FlywheelsInputs inputs) {
+    for (int i = 0; i < 2; i++) {
+      positions[i] += velocities[i] * 0.02;
+      inputs.positions[i] = positions[i];
+      inputs.velocities[i] = velocities[i];
+      inputs.appliedVolts[i] = appliedVolts[i];
+    }
+    inputs.busVoltage = 12;
+  }
+
+  @Override
+  public void setVoltage(double volts) {
+    appliedVolts[0] = volts;
+    appliedVolts[1] = volts;
+    velocities[0] = volts / kFlywheel1.kv;
+    velocities[1] = volts / kFlywheel2.kv;
+  }
+
+  @Override
+  public void setVelocity(double velocity, double ffVolts1, double ffVolts2) {
+    appliedVolts[0] = ffVolts1;
+    appliedVolts[1] = ffVolts2;
+    velocities[0] = velocity;
+    velocities[1] = velocity;
+  }
+}
@@ -0,0 +1,107 @@
+package frc.robot.subsystems.io;
+
+import static frc.robot.utilities.SparkConfigurator.getSparkMax;
+import static frc.robot.utilities.SparkConfigurator.restoreStatus;
+import static frc.robot.utilities.SparkConfigurator.setFastStatus;
+
+import com.revrobotics.CANSparkBase.ControlType;
+import com.revrobotics.CANSparkBase.IdleMode;
+import com.revrobotics.CANSparkLowLevel;
+import com.revrobotics.CANSparkMax;
+import com.revrobotics.RelativeEncoder;
+import com.revrobotics.SparkPIDController;
+import frc.robot.Constants.kShooter.kFlywheels;
+import frc.robot.Constants.kShooter.kFlywheels.kFlywheel1;
+import frc.robot.Constants.kShooter.kFlywheels.kFlywheel2;
+import frc.robot.Constants.kSysIdCapture;
+import frc.robot.utilities.SparkConfigurator.LogData;
+import java.util.Set;
+
+// Two independent NEO flywheels with velocity control on the Spark Maxes
+public class FlywheelsIOSpark implements FlywheelsIO {
+  private final CANSparkMax flywheel1;
+  private final CANSparkMax flywheel2;
+  private final SparkPIDController fly1PID;
+  private final SparkPIDController fly2PID;
+  private final RelativeEncoder fly1Encoder;
+  private final RelativeEncoder fly2Encoder;
+
+  public FlywheelsIOSpark() {
+    flywheel1 =
+        getSparkMax(
+            kFlywheel1.canID,
+            CANSparkLowLevel.MotorType.kBrushless,
+            false,
+            Set.of(),
+            Set.of(LogData.POSITION, LogData.VELOCITY, LogData.VOLTAGE));
+    flywheel2 =
+        getSparkMax(
+            kFlywheel2.canID,
+            CANSparkLowLevel.MotorType.kBrushless,
+            false,
+            Set.of(),
+            Set.of(LogData.POSITION, LogData.VELOCITY, LogData.VOLTAGE));
+
+    flywheel1.setInverted(kFlywheels.invert);
+    flywheel2.setInverted(!kFlywheels.invert);
+    flywheel1.setIdleMode(IdleMode.kBrake);
+    flywheel2.setIdleMode(IdleMode.kBrake);
+
+    // Encoders
+    fly1Encoder = flywheel1.getEncoder();
+    fly1Encoder.setPositionConversionFactor(kFlywheels.positionConversionFactor);
+    fly1Encoder.setVelocityConversionFactor(kFlywheels.velocityConversionFactor);
+    fly1Encoder.setAverageDepth(4);
+    fly1Encoder.setMeasurementPeriod(12);
+
+    fly2Encoder = flywheel2.getEncoder();
+    fly2Encoder.setPositionConversionFactor(kFlywheels.positionConversionFactor);
+    fly2Encoder.setVelocityConversionFactor(kFlywheels.velocityConversionFactor);
+    fly2Encoder.setAverageDepth(4);
+    fly2Encoder.setMeasurementPeriod(12);
+
+    // PIDS
+    fly1PID = flywheel1.getPIDController();
+    fly1PID.setFeedbackDevice(fly1Encoder);
+    fly1PID.setOutputRange(kFlywheel1.minPIDOutput, kFlywheel1.maxPIDOutput);
+    fly1PID.setP(kFlywheel1.kP);
+    fly1PID.setD(kFlywheel1.kD);
+
+    fly2PID = flywheel2.getPIDController();
+    fly2PID.setFeedbackDevice(fly2Encoder);
+    fly2PID.setOutputRange(kFlywheel2.minPIDOutput, kFlywheel2.maxPIDOutput);
+    fly2PID.setP(kFlywheel2.kP);
+    fly2PID.setD(kFlywheel2.kD);
+  }
+
+  @Override
+  public void updateInputs(FlywheelsInputs inputs) {
+    inputs.positions[0] = fly1Encoder.getPosition();
+    inputs.positions[1] = fly2Encoder.getPosition();
+    inputs.velocities[0] = fly1Encoder.getVelocity();
+    inputs.velocities[1] = fly2Encoder.getVelocity();
+    inputs.appliedVolts[0] = flywheel1.getAppliedOutput() * flywheel1.getBusVoltage();
+    inputs.appliedVolts[1] = flywheel2.getAppliedOutput() * flywheel2.getBusVoltage();
+    inputs.busVoltage = flywheel1.getBusVoltage();
+  }
+
+  @Override
+  public void setVoltage(double volts) {
+    flywheel1.setVoltage(volts);
+    flywheel2.setVoltage(volts);
+  }
+
+  @Override
+  public void setVelocity(double velocity, double ffVolts1, double ffVolts2) {
+    fly1PID.setReference(velocity, ControlType.kVelocity, 0, ffVolts1);
+    fly2PID.setReference(velocity, ControlType.kVelocity, 0, ffVolts2);
+  }
+
+  @Override
+  public void setCaptureFrames(boolean capture) {
+    for (var flywheel : new CANSparkMax[] {flywheel1, flywheel2}) {
+      if (capture) setFastStatus(flywheel, kSysIdCapture.framePeriod);
+      else restoreStatus(flywheel);
+    }
+  }
+}
@@ -0,0 +1,27 @@
+package frc.robot.subsystems.io;
+
+import frc.robot.utilities.InputsTable;
+import frc.robot.utilities.LoggableInputs;
+
+public class FlywheelsInputs implements LoggableInputs {
+  public double[] positions = new double[2]; // rad
+  public double[] velocities = new double[2]; // rad/s
+  public double[] appliedVolts = new double[2];
+  public double busVoltage = 12;
+
+  @Override
+  public void toLog(InputsTable table) {
+    table.put("Positions", positions);
+    table.put("Velocities", velocities);
+    table.put("AppliedVolts", appliedVolts);
+    table.put("BusVoltage", busVoltage);
+  }
+
+  @Override
+  public void fromLog(InputsTable table) {
+    positions = table.get("Positions", positions);
+    velocities = table.get("Velocities", velocities);
+    appliedVolts = table.get("AppliedVolts", appliedVolts);
+    busVoltage = table.get("BusVoltage", busVoltage);
+  }
+}
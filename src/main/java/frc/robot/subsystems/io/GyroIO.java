@@ -0,0 +1,9 @@
+package frc.robot.subsystems.io;
+
+// Gyro hardware layer, the default methods are the replay implementation
+public interface GyroIO {
+  default void updateInputs(GyroInputs inputs) {}
+
+  // The chassis rotation rate being commanded, only the simulated gyro uses it
+  default void setCommandedYawRate(double yawRate) {}
+}
@@ -0,0 +1,16 @@
+package frc.robot.subsystems.io;
+
+import com.kauailabs.navx.frc.AHRS;
+import edu.wpi.first.math.util.Units;
+import frc.robot.Constants.kSwerve;
+
+public class GyroIONavX implements GyroIO {
+  private final AHRS navX = new AHRS(kSwerve.navxPort);
+
+  @Override
+  public void updateInputs(GyroInputs inputs) {
+    inputs.connected = navX.isConnected();
+    inputs.yaw = navX.getRotation2d().getRadians();
+    inputs.yawRate = Units.degreesToRadians(navX.getRawGyroZ());
+  }
+}
@@ -0,0 +1,21 @@
+package frc.robot.subsystems.io;
+
+// Integrates the commanded chassis rotation rate
+public class GyroIOSim implements GyroIO {
+  private double yaw = 0;
+  private double yawRate = 0;
+
+  @Override
+  public void updateInputs(GyroInputs inputs) {
+    yaw += yawRate * 0.02;
+
+    inputs.connected = true;
+    inputs.yaw = yaw;
+    inputs.yawRate = yawRate;
+  }
+
+  @Override
+  public void setCommandedYawRate(double yawRate) {
+    this.yawRate = yawRate;
+  }
+}
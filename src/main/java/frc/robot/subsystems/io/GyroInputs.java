@@ -0,0 +1,24 @@
+package frc.robot.subsystems.io;
+
+import frc.robot.utilities.InputsTable;
+import frc.robot.utilities.LoggableInputs;
+
+public class GyroInputs implements LoggableInputs {
+  public boolean connected = true;
+  public double yaw = 0; // rad, ccw+
+  public double yawRate = 0; // rad/s, ccw+
+
+  @Override
+  public void toLog(InputsTable table) {
+    table.put("Connected", connected);
+    table.put("Yaw", yaw);
+    table.put("YawRate", yawRate);
+  }
+
+  @Override
+  public void fromLog(InputsTable table) {
+    connected = table.get("Connected", connected);
+    yaw = table.get("Yaw", yaw);
+    yawRate = table.get("YawRate", yawRate);
+  }
+}
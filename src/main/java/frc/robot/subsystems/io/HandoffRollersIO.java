@@ -0,0 +1,11 @@
+package frc.robot.subsystems.io;
+
+// Handoff rollers hardware layer, the default methods are the replay implementation
+public interface HandoffRollersIO {
+  default void updateInputs(HandoffRollersInputs inputs) {}
+
+  default void setVoltage(double volts) {}
+
+  // Stop the rollers from the sensor interrupt when the next note is seen
+  default void setStopOnPiece(boolean stop) {}
+}
@@ -0,0 +1,47 @@
+package frc.robot.subsystems.io;
+
+import edu.wpi.first.wpilibj.Timer;
+import frc.robot.Constants.kShooter.kHandoffRollers;
+
+// Handoff rollers that always receive a note, it reaches the upper sensor after running inward
+// for the travel time and leaves into the flywheels after half that again
+public class HandoffRollersIOSim implements HandoffRollersIO {
+  private double appliedVolts = 0;
+  private double notePosition = 0; // 0 at the intake, 1 at the upper sensor, 1.5 in the flywheels
+  private boolean stopOnPiece = false;
+  private long edges = 0;
+  private double edgeTimestamp = 0;
+
+  @Override
+  public void updateInputs(HandoffRollersInputs inputs) {
+    boolean sensed = notePosition >= 1;
+    notePosition += appliedVolts / 12 / kHandoffRollers.simTravelTime * 0.02;
+    if (notePosition < 0 || notePosition >= 1.5) notePosition = 0;
+
+    // Rising edge, stopped right away as the interrupt would
+    if (!sensed && notePosition >= 1) {
+      edges++;
+      edgeTimestamp = Timer.getFPGATimestamp();
+      if (stopOnPiece) {
+        appliedVolts = 0;
+        stopOnPiece = false;
+      }
+    }
+
+    inputs.upperSensor = notePosition >= 1;
+    inputs.lowerSensor = true;
+    inputs.appliedVolts = appliedVolts;
+    inputs.upperEdges = edges;
+    inputs.upperEdgeTimestamp = edgeTimestamp;
+  }
+
+  @Override
+  public void setVoltage(double volts) {
+    appliedVolts = volts;
+  }
+
+  @Override
+  public void setStopOnPiece(boolean stop) {
+    stopOnPiece = stop;
+  }
+}
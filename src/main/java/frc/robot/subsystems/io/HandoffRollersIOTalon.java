@@ -0,0 +1,43 @@
+package frc.robot.subsystems.io;
+
+import com.ctre.phoenix.motorcontrol.ControlMode;
+import com.ctre.phoenix.motorcontrol.NeutralMode;
+import com.ctre.phoenix.motorcontrol.can.TalonSRX;
+import edu.wpi.first.wpilibj.DigitalInput;
+import frc.robot.Constants.kShooter.kHandoffRollers;
+
+public class HandoffRollersIOTalon implements HandoffRollersIO {
+  private final TalonSRX rollerTalonSRX = new TalonSRX(kHandoffRollers.canID);
+  private final DigitalInput upperSensor = new DigitalInput(kHandoffRollers.upperSensorPort);
+  private final DigitalInput lowerSensor = new DigitalInput(kHandoffRollers.lowerSensorPort);
+  private final NoteSensorInterrupt upperInterrupt =
+      new NoteSensorInterrupt(upperSensor, () -> rollerTalonSRX.set(ControlMode.PercentOutput, 0));
+
+  public HandoffRollersIOTalon() {
+    rollerTalonSRX.setInverted(kHandoffRollers.inverted);
+    rollerTalonSRX.setNeutralMode(NeutralMode.Brake);
+  }
+
+  @Override
+  public void updateInputs(HandoffRollersInputs inputs) {
+    inputs.upperSensor = !upperSensor.get();
+    inputs.lowerSensor = lowerSensor.get();
+    inputs.appliedVolts = rollerTalonSRX.getMotorOutputVoltage();
+
+    synchronized (upperInterrupt) {
+      inputs.upperEdges = upperInterrupt.getEdges();
+      inputs.upperEdgeTimestamp = upperInterrupt.getEdgeTimestamp();
+      inputs.upperEdgeLatency = upperInterrupt.getHandlerLatency();
+    }
+  }
+
+  @Override
+  public void setVoltage(double volts) {
+    rollerTalonSRX.set(ControlMode.PercentOutput, volts / 12.0);
+  }
+
+  @Override
+  public void setStopOnPiece(boolean stop) {
+    upperInterrupt.setStopOnPiece(stop);
+  }
+}
@@ -0,0 +1,35 @@
+package frc.robot.subsystems.io;
+
+import frc.robot.utilities.InputsTable;
+import frc.robot.utilities.LoggableInputs;
+
+public class HandoffRollersInputs implements LoggableInputs {
+  public boolean upperSensor = false; // true when a note is seen
+  public boolean lowerSensor = false; // raw, true when clear
+  public double appliedVolts = 0;
+
+  // Upper sensor interrupt
+  public long upperEdges = 0; // notes seen since boot
+  public double upperEdgeTimestamp = 0; // FPGA s
+  public double upperEdgeLatency = 0; // s from the edge to the handler running
+
+  @Override
+  public void toLog(InputsTable table) {
+    table.put("UpperSensor", upperSensor);
+    table.put("LowerSensor", lowerSensor);
+    table.put("AppliedVolts", appliedVolts);
+    table.put("UpperEdges", upperEdges);
+    table.put("UpperEdgeTimestamp", upperEdgeTimestamp);
+    table.put("UpperEdgeLatency", upperEdgeLatency);
+  }
+
+  @Override
+  public void fromLog(InputsTable table) {
+    upperSensor = table.get("UpperSensor", upperSensor);
+    lowerSensor = table.get("LowerSensor", lowerSensor);
+    appliedVolts = table.get("AppliedVolts", appliedVolts);
+    upperEdges = table.get("UpperEdges", upperEdges);
+    upperEdgeTimestamp = table.get("UpperEdgeTimestamp", upperEdgeTimestamp);
+    upperEdgeLatency = table.get("UpperEdgeLatency", upperEdgeLatency);
+  }
+}
@@ -0,0 +1,17 @@
+package frc.robot.subsystems.io;
+
+import edu.wpi.first.wpilibj.RobotBase;
+import frc.robot.Constants;
+import frc.robot.Constants.SimMode;
+import java.util.function.Supplier;
+
+// Picks the hardware, simulated or replay implementation of an IO layer for the current mode
+public final class IO {
+  private IO() {}
+
+  public static <T> T select(Supplier<T> real, Supplier<T> sim, Supplier<T> replay) {
+    if (RobotBase.isReal()) return real.get();
+    if (Constants.simMode == SimMode.REPLAY) return replay.get();
+    return sim.get();
+  }
+}
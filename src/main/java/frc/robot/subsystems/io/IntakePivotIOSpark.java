@@ -0,0 +1,64 @@
+package frc.robot.subsystems.io;
+
+import static frc.robot.utilities.SparkConfigurator.getSparkMax;
+
+import com.revrobotics.CANSparkBase.IdleMode;
+import com.revrobotics.CANSparkLowLevel;
+import com.revrobotics.CANSparkMax;
+import edu.wpi.first.wpilibj.Encoder;
+import frc.robot.Constants.kIntake.kPivot;
+import frc.robot.utilities.SparkConfigurator.LogData;
+import frc.robot.utilities.SparkConfigurator.Sensors;
+import java.util.Set;
+
+// Intake pivot, one NEO with an external quadrature encoder on the pivot
+public class IntakePivotIOSpark implements PivotIO {
+  private final CANSparkMax pivotMotor;
+  private final Encoder pivotEncoder;
+
+  public IntakePivotIOSpark() {
+    // Motor Configs
+    pivotMotor =
+        getSparkMax(
+            kPivot.pivotMotorID,
+            CANSparkLowLevel.MotorType.kBrushless,
+            false,
+            Set.of(Sensors.ABSOLUTE),
+            Set.of(LogData.POSITION, LogData.VELOCITY, LogData.VOLTAGE));
+    pivotMotor.setIdleMode(IdleMode.kBrake);
+    pivotMotor.burnFlash();
+
+    // Encoder Configs
+    pivotEncoder = new Encoder(kPivot.portA, kPivot.portB);
+    pivotEncoder.setReverseDirection(kPivot.invertedEncoder);
+    pivotEncoder.setDistancePerPulse(2 * Math.PI / (kPivot.pulsesPerRevolution * kPivot.gearRatio));
+    pivotEncoder.reset();
+  }
+
+  @Override
+  public void updateInputs(PivotInputs inputs) {
+    inputs.encoderPosition = pivotEncoder.getDistance();
+    inputs.encoderVelocity = pivotEncoder.getRate();
+    inputs.appliedVolts = pivotMotor.getAppliedOutput() * pivotMotor.getBusVoltage();
+    inputs.current = pivotMotor.getOutputCurrent();
+  }
+
+  @Override
+  public void setVoltage(double volts) {
+    pivotMotor.setVoltage(volts);
+  }
+
+  @Override
+  public void setBrakeMode(boolean brake) {
+    if (brake) {
+      pivotMotor.setIdleMode(IdleMode.kBrake);
+    } else {
+      pivotMotor.setIdleMode(IdleMode.kCoast);
+    }
+  }
+
+  @Override
+  public void resetEncoder() {
+    pivotEncoder.reset();
+  }
+}
@@ -0,0 +1,11 @@
+package frc.robot.subsystems.io;
+
+// Intake rollers hardware layer, the default methods are the replay implementation
+public interface IntakeRollersIO {
+  default void updateInputs(IntakeRollersInputs inputs) {}
+
+  default void setVoltage(double volts) {}
+
+  // Stop the rollers from the sensor interrupt when the next note is seen
+  default void setStopOnPiece(boolean stop) {}
+}
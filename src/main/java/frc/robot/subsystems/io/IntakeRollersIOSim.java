@@ -0,0 +1,46 @@
+package frc.robot.subsystems.io;
+
+import edu.wpi.first.wpilibj.Timer;
+import frc.robot.Constants.kIntake.kRollers;
+
+// Intake rollers that always find a note, it reaches the sensor after running inward for the
+// travel time and is gone once run back out past the mouth
+public class IntakeRollersIOSim implements IntakeRollersIO {
+  private double appliedVolts = 0;
+  private double notePosition = 0; // 0 at the mouth, 1 at the sensor
+  private boolean stopOnPiece = false;
+  private long edges = 0;
+  private double edgeTimestamp = 0;
+
+  @Override
+  public void updateInputs(IntakeRollersInputs inputs) {
+    boolean sensed = notePosition >= 1;
+    notePosition += appliedVolts / 12 / kRollers.simTravelTime * 0.02;
+    if (notePosition < 0) notePosition = 0;
+
+    // Rising edge, stopped right away as the interrupt would
+    if (!sensed && notePosition >= 1) {
+      edges++;
+      edgeTimestamp = Timer.getFPGATimestamp();
+      if (stopOnPiece) {
+        appliedVolts = 0;
+        stopOnPiece = false;
+      }
+    }
+
+    inputs.pieceSensor = notePosition >= 1;
+    inputs.appliedVolts = appliedVolts;
+    inputs.pieceEdges = edges;
+    inputs.pieceEdgeTimestamp = edgeTimestamp;
+  }
+
+  @Override
+  public void setVoltage(double volts) {
+    appliedVolts = volts;
+  }
+
+  @Override
+  public void setStopOnPiece(boolean stop) {
+    stopOnPiece = stop;
+  }
+}
@@ -0,0 +1,62 @@
+package frc.robot.subsystems.io;
+
+import static frc.robot.utilities.SparkConfigurator.getSparkMax;
+
+import com.revrobotics.CANSparkBase.IdleMode;
+import com.revrobotics.CANSparkLowLevel;
+import com.revrobotics.CANSparkMax;
+import com.revrobotics.RelativeEncoder;
+import edu.wpi.first.wpilibj.DigitalInput;
+import frc.robot.Constants.kIntake.kRollers;
+import frc.robot.utilities.SparkConfigurator.LogData;
+import java.util.Set;
+
+public class IntakeRollersIOSpark implements IntakeRollersIO {
+  private final CANSparkMax intakeMotor;
+  private final DigitalInput pieceCheck;
+  private final RelativeEncoder insideEncoder;
+  private final NoteSensorInterrupt pieceInterrupt;
+
+  public IntakeRollersIOSpark() {
+    intakeMotor =
+        getSparkMax(
+            kRollers.rollerMotorID,
+            CANSparkLowLevel.MotorType.kBrushless,
+            false,
+            Set.of(),
+            Set.of(LogData.CURRENT, LogData.VOLTAGE, LogData.POSITION));
+    intakeMotor.setIdleMode(IdleMode.kBrake);
+    intakeMotor.setInverted(kRollers.invert);
+    intakeMotor.setSmartCurrentLimit(kRollers.currentLimit);
+    intakeMotor.setOpenLoopRampRate(kRollers.rampRate);
+    intakeMotor.burnFlash();
+
+    pieceCheck = new DigitalInput(kRollers.sensorChannel);
+    insideEncoder = intakeMotor.getEncoder();
+    pieceInterrupt = new NoteSensorInterrupt(pieceCheck, intakeMotor::stopMotor);
+  }
+
+  @Override
+  public void updateInputs(IntakeRollersInputs inputs) {
+    inputs.pieceSensor = !pieceCheck.get(); // Invert because of sensor
+    inputs.position = insideEncoder.getPosition();
+    inputs.appliedVolts = intakeMotor.getBusVoltage() * intakeMotor.getAppliedOutput();
+    inputs.current = intakeMotor.getOutputCurrent();
+
+    synchronized (pieceInterrupt) {
+      inputs.pieceEdges = pieceInterrupt.getEdges();
+      inputs.pieceEdgeTimestamp = pieceInterrupt.getEdgeTimestamp();
+      inputs.pieceEdgeLatency = pieceInterrupt.getHandlerLatency();
+    }
+  }
+
+  @Override
+  public void setVoltage(double volts) {
+    intakeMotor.setVoltage(volts);
+  }
+
+  @Override
+  public void setStopOnPiece(boolean stop) {
+    pieceInterrupt.setStopOnPiece(stop);
+  }
+}
@@ -0,0 +1,38 @@
+package frc.robot.subsystems.io;
+
+import frc.robot.utilities.InputsTable;
+import frc.robot.utilities.LoggableInputs;
+
+public class IntakeRollersInputs implements LoggableInputs {
+  public boolean pieceSensor = false; // true when a note is seen
+  public double position = 0; // rotations
+  public double appliedVolts = 0;
+  public double current = 0; // amps
+
+  // Sensor interrupt
+  public long pieceEdges = 0; // notes seen since boot
+  public double pieceEdgeTimestamp = 0; // FPGA s
+  public double pieceEdgeLatency = 0; // s from the edge to the handler running
+
+  @Override
+  public void toLog(InputsTable table) {
+    table.put("PieceSensor", pieceSensor);
+    table.put("Position", position);
+    table.put("AppliedVolts", appliedVolts);
+    table.put("Current", current);
+    table.put("PieceEdges", pieceEdges);
+    table.put("PieceEdgeTimestamp", pieceEdgeTimestamp);
+    table.put("PieceEdgeLatency", pieceEdgeLatency);
+  }
+
+  @Override
+  public void fromLog(InputsTable table) {
+    pieceSensor = table.get("PieceSensor", pieceSensor);
+    position = table.get("Position", position);
+    appliedVolts = table.get("AppliedVolts", appliedVolts);
+    current = table.get("Current", current);
+    pieceEdges = table.get("PieceEdges", pieceEdges);
+    pieceEdgeTimestamp = table.get("PieceEdgeTimestamp", pieceEdgeTimestamp);
+    pieceEdgeLatency = table.get("PieceEdgeLatency", pieceEdgeLatency);
+  }
+}
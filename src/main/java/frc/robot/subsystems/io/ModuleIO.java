@@ -0,0 +1,21 @@
+package frc.robot.subsystems.io;
+
+// Swerve module hardware layer, the default methods are the replay implementation
+public interface ModuleIO {
+  default void updateInputs(ModuleInputs inputs) {}
+
+  // Closed loop drive velocity in m/s with a feedforward voltage
+  default void setDriveVelocity(double velocity, double ffVolts) {}
+
+  default void setDriveVoltage(double volts) {}
+
+  // Steer to an angle in rad, corrected for the chassis offset
+  default void setSteerAngle(double angle) {}
+
+  default void resetDriveEncoder() {}
+
+  default void setDriveBrakeMode(boolean brake) {}
+
+  // Fast drive status frames for a SysId capture while it runs, or back to normal
+  default void setCaptureFrames(boolean capture) {}
+}
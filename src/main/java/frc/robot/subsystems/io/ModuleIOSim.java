@@ -0,0 +1,47 @@
+package frc.robot.subsystems.io;
+
+import frc.robot.Constants.kSwerve.kModule;
+
+// Ideal module, the wheel instantly reaches the commanded speed and angle
+public class ModuleIOSim implements ModuleIO {
+  private double drivePosition = 0;
+  private double driveVelocity = 0;
+  private double driveAppliedVolts = 0;
+  private double steerAngle = 0;
+
+  @Override
+  public void updateInputs(ModuleInputs inputs) {
+    // Forward euler on the position
+    drivePosition += driveVelocity * 0.02;
+
+    inputs.drivePosition = drivePosition;
+    inputs.driveVelocity = driveVelocity;
+    inputs.steerAngle = steerAngle;
+    inputs.driveAppliedVolts = driveAppliedVolts;
+    inputs.steerAppliedVolts = 0;
+  }
+
+  @Override
+  public void setDriveVelocity(double velocity, double ffVolts) {
+    driveVelocity = velocity;
+    driveAppliedVolts = ffVolts;
+  }
+
+  @Override
+  public void setDriveVoltage(double volts) {
+    driveAppliedVolts = volts;
+    // Steady state speed from the drive feedforward
+    double effectiveVolts = Math.max(Math.abs(volts) - kModule.kDrive.kS, 0);
+    driveVelocity = Math.copySign(effectiveVolts / kModule.kDrive.kV, volts);
+  }
+
+  @Override
+  public void setSteerAngle(double angle) {
+    steerAngle = angle;
+  }
+
+  @Override
+  public void resetDriveEncoder() {
+    drivePosition = 0;
+  }
+}
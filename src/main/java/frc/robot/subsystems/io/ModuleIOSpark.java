@@ -0,0 +1,138 @@
+package frc.robot.subsystems.io;
+
+import static frc.robot.utilities.SparkConfigurator.*;
+
+import com.revrobotics.AbsoluteEncoder;
+import com.revrobotics.CANSparkBase.ControlType;
+import com.revrobotics.CANSparkBase.IdleMode;
+import com.revrobotics.CANSparkLowLevel.MotorType;
+import com.revrobotics.CANSparkMax;
+import com.revrobotics.RelativeEncoder;
+import com.revrobotics.SparkAbsoluteEncoder;
+import com.revrobotics.SparkPIDController;
+import edu.wpi.first.math.MathUtil;
+import frc.robot.Constants.kSwerve.kModule;
+import frc.robot.Constants.kSysIdCapture;
+import java.util.Set;
+
+// MAXSwerve module driven by two NEOs on Spark Maxes
+public class ModuleIOSpark implements ModuleIO {
+  private final double chassisOffset;
+
+  // Hardware
+  private final CANSparkMax driveNEO;
+  private final CANSparkMax steerNEO;
+
+  private final RelativeEncoder driveEncoder;
+  private final AbsoluteEncoder steerEncoder;
+
+  // Controls
+  private final SparkPIDController drivePID;
+  private final SparkPIDController steerPID;
+
+  public ModuleIOSpark(int driveCANId, int steerCANId, double offset) {
+    chassisOffset = offset;
+
+    // Initialize hardware
+    driveNEO =
+        getSparkMax(
+            driveCANId,
+            MotorType.kBrushless,
+            false,
+            Set.of(Sensors.INTEGRATED),
+            Set.of(LogData.VOLTAGE, LogData.POSITION, LogData.VELOCITY));
+    steerNEO =
+        getSparkMax(
+            steerCANId,
+            MotorType.kBrushless,
+            false,
+            Set.of(Sensors.ABSOLUTE),
+            Set.of(LogData.VOLTAGE, LogData.POSITION, LogData.VELOCITY));
+
+    driveEncoder = driveNEO.getEncoder();
+    steerEncoder = steerNEO.getAbsoluteEncoder(SparkAbsoluteEncoder.Type.kDutyCycle);
+
+    driveEncoder.setPositionConversionFactor(kModule.drivingEncoderPositionFactor);
+    steerEncoder.setPositionConversionFactor(kModule.steeringEncoderPositionFactor);
+
+    driveEncoder.setVelocityConversionFactor(kModule.drivingEncoderVelocityFactor);
+    steerEncoder.setVelocityConversionFactor(kModule.steeringEncoderVelocityFactor);
+
+    steerEncoder.setInverted(kModule.invertSteerEncoder);
+
+    // Initialize controls objects
+    drivePID = driveNEO.getPIDController();
+    drivePID.setFeedbackDevice(driveEncoder);
+    steerPID = steerNEO.getPIDController();
+    steerPID.setFeedbackDevice(steerEncoder);
+
+    drivePID.setOutputRange(kModule.kDrive.minOutput, kModule.kDrive.maxOutput);
+    steerPID.setOutputRange(kModule.kSteer.minOutput, kModule.kSteer.maxOutput);
+
+    steerPID.setPositionPIDWrappingEnabled(true);
+    steerPID.setPositionPIDWrappingMaxInput(kModule.steeringEncoderPositionPIDMaxInput);
+    steerPID.setPositionPIDWrappingMinInput(kModule.steeringEncoderPositionPIDMinInput);
+
+    drivePID.setP(kModule.kDrive.kP);
+    drivePID.setD(kModule.kDrive.kD);
+
+    steerPID.setP(kModule.kSteer.kP);
+    steerPID.setD(kModule.kSteer.kD);
+
+    // Configure motor controllers
+    driveNEO.setIdleMode(IdleMode.kBrake);
+    steerNEO.setIdleMode(IdleMode.kBrake);
+
+    driveNEO.setSmartCurrentLimit(kModule.driveSmartCurrentLimit);
+    driveNEO.setSecondaryCurrentLimit(kModule.driveMaxCurrent);
+    steerNEO.setSmartCurrentLimit(kModule.steerSmartCurrentLimit);
+    steerNEO.setSecondaryCurrentLimit(kModule.steerMaxCurrent);
+
+    driveNEO.burnFlash();
+    steerNEO.burnFlash();
+  }
+
+  @Override
+  public void updateInputs(ModuleInputs inputs) {
+    inputs.drivePosition = driveEncoder.getPosition();
+    inputs.driveVelocity = driveEncoder.getVelocity();
+    inputs.steerAngle = steerEncoder.getPosition() + chassisOffset;
+    inputs.driveAppliedVolts = driveNEO.getAppliedOutput() * driveNEO.getBusVoltage();
+    inputs.steerAppliedVolts = steerNEO.getAppliedOutput() * steerNEO.getBusVoltage();
+  }
+
+  @Override
+  public void setDriveVelocity(double velocity, double ffVolts) {
+    drivePID.setReference(velocity, ControlType.kVelocity, 0, ffVolts);
+  }
+
+  @Override
+  public void setDriveVoltage(double volts) {
+    driveNEO.setVoltage(volts);
+  }
+
+  @Override
+  public void setSteerAngle(double angle) {
+    steerPID.setReference(MathUtil.angleModulus(angle - chassisOffset), ControlType.kPosition);
+  }
+
+  @Override
+  public void resetDriveEncoder() {
+    driveEncoder.setPosition(0);
+  }
+
+  @Override
+  public void setDriveBrakeMode(boolean brake) {
+    if (brake) {
+      driveNEO.setIdleMode(IdleMode.kBrake);
+    } else {
+      driveNEO.setIdleMode(IdleMode.kCoast);
+    }
+  }
+
+  @Override
+  public void setCaptureFrames(boolean capture) {
+    if (capture) setFastStatus(driveNEO, kSysIdCapture.framePeriod);
+    else restoreStatus(driveNEO);
+  }
+}
@@ -0,0 +1,30 @@
+package frc.robot.subsystems.io;
+
+import frc.robot.utilities.InputsTable;
+import frc.robot.utilities.LoggableInputs;
+
+public class ModuleInputs implements LoggableInputs {
+  public double drivePosition = 0; // m
+  public double driveVelocity = 0; // m/s
+  public double steerAngle = 0; // rad, corrected for the chassis offset
+  public double driveAppliedVolts = 0;
+  public double steerAppliedVolts = 0;
+
+  @Override
+  public void toLog(InputsTable table) {
+    table.put("DrivePosition", drivePosition);
+    table.put("DriveVelocity", driveVelocity);
+    table.put("SteerAngle", steerAngle);
+    table.put("DriveAppliedVolts", driveAppliedVolts);
+    table.put("SteerAppliedVolts", steerAppliedVolts);
+  }
+
+  @Override
+  public void fromLog(InputsTable table) {
+    drivePosition = table.get("DrivePosition", drivePosition);
+    driveVelocity = table.get("DriveVelocity", driveVelocity);
+    steerAngle = table.get("SteerAngle", steerAngle);
+    driveAppliedVolts = table.get("DriveAppliedVolts", driveAppliedVolts);
+    steerAppliedVolts = table.get("SteerAppliedVolts", steerAppliedVolts);
+  }
+}
@@ -0,0 +1,57 @@
+package frc.robot.subsystems.io;
+
+import edu.wpi.first.wpilibj.AsynchronousInterrupt;
+import edu.wpi.first.wpilibj.DigitalInput;
+import edu.wpi.first.wpilibj.Timer;
+
+// Beam break that pulls low when a note is seen, handled on the interrupt thread so the rollers
+// stop and the edge is timestamped without waiting for the next loop to poll it
+public class NoteSensorInterrupt {
+  private final AsynchronousInterrupt interrupt;
+  private final Runnable stopRollers;
+  private volatile boolean stopOnPiece = false;
+
+  // Last edge, guarded by this
+  private long edges = 0;
+  private double edgeTimestamp = 0; // FPGA s
+  private double handlerLatency = 0; // s from the edge to the handler running
+
+  public NoteSensorInterrupt(DigitalInput sensor, Runnable stopRollers) {
+    this.stopRollers = stopRollers;
+    interrupt = new AsynchronousInterrupt(sensor, (rising, falling) -> onPiece());
+    interrupt.setInterruptEdges(false, true);
+    interrupt.enable();
+  }
+
+  // Arm or disarm stopping the rollers on the next edge
+  public void setStopOnPiece(boolean stop) {
+    stopOnPiece = stop;
+  }
+
+  private void onPiece() {
+    if (stopOnPiece) {
+      stopRollers.run();
+      stopOnPiece = false;
+    }
+
+    double timestamp = interrupt.getFallingTimestamp();
+    double latency = Timer.getFPGATimestamp() - timestamp;
+    synchronized (this) {
+      edges++;
+      edgeTimestamp = timestamp;
+      handlerLatency = latency;
+    }
+  }
+
+  public synchronized long getEdges() {
+    return edges;
+  }
+
+  public synchronized double getEdgeTimestamp() {
+    return edgeTimestamp;
+  }
+
+  public synchronized double getHandlerLatency() {
+    return handlerLatency;
+  }
+}
@@ -0,0 +1,13 @@
+package frc.robot.subsystems.io;
+
+// Pivot hardware layer, the default methods are the replay implementation
+public interface PivotIO {
+  default void updateInputs(PivotInputs inputs) {}
+
+  default void setVoltage(double volts) {}
+
+  default void setBrakeMode(boolean brake) {}
+
+  // Zero the incremental encoder at the current position
+  default void resetEncoder() {}
+}
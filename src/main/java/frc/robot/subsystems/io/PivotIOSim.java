@@ -0,0 +1,98 @@
+package frc.robot.subsystems.io;
+
+import edu.wpi.first.math.MathUtil;
+import edu.wpi.first.math.controller.ArmFeedforward;
+import edu.wpi.first.math.system.plant.DCMotor;
+import frc.robot.Constants.kIntake;
+import frc.robot.Constants.kRates;
+import frc.robot.Constants.kShooter;
+import frc.robot.Constants.kShooter.kPivot.ShooterPosition;
+
+// Pivot driven by its identified feedforward model, held between two hardstops
+public class PivotIOSim implements PivotIO {
+  private static final int substeps = 5;
+  private static final double dt = kRates.controlPeriod / substeps;
+  private static final double resistance = DCMotor.getNEO(1).rOhms;
+
+  private final ArmFeedforward model;
+  private final double cogOffset;
+  private final double minAngle;
+  private final double maxAngle;
+
+  private double angle;
+  private double velocity = 0;
+  private double appliedVolts = 0;
+  private double encoderZero;
+
+  // Angles are in the subsystem's frame, the arm starts at the encoder zero
+  public PivotIOSim(
+      ArmFeedforward model,
+      double cogOffset,
+      double minAngle,
+      double maxAngle,
+      double encoderZero) {
+    this.model = model;
+    this.cogOffset = cogOffset;
+    this.minAngle = minAngle;
+    this.maxAngle = maxAngle;
+    this.encoderZero = encoderZero;
+    angle = encoderZero;
+  }
+
+  // Shooter pivot, resting on the hardstops where its encoder is zeroed
+  public static PivotIOSim shooterPivot() {
+    return new PivotIOSim(
+        new ArmFeedforward(
+            kShooter.kPivot.kS, kShooter.kPivot.kG, kShooter.kPivot.kV, kShooter.kPivot.modelKA),
+        kShooter.kPivot.cogOffset.getRadians(),
+        ShooterPosition.HARDSTOPS.angle.getRadians(),
+        kShooter.kPivot.simMaxAngle.getRadians(),
+        ShooterPosition.HARDSTOPS.angle.getRadians());
+  }
+
+  // Intake pivot, starting at home where its encoder is zeroed
+  public static PivotIOSim intakePivot() {
+    return new PivotIOSim(
+        new ArmFeedforward(
+            kIntake.kPivot.kS, kIntake.kPivot.kG, kIntake.kPivot.kV, kIntake.kPivot.kA),
+        kIntake.kPivot.cogOffset,
+        kIntake.kPivot.intakeRadiansDown,
+        kIntake.kPivot.intakeRadiansHome,
+        kIntake.kPivot.encoderOffset);
+  }
+
+  @Override
+  public void updateInputs(PivotInputs inputs) {
+    for (int i = 0; i < substeps; i++) {
+      // Voltage left over for accelerating once gravity, friction and back emf are taken out
+      double accelVolts =
+          appliedVolts
+              - model.kg * Math.cos(angle + cogOffset)
+              - model.ks * Math.signum(velocity)
+              - model.kv * velocity;
+      velocity += accelVolts / model.ka * dt;
+      angle += velocity * dt;
+
+      if (angle < minAngle || angle > maxAngle) {
+        angle = MathUtil.clamp(angle, minAngle, maxAngle);
+        velocity = 0;
+      }
+    }
+
+    inputs.encoderPosition = angle - encoderZero;
+    inputs.encoderVelocity = velocity;
+    inputs.appliedVolts = appliedVolts;
+    // Current from the voltage not taken up by back emf, spikes when stalled on a hardstop
+    inputs.current = Math.abs(appliedVolts - model.kv * velocity) / resistance;
+  }
+
+  @Override
+  public void setVoltage(double volts) {
+    appliedVolts = MathUtil.clamp(volts, -12, 12);
+  }
+
+  @Override
+  public void resetEncoder() {
+    encoderZero = angle;
+  }
+}
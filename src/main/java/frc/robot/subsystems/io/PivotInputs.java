@@ -0,0 +1,27 @@
+package frc.robot.subsystems.io;
+
+import frc.robot.utilities.InputsTable;
+import frc.robot.utilities.LoggableInputs;
+
+public class PivotInputs implements LoggableInputs {
+  public double encoderPosition = 0; // rad, raw quadrature distance
+  public double encoderVelocity = 0; // rad/s
+  public double appliedVolts = 0;
+  public double current = 0; // amps
+
+  @Override
+  public void toLog(InputsTable table) {
+    table.put("EncoderPosition", encoderPosition);
+    table.put("EncoderVelocity", encoderVelocity);
+    table.put("AppliedVolts", appliedVolts);
+    table.put("Current", current);
+  }
+
+  @Override
+  public void fromLog(InputsTable table) {
+    encoderPosition = table.get("EncoderPosition", encoderPosition);
+    encoderVelocity = table.get("EncoderVelocity", encoderVelocity);
+    appliedVolts = table.get("AppliedVolts", appliedVolts);
+    current = table.get("Current", current);
+  }
+}
@@ -0,0 +1,71 @@
+package frc.robot.subsystems.io;
+
+import static frc.robot.utilities.SparkConfigurator.*;
+
+import com.revrobotics.CANSparkBase.IdleMode;
+import com.revrobotics.CANSparkLowLevel;
+import com.revrobotics.CANSparkMax;
+import edu.wpi.first.wpilibj.Encoder;
+import frc.robot.Constants.kShooter.kPivot;
+import java.util.Set;
+
+// Shooter pivot, two NEOs with an external quadrature encoder on the pivot
+public class ShooterPivotIOSpark implements PivotIO {
+  private final CANSparkMax pivotLeader;
+  private final CANSparkMax pivotFollower;
+  private final Encoder pivotEncoder;
+
+  public ShooterPivotIOSpark() {
+    // Motor Initializations
+    pivotLeader =
+        getSparkMax(
+            kPivot.pivotLeaderID,
+            CANSparkLowLevel.MotorType.kBrushless,
+            true,
+            Set.of(),
+            Set.of(LogData.POSITION, LogData.VELOCITY, LogData.VOLTAGE));
+    pivotFollower =
+        getFollower(
+            pivotLeader, kPivot.pivotFollowerID, CANSparkLowLevel.MotorType.kBrushless, true);
+    pivotLeader.setInverted(kPivot.invertMotors);
+    pivotFollower.setInverted(!kPivot.invertMotors);
+    setBrakeMode(true);
+
+    pivotLeader.burnFlash();
+    pivotFollower.burnFlash();
+
+    // Encoder Configs
+    pivotEncoder =
+        new Encoder(kPivot.encoderChannelA, kPivot.encoderChannelB, kPivot.invertEncoder);
+    pivotEncoder.setDistancePerPulse(kPivot.distancePerPulse);
+  }
+
+  @Override
+  public void updateInputs(PivotInputs inputs) {
+    inputs.encoderPosition = pivotEncoder.getDistance();
+    inputs.encoderVelocity = pivotEncoder.getRate();
+    inputs.appliedVolts = pivotLeader.getAppliedOutput() * pivotLeader.getBusVoltage();
+    inputs.current = pivotLeader.getOutputCurrent();
+  }
+
+  @Override
+  public void setVoltage(double volts) {
+    pivotLeader.setVoltage(volts);
+  }
+
+  @Override
+  public void setBrakeMode(boolean brake) {
+    if (brake) {
+      pivotLeader.setIdleMode(IdleMode.kBrake);
+      pivotFollower.setIdleMode(IdleMode.kBrake);
+    } else {
+      pivotLeader.setIdleMode(IdleMode.kCoast);
+      pivotFollower.setIdleMode(IdleMode.kCoast);
+    }
+  }
+
+  @Override
+  public void resetEncoder() {
+    pivotEncoder.reset();
+  }
+}
@@ -0,0 +1,6 @@
+package frc.robot.subsystems.io;
+
+// AprilTag camera layer, the default methods are the replay implementation
+public interface VisionIO {
+  default void updateInputs(VisionInputs inputs) {}
+}
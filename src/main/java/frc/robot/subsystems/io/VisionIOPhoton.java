@@ -0,0 +1,68 @@
+package frc.robot.subsystems.io;
+
+import edu.wpi.first.apriltag.AprilTagFieldLayout;
+import edu.wpi.first.apriltag.AprilTagFields;
+import edu.wpi.first.math.geometry.Transform3d;
+import java.util.Optional;
+import org.photonvision.EstimatedRobotPose;
+import org.photonvision.PhotonCamera;
+import org.photonvision.PhotonPoseEstimator;
+import org.photonvision.PhotonPoseEstimator.PoseStrategy;
+
+// PhotonVision camera, used on the robot and in sim (where it talks to a desktop photonvision)
+public class VisionIOPhoton implements VisionIO {
+  private static AprilTagFieldLayout fieldLayout;
+
+  private final PhotonCamera camera;
+  private final PhotonPoseEstimator estimator;
+
+  public VisionIOPhoton(String name, Transform3d robotToCamera) {
+    camera = new PhotonCamera(name);
+    estimator =
+        new PhotonPoseEstimator(
+            getFieldLayout(), PoseStrategy.MULTI_TAG_PNP_ON_COPROCESSOR, camera, robotToCamera);
+    estimator.setMultiTagFallbackStrategy(PoseStrategy.LOWEST_AMBIGUITY);
+  }
+
+  // Load the field layout once for all cameras
+  private static AprilTagFieldLayout getFieldLayout() {
+    if (fieldLayout == null) {
+      try {
+        fieldLayout =
+            AprilTagFieldLayout.loadFromResource(AprilTagFields.k2024Crescendo.m_resourceFile);
+      } catch (Exception e) {
+        System.out.println("Failed to load field layout");
+      }
+    }
+    return fieldLayout;
+  }
+
+  // Read the camera's latest result and run it through the pose estimator
+  @Override
+  public void updateInputs(VisionInputs inputs) {
+    inputs.connected = camera.isConnected();
+    inputs.hasEstimate = false;
+    if (!inputs.connected) return;
+
+    var result = camera.getLatestResult();
+    inputs.hasMultiTag = result.getMultiTagResult().estimatedPose.isPresent;
+    if (result.hasTargets()) {
+      var bestTarget = result.getBestTarget();
+      inputs.bestTargetDistance = bestTarget.getBestCameraToTarget().getTranslation().getNorm();
+      inputs.bestTargetAmbiguity = bestTarget.getPoseAmbiguity();
+    }
+
+    Optional<EstimatedRobotPose> estimate = estimator.update(result);
+    if (estimate.isPresent()) {
+      inputs.hasEstimate = true;
+      inputs.setEstimatedPose(estimate.get().estimatedPose);
+      inputs.timestamp = estimate.get().timestampSeconds;
+
+      var targets = estimate.get().targetsUsed;
+      if (inputs.tagDistances.length != targets.size())
+        inputs.tagDistances = new double[targets.size()];
+      for (int i = 0; i < targets.size(); i++)
+        inputs.tagDistances[i] = targets.get(i).getBestCameraToTarget().getTranslation().getNorm();
+    }
+  }
+}
@@ -0,0 +1,62 @@
+package frc.robot.subsystems.io;
+
+import edu.wpi.first.math.geometry.Pose3d;
+import edu.wpi.first.math.geometry.Quaternion;
+import edu.wpi.first.math.geometry.Rotation3d;
+import edu.wpi.first.math.geometry.Translation3d;
+import frc.robot.utilities.InputsTable;
+import frc.robot.utilities.LoggableInputs;
+
+public class VisionInputs implements LoggableInputs {
+  public boolean connected = false;
+  public boolean hasEstimate = false;
+  public double[] estimatedPose = new double[7]; // x, y, z, qw, qx, qy, qz
+  public double timestamp = 0; // s
+  public boolean hasMultiTag = false;
+  public double bestTargetDistance = 0; // m
+  public double bestTargetAmbiguity = -1;
+  public double[] tagDistances = new double[0]; // m, for each tag used in the estimate
+
+  public Pose3d getEstimatedPose() {
+    return new Pose3d(
+        new Translation3d(estimatedPose[0], estimatedPose[1], estimatedPose[2]),
+        new Rotation3d(
+            new Quaternion(
+                estimatedPose[3], estimatedPose[4], estimatedPose[5], estimatedPose[6])));
+  }
+
+  public void setEstimatedPose(Pose3d pose) {
+    var quaternion = pose.getRotation().getQuaternion();
+    estimatedPose[0] = pose.getX();
+    estimatedPose[1] = pose.getY();
+    estimatedPose[2] = pose.getZ();
+    estimatedPose[3] = quaternion.getW();
+    estimatedPose[4] = quaternion.getX();
+    estimatedPose[5] = quaternion.getY();
+    estimatedPose[6] = quaternion.getZ();
+  }
+
+  @Override
+  public void toLog(InputsTable table) {
+    table.put("Connected", connected);
+    table.put("HasEstimate", hasEstimate);
+    table.put("EstimatedPose", estimatedPose);
+    table.put("Timestamp", timestamp);
+    table.put("HasMultiTag", hasMultiTag);
+    table.put("BestTargetDistance", bestTargetDistance);
+    table.put("BestTargetAmbiguity", bestTargetAmbiguity);
+    table.put("TagDistances", tagDistances);
+  }
+
+  @Override
+  public void fromLog(InputsTable table) {
+    connected = table.get("Connected", connected);
+    hasEstimate = table.get("HasEstimate", hasEstimate);
+    estimatedPose = table.get("EstimatedPose", estimatedPose);
+    timestamp = table.get("Timestamp", timestamp);
+    hasMultiTag = table.get("HasMultiTag", hasMultiTag);
+    bestTargetDistance = table.get("BestTargetDistance", bestTargetDistance);
+    bestTargetAmbiguity = table.get("BestTargetAmbiguity", bestTargetAmbiguity);
+    tagDistances = table.get("TagDistances", tagDistances);
+  }
+}
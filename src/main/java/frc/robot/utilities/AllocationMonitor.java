@@ -0,0 +1,110 @@
+package frc.robot.utilities;
+
+import com.sun.management.GarbageCollectionNotificationInfo;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.management.NotificationEmitter;
+import javax.management.openmbean.CompositeData;
+import monologue.Annotations.Log;
+import monologue.Logged;
+
+// Bytes allocated by the robot thread each loop and in each measured phase, with the garbage
+// collections since the last loop, to see whether GC lines up with overruns and what allocates
+public class AllocationMonitor implements Logged {
+  private final com.sun.management.ThreadMXBean threads;
+
+  // Accounting
+  private long lastAllocated = 0;
+  private long loopAllocated = 0;
+  private long lastGcCount = 0;
+  private long loopGcCount = 0;
+  private long lastGcTime = 0;
+  private long loopGcTime = 0;
+
+  // Written from the JVM's notification thread
+  private final AtomicLong gcCount = new AtomicLong();
+  private final AtomicLong gcTime = new AtomicLong(); // ms
+
+  public AllocationMonitor() {
+    // Only HotSpot can count allocation per thread
+    var threadBean = ManagementFactory.getThreadMXBean();
+    if (threadBean instanceof com.sun.management.ThreadMXBean) {
+      threads = (com.sun.management.ThreadMXBean) threadBean;
+      threads.setThreadAllocatedMemoryEnabled(true);
+    } else threads = null;
+
+    for (var collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+      if (!(collector instanceof NotificationEmitter)) continue;
+      ((NotificationEmitter) collector)
+          .addNotificationListener(
+              (notification, handback) -> {
+                if (!notification
+                    .getType()
+                    .equals(GarbageCollectionNotificationInfo.GARBAGE_COLLECTION_NOTIFICATION))
+                  return;
+                var info =
+                    GarbageCollectionNotificationInfo.from(
+                        (CompositeData) notification.getUserData());
+                gcCount.incrementAndGet();
+                gcTime.addAndGet(info.getGcInfo().getDuration());
+              },
+              null,
+              null);
+    }
+  }
+
+  // Bytes the calling thread has allocated since it started
+  private long allocated() {
+    return threads == null ? 0 : threads.getCurrentThreadAllocatedBytes();
+  }
+
+  // Roll the loop totals over, call once at the start of each main loop
+  public void update() {
+    long allocated = allocated();
+    loopAllocated = allocated - lastAllocated;
+    lastAllocated = allocated;
+
+    long count = gcCount.get();
+    loopGcCount = count - lastGcCount;
+    lastGcCount = count;
+
+    long time = gcTime.get();
+    loopGcTime = time - lastGcTime;
+    lastGcTime = time;
+  }
+
+  // Wrap a task to log the bytes it allocates each run under Allocated/<name>
+  public Runnable measure(String name, Runnable task) {
+    String key = "Allocated/" + name;
+    return () -> {
+      long start = allocated();
+      task.run();
+      log(key, allocated() - start);
+    };
+  }
+
+  @Log.File
+  public long getLoopAllocated() {
+    return loopAllocated;
+  }
+
+  @Log.File
+  public long getLoopGcCount() {
+    return loopGcCount;
+  }
+
+  @Log.File
+  public long getLoopGcTime() {
+    return loopGcTime;
+  }
+
+  @Log.NT
+  public long getGcCount() {
+    return lastGcCount;
+  }
+
+  @Log.NT
+  public long getGcTime() {
+    return lastGcTime;
+  }
+}
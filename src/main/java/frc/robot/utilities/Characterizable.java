@@ -7,4 +7,9 @@ public interface Characterizable {
   public String getName();
 
   public SysIdRoutine getRoutine(SysIdType routineType);
+
+  // High rate capture of the routine's motors, none if the mechanism is slow enough for the loop
+  public default SysIdCapture getCapture(SysIdType routineType) {
+    return null;
+  }
 }
@@ -0,0 +1,202 @@
+package frc.robot.utilities;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import edu.wpi.first.math.MathUtil;
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj.Filesystem;
+import frc.robot.Constants.kAutos;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+
+// The states of a Choreo trajectory in primitive arrays, already time parameterized so following
+// it is sampling by time. Also used to time actions by distance along the path.
+public class ChoreoTrajectory {
+  private final double[] timestamps;
+  private final double[] xs;
+  private final double[] ys;
+  private final double[] headings;
+  private final double[] velocityXs;
+  private final double[] velocityYs;
+  private final double[] angularVelocities;
+  private final double[] distances; // m travelled at each sample
+
+  // Named command markers
+  private final double[] eventTimes;
+  private final String[] eventNames;
+
+  private Pose2d initialPose = new Pose2d();
+
+  // A sampled state, field relative, filled in place to follow without allocating
+  public static class State {
+    public double x;
+    public double y;
+    public double heading;
+    public double velocityX;
+    public double velocityY;
+    public double angularVelocity;
+  }
+
+  private ChoreoTrajectory(int size, int events) {
+    timestamps = new double[size];
+    xs = new double[size];
+    ys = new double[size];
+    headings = new double[size];
+    velocityXs = new double[size];
+    velocityYs = new double[size];
+    angularVelocities = new double[size];
+    distances = new double[size];
+    eventTimes = new double[events];
+    eventNames = new String[events];
+  }
+
+  // Load deploy/choreo/<name>.traj, an empty trajectory if it can't be read
+  public static ChoreoTrajectory load(String name) {
+    var file = new File(Filesystem.getDeployDirectory(), "choreo/" + name + ".traj");
+    try {
+      JsonNode json = new ObjectMapper().readTree(file);
+      JsonNode samples = json.path("samples");
+      if (!samples.isArray() || samples.isEmpty()) throw new IOException("no samples");
+
+      // Only markers that run a named command do anything
+      var markers = new ArrayList<JsonNode>();
+      for (var marker : json.path("eventMarkers")) {
+        if (marker.path("command").path("type").asText().equals("named")) markers.add(marker);
+      }
+
+      var trajectory = new ChoreoTrajectory(samples.size(), markers.size());
+      for (int i = 0; i < samples.size(); i++) {
+        var sample = samples.get(i);
+        trajectory.timestamps[i] = number(sample, "timestamp");
+        trajectory.xs[i] = number(sample, "x");
+        trajectory.ys[i] = number(sample, "y");
+        trajectory.headings[i] = number(sample, "heading");
+        trajectory.velocityXs[i] = number(sample, "velocityX");
+        trajectory.velocityYs[i] = number(sample, "velocityY");
+        trajectory.angularVelocities[i] = number(sample, "angularVelocity");
+        if (i > 0) {
+          trajectory.distances[i] =
+              trajectory.distances[i - 1]
+                  + Math.hypot(
+                      trajectory.xs[i] - trajectory.xs[i - 1],
+                      trajectory.ys[i] - trajectory.ys[i - 1]);
+        }
+      }
+      for (int i = 0; i < markers.size(); i++) {
+        var eventName = markers.get(i).path("command").path("data").path("name");
+        if (!eventName.isTextual()) throw new IOException("event marker " + i + " has no name");
+        trajectory.eventTimes[i] = number(markers.get(i), "timestamp");
+        trajectory.eventNames[i] = eventName.asText();
+      }
+      trajectory.initialPose =
+          new Pose2d(trajectory.xs[0], trajectory.ys[0], new Rotation2d(trajectory.headings[0]));
+      return trajectory;
+    } catch (IOException e) {
+      DriverStation.reportError(
+          "Can't read Choreo trajectory " + name + ": " + e.getMessage(), e.getStackTrace());
+      return new ChoreoTrajectory(1, 0);
+    }
+  }
+
+  // A numeric field of a sample or marker, failing the load if it's missing
+  private static double number(JsonNode node, String field) throws IOException {
+    var value = node.path(field);
+    if (!value.isNumber()) throw new IOException("missing " + field);
+    return value.asDouble();
+  }
+
+  // A copy mirrored across the field for the red alliance, Choreo paths are drawn for blue. Made
+  // ahead of time so following it does no flipping.
+  public ChoreoTrajectory mirrored() {
+    var mirrored = new ChoreoTrajectory(timestamps.length, eventTimes.length);
+    for (int i = 0; i < timestamps.length; i++) {
+      mirrored.timestamps[i] = timestamps[i];
+      mirrored.xs[i] = kAutos.fieldLength - xs[i];
+      mirrored.ys[i] = ys[i];
+      mirrored.headings[i] = MathUtil.angleModulus(Math.PI - headings[i]);
+      mirrored.velocityXs[i] = -velocityXs[i];
+      mirrored.velocityYs[i] = velocityYs[i];
+      mirrored.angularVelocities[i] = -angularVelocities[i];
+      mirrored.distances[i] = distances[i];
+    }
+    System.arraycopy(eventTimes, 0, mirrored.eventTimes, 0, eventTimes.length);
+    System.arraycopy(eventNames, 0, mirrored.eventNames, 0, eventNames.length);
+    mirrored.initialPose =
+        new Pose2d(mirrored.xs[0], mirrored.ys[0], new Rotation2d(mirrored.headings[0]));
+    return mirrored;
+  }
+
+  public Pose2d getInitialPose() {
+    return initialPose;
+  }
+
+  public double getTotalTime() {
+    return timestamps[timestamps.length - 1];
+  }
+
+  public double getTotalDistance() {
+    return distances[distances.length - 1];
+  }
+
+  public int getEventCount() {
+    return eventTimes.length;
+  }
+
+  public double getEventTime(int event) {
+    return eventTimes[event];
+  }
+
+  public String getEventName(int event) {
+    return eventNames[event];
+  }
+
+  // State at a time, interpolated between the samples either side of it
+  public void sample(double time, State state) {
+    int after = search(timestamps, time);
+    int before = Math.max(after - 1, 0);
+    double t =
+        timestamps[after] > timestamps[before]
+            ? MathUtil.clamp(
+                (time - timestamps[before]) / (timestamps[after] - timestamps[before]), 0, 1)
+            : 0;
+
+    state.x = MathUtil.interpolate(xs[before], xs[after], t);
+    state.y = MathUtil.interpolate(ys[before], ys[after], t);
+    state.heading =
+        headings[before] + MathUtil.angleModulus(headings[after] - headings[before]) * t;
+    state.velocityX = MathUtil.interpolate(velocityXs[before], velocityXs[after], t);
+    state.velocityY = MathUtil.interpolate(velocityYs[before], velocityYs[after], t);
+    state.angularVelocity =
+        MathUtil.interpolate(angularVelocities[before], angularVelocities[after], t);
+  }
+
+  // Time the robot has travelled a distance along the path, interpolated between samples
+  public double timeAtDistance(double distance) {
+    if (distance <= 0) return 0;
+    int after = search(distances, distance);
+    int before = Math.max(after - 1, 0);
+    if (distances[after] <= distances[before]) return timestamps[after];
+    double t = (distance - distances[before]) / (distances[after] - distances[before]);
+    return timestamps[before] + MathUtil.clamp(t, 0, 1) * (timestamps[after] - timestamps[before]);
+  }
+
+  // Time the robot has a distance left to go along the path
+  public double timeAtDistanceToGo(double distanceToGo) {
+    return timeAtDistance(getTotalDistance() - distanceToGo);
+  }
+
+  // First index with a value at or past the key in an ascending array, the last one if none are
+  private static int search(double[] values, double key) {
+    int low = 0;
+    int high = values.length - 1;
+    while (low < high) {
+      int mid = (low + high) / 2;
+      if (values[mid] < key) low = mid + 1;
+      else high = mid;
+    }
+    return low;
+  }
+}
@@ -0,0 +1,145 @@
+package frc.robot.utilities;
+
+import com.revrobotics.CANSparkMax;
+import com.revrobotics.REVLibError;
+import edu.wpi.first.wpilibj.CANStatus;
+import edu.wpi.first.wpilibj.Notifier;
+import edu.wpi.first.wpilibj.RobotController;
+import frc.robot.Constants.kDeviceHealth;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+import monologue.Annotations.Log;
+import monologue.Logged;
+
+public class DeviceHealth implements Logged {
+  private final List<CANSparkMax> sparks;
+  private final BooleanSupplier navXConnected;
+  private final Notifier sampler;
+
+  // Latest sample, written by the sampler thread and read by the logger
+  private final double[] sparkIds;
+  private final double[] sparkFaults;
+  private final double[] sparkStickyFaults;
+  private final double[] sparkErrorRates;
+  private final int[] sparkErrorCounts;
+  private int samples = 0;
+
+  private double busUtilization = 0;
+  private int busOffCount = 0;
+  private int txFullCount = 0;
+  private int receiveErrorCount = 0;
+  private int transmitErrorCount = 0;
+
+  private boolean gyroConnected = true;
+  private int gyroDisconnects = 0;
+
+  public DeviceHealth(BooleanSupplier navXConnected) {
+    this.navXConnected = navXConnected;
+
+    sparks = SparkConfigurator.getSparks();
+    sparkIds = new double[sparks.size()];
+    sparkFaults = new double[sparks.size()];
+    sparkStickyFaults = new double[sparks.size()];
+    sparkErrorRates = new double[sparks.size()];
+    sparkErrorCounts = new int[sparks.size()];
+    for (int i = 0; i < sparks.size(); i++) sparkIds[i] = sparks.get(i).getDeviceId();
+
+    // Sample off the main loop so slow CAN reads don't eat into the robot period
+    sampler = new Notifier(this::sample);
+    sampler.setName("DeviceHealth");
+    sampler.startPeriodic(kDeviceHealth.period);
+  }
+
+  // Read the bus, every spark and the gyro
+  private void sample() {
+    CANStatus status = RobotController.getCANStatus();
+
+    synchronized (this) {
+      busUtilization = status.percentBusUtilization;
+      busOffCount = status.busOffCount;
+      txFullCount = status.txFullCount;
+      receiveErrorCount = status.receiveErrorCount;
+      transmitErrorCount = status.transmitErrorCount;
+
+      samples++;
+      for (int i = 0; i < sparks.size(); i++) {
+        var spark = sparks.get(i);
+        sparkFaults[i] = spark.getFaults();
+        sparkStickyFaults[i] = spark.getStickyFaults();
+        if (spark.getLastError() != REVLibError.kOk) sparkErrorCounts[i]++;
+        sparkErrorRates[i] = (double) sparkErrorCounts[i] / samples;
+      }
+
+      boolean connected = navXConnected.getAsBoolean();
+      if (gyroConnected && !connected) gyroDisconnects++;
+      gyroConnected = connected;
+    }
+  }
+
+  // ---------- CAN bus ----------
+
+  @Log.NT
+  public synchronized double getBusUtilization() {
+    return busUtilization;
+  }
+
+  @Log.NT
+  public synchronized int getBusOffCount() {
+    return busOffCount;
+  }
+
+  @Log.NT
+  public synchronized int getTxFullCount() {
+    return txFullCount;
+  }
+
+  @Log.NT
+  public synchronized int getReceiveErrorCount() {
+    return receiveErrorCount;
+  }
+
+  @Log.NT
+  public synchronized int getTransmitErrorCount() {
+    return transmitErrorCount;
+  }
+
+  // ---------- Sparks ----------
+
+  @Log.NT
+  public double[] getSparkIds() {
+    return sparkIds;
+  }
+
+  @Log.NT
+  public synchronized double[] getSparkFaults() {
+    return sparkFaults.clone();
+  }
+
+  @Log.NT
+  public synchronized double[] getSparkStickyFaults() {
+    return sparkStickyFaults.clone();
+  }
+
+  // Fraction of samples where the spark's last call returned an error
+  @Log.NT
+  public synchronized double[] getSparkErrorRates() {
+    return sparkErrorRates.clone();
+  }
+
+  @Log.NT
+  public int getFailedConfigCalls() {
+    return SparkConfigurator.getFailedConfigCalls();
+  }
+
+  // ---------- Gyro ----------
+
+  @Log.NT
+  public synchronized boolean isGyroConnected() {
+    return gyroConnected;
+  }
+
+  @Log.NT
+  public synchronized int getGyroDisconnects() {
+    return gyroDisconnects;
+  }
+}
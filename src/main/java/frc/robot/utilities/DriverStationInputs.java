@@ -0,0 +1,140 @@
+package frc.robot.utilities;
+
+import edu.wpi.first.hal.AllianceStationID;
+import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj.DriverStation.Alliance;
+import edu.wpi.first.wpilibj.simulation.DriverStationSim;
+
+// Driver station state and joysticks as seen by the robot in one cycle
+public class DriverStationInputs implements LoggableInputs {
+  private static final int joystickPorts = 2;
+  private static final String[] axesKeys = {"Joystick0/Axes", "Joystick1/Axes"};
+  private static final String[] buttonsKeys = {"Joystick0/Buttons", "Joystick1/Buttons"};
+  private static final String[] buttonCountKeys = {
+    "Joystick0/ButtonCount", "Joystick1/ButtonCount"
+  };
+  private static final String[] povsKeys = {"Joystick0/POVs", "Joystick1/POVs"};
+
+  public boolean enabled;
+  public boolean autonomous;
+  public boolean test;
+  public boolean eStop;
+  public boolean fmsAttached;
+  public boolean dsAttached;
+  public long allianceStation; // 0 unknown, 1-3 red, 4-6 blue
+  public double matchTime;
+
+  public final double[][] axes = new double[joystickPorts][];
+  public final long[] buttons = new long[joystickPorts];
+  public final long[] buttonCounts = new long[joystickPorts];
+  public final double[][] povs = new double[joystickPorts][];
+
+  public DriverStationInputs() {
+    for (int port = 0; port < joystickPorts; port++) {
+      axes[port] = new double[0];
+      povs[port] = new double[0];
+    }
+  }
+
+  // Read the current state from the driver station
+  public void update() {
+    enabled = DriverStation.isEnabled();
+    autonomous = DriverStation.isAutonomous();
+    test = DriverStation.isTest();
+    eStop = DriverStation.isEStopped();
+    fmsAttached = DriverStation.isFMSAttached();
+    dsAttached = DriverStation.isDSAttached();
+    matchTime = DriverStation.getMatchTime();
+
+    var alliance = DriverStation.getAlliance();
+    var location = DriverStation.getLocation();
+    if (alliance.isPresent() && location.isPresent())
+      allianceStation = location.getAsInt() + (alliance.get() == Alliance.Red ? 0 : 3);
+    else allianceStation = 0;
+
+    for (int port = 0; port < joystickPorts; port++) {
+      int axisCount = DriverStation.getStickAxisCount(port);
+      if (axes[port].length != axisCount) axes[port] = new double[axisCount];
+      for (int axis = 0; axis < axisCount; axis++)
+        axes[port][axis] = DriverStation.getStickAxis(port, axis);
+
+      buttons[port] = DriverStation.getStickButtons(port);
+      buttonCounts[port] = DriverStation.getStickButtonCount(port);
+
+      int povCount = DriverStation.getStickPOVCount(port);
+      if (povs[port].length != povCount) povs[port] = new double[povCount];
+      for (int pov = 0; pov < povCount; pov++)
+        povs[port][pov] = DriverStation.getStickPOV(port, pov);
+    }
+  }
+
+  // Push the replayed state into the simulated driver station
+  public void applyToSim() {
+    DriverStationSim.setEnabled(enabled);
+    DriverStationSim.setAutonomous(autonomous);
+    DriverStationSim.setTest(test);
+    DriverStationSim.setEStop(eStop);
+    DriverStationSim.setFmsAttached(fmsAttached);
+    DriverStationSim.setDsAttached(dsAttached);
+    DriverStationSim.setMatchTime(matchTime);
+    switch ((int) allianceStation) {
+      case 1 -> DriverStationSim.setAllianceStationId(AllianceStationID.Red1);
+      case 2 -> DriverStationSim.setAllianceStationId(AllianceStationID.Red2);
+      case 3 -> DriverStationSim.setAllianceStationId(AllianceStationID.Red3);
+      case 4 -> DriverStationSim.setAllianceStationId(AllianceStationID.Blue1);
+      case 5 -> DriverStationSim.setAllianceStationId(AllianceStationID.Blue2);
+      case 6 -> DriverStationSim.setAllianceStationId(AllianceStationID.Blue3);
+      default -> {}
+    }
+
+    for (int port = 0; port < joystickPorts; port++) {
+      DriverStationSim.setJoystickAxisCount(port, axes[port].length);
+      for (int axis = 0; axis < axes[port].length; axis++)
+        DriverStationSim.setJoystickAxis(port, axis, axes[port][axis]);
+
+      DriverStationSim.setJoystickButtonCount(port, (int) buttonCounts[port]);
+      DriverStationSim.setJoystickButtons(port, (int) buttons[port]);
+
+      DriverStationSim.setJoystickPOVCount(port, povs[port].length);
+      for (int pov = 0; pov < povs[port].length; pov++)
+        DriverStationSim.setJoystickPOV(port, pov, (int) povs[port][pov]);
+    }
+    DriverStationSim.notifyNewData();
+  }
+
+  @Override
+  public void toLog(InputsTable table) {
+    table.put("Enabled", enabled);
+    table.put("Autonomous", autonomous);
+    table.put("Test", test);
+    table.put("EStop", eStop);
+    table.put("FMSAttached", fmsAttached);
+    table.put("DSAttached", dsAttached);
+    table.put("AllianceStation", allianceStation);
+    table.put("MatchTime", matchTime);
+    for (int port = 0; port < joystickPorts; port++) {
+      table.put(axesKeys[port], axes[port]);
+      table.put(buttonsKeys[port], buttons[port]);
+      table.put(buttonCountKeys[port], buttonCounts[port]);
+      table.put(povsKeys[port], povs[port]);
+    }
+  }
+
+  @Override
+  public void fromLog(InputsTable table) {
+    enabled = table.get("Enabled", enabled);
+    autonomous = table.get("Autonomous", autonomous);
+    test = table.get("Test", test);
+    eStop = table.get("EStop", eStop);
+    fmsAttached = table.get("FMSAttached", fmsAttached);
+    dsAttached = table.get("DSAttached", dsAttached);
+    allianceStation = table.get("AllianceStation", allianceStation);
+    matchTime = table.get("MatchTime", matchTime);
+    for (int port = 0; port < joystickPorts; port++) {
+      axes[port] = table.get(axesKeys[port], axes[port]);
+      buttons[port] = table.get(buttonsKeys[port], buttons[port]);
+      buttonCounts[port] = table.get(buttonCountKeys[port], buttonCounts[port]);
+      povs[port] = table.get(povsKeys[port], povs[port]);
+    }
+  }
+}
@@ -0,0 +1,141 @@
+package frc.robot.utilities;
+
+import edu.wpi.first.util.datalog.BooleanLogEntry;
+import edu.wpi.first.util.datalog.DoubleArrayLogEntry;
+import edu.wpi.first.util.datalog.DoubleLogEntry;
+import edu.wpi.first.util.datalog.StructArrayLogEntry;
+import edu.wpi.first.util.datalog.StructLogEntry;
+import edu.wpi.first.util.struct.Struct;
+import edu.wpi.first.wpilibj.DataLogManager;
+import frc.robot.Constants;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.BooleanSupplier;
+import java.util.function.DoubleSupplier;
+import java.util.function.Supplier;
+import monologue.Logged;
+
+// File logged values registered with typed getters, written straight to their DataLog entries
+// each logging cycle instead of Monologue finding and invoking them reflectively. Getters are
+// registered through Telemetry so the file and NT entries come from the same declaration.
+public class FileLog {
+  private static final List<Entry> entries = new ArrayList<Entry>();
+
+  private FileLog() {}
+
+  // ---------- Registration ----------
+
+  static void addDouble(Logged owner, String key, DoubleSupplier supplier) {
+    entries.add(
+        new Entry(owner, key) {
+          private DoubleLogEntry entry;
+          private double last;
+
+          @Override
+          void append(String name) {
+            double value = supplier.getAsDouble();
+            if (entry == null) entry = new DoubleLogEntry(DataLogManager.getLog(), name);
+            else if (Constants.logLazy && value == last) return;
+            last = value;
+            entry.append(value);
+          }
+        });
+  }
+
+  static void addBoolean(Logged owner, String key, BooleanSupplier supplier) {
+    entries.add(
+        new Entry(owner, key) {
+          private BooleanLogEntry entry;
+          private boolean last;
+
+          @Override
+          void append(String name) {
+            boolean value = supplier.getAsBoolean();
+            if (entry == null) entry = new BooleanLogEntry(DataLogManager.getLog(), name);
+            else if (Constants.logLazy && value == last) return;
+            last = value;
+            entry.append(value);
+          }
+        });
+  }
+
+  static void addDoubleArray(Logged owner, String key, Supplier<double[]> supplier) {
+    entries.add(
+        new Entry(owner, key) {
+          private DoubleArrayLogEntry entry;
+          private double[] last = new double[0];
+
+          @Override
+          void append(String name) {
+            var value = supplier.get();
+            if (entry == null) entry = new DoubleArrayLogEntry(DataLogManager.getLog(), name);
+            else if (Constants.logLazy && Arrays.equals(value, last)) return;
+
+            // Getters may hand back the same array each time, keep a copy to compare against
+            if (last.length != value.length) last = new double[value.length];
+            System.arraycopy(value, 0, last, 0, value.length);
+            entry.append(value);
+          }
+        });
+  }
+
+  static <T> void addStruct(Logged owner, String key, Supplier<T> supplier, Struct<T> struct) {
+    entries.add(
+        new Entry(owner, key) {
+          private StructLogEntry<T> entry;
+          private T last;
+
+          @Override
+          void append(String name) {
+            var value = supplier.get();
+            if (entry == null) entry = StructLogEntry.create(DataLogManager.getLog(), name, struct);
+            else if (Constants.logLazy && Objects.equals(value, last)) return;
+            last = value;
+            entry.append(value);
+          }
+        });
+  }
+
+  static <T> void addStructArray(
+      Logged owner, String key, Supplier<T[]> supplier, Struct<T> struct) {
+    entries.add(
+        new Entry(owner, key) {
+          private StructArrayLogEntry<T> entry;
+
+          @Override
+          void append(String name) {
+            if (entry == null)
+              entry = StructArrayLogEntry.create(DataLogManager.getLog(), name, struct);
+            entry.append(supplier.get());
+          }
+        });
+  }
+
+  // ---------- Update ----------
+
+  // Append every entry, call from the logging rate group
+  public static void update() {
+    for (var entry : entries) entry.append();
+  }
+
+  private abstract static class Entry {
+    private final Logged owner;
+    private final String key;
+    private String name;
+
+    Entry(Logged owner, String key) {
+      this.owner = owner;
+      this.key = key;
+    }
+
+    // Resolve the name lazily, the owner only has a path once Monologue is set up
+    void append() {
+      if (name == null) name = owner.getFullPath() + "/" + key;
+      append(name);
+    }
+
+    abstract void append(String name);
+  }
+}
@@ -0,0 +1,271 @@
+package frc.robot.utilities;
+
+import edu.wpi.first.hal.can.CANJNI;
+import edu.wpi.first.hal.can.CANStatus;
+import edu.wpi.first.util.datalog.StringLogEntry;
+import edu.wpi.first.wpilibj.DataLogManager;
+import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj.RobotController;
+import edu.wpi.first.wpilibj2.command.Command;
+import edu.wpi.first.wpilibj2.command.CommandScheduler;
+import java.io.IOException;
+import java.lang.reflect.Array;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.DoubleSupplier;
+import monologue.Annotations.Log;
+import monologue.Logged;
+
+// Always on record of the last few seconds of loops, kept in ring buffers and written to the log
+// as a snapshot whenever a loop overruns so intermittent overruns can be read from match logs. The
+// robot thread only copies the buffers, formatting and writing them happens in the background.
+public class FlightRecorder implements Logged {
+  private static final int eventsSize = 64;
+
+  private final int frames;
+  private final double period;
+  private final double dumpCooldown;
+  private final AllocationMonitor allocations;
+
+  // Phases timed each loop, their times are stored a row per frame
+  private final List<String> phaseNames = new ArrayList<String>();
+  private final List<DoubleSupplier> phaseTimes = new ArrayList<DoubleSupplier>();
+  private double[][] phases;
+
+  // Loop frames
+  private final double[] timestamps;
+  private final double[] loopTimes;
+  private final long[] gcCounts;
+  private final long[] gcTimes;
+  private final double[] canUtilization;
+  private final int[] canErrors;
+  private int head = 0;
+  private int size = 0;
+
+  // Command starts and ends
+  private final double[] eventTimes = new double[eventsSize];
+  private final String[] eventNames = new String[eventsSize];
+  private final boolean[] eventStarts = new boolean[eventsSize];
+  private int eventHead = 0;
+  private int eventSize = 0;
+  private final LinkedHashSet<String> activeCommands = new LinkedHashSet<String>();
+
+  private final CANStatus canStatus = new CANStatus();
+  private double lastDump = Double.NEGATIVE_INFINITY;
+  private int dumps = 0;
+
+  // Copy of the buffers oldest first for the background thread, only touched by it while writing
+  private final double[] copyTimestamps;
+  private final double[] copyLoopTimes;
+  private final long[] copyGcCounts;
+  private final long[] copyGcTimes;
+  private final double[] copyCanUtilization;
+  private final int[] copyCanErrors;
+  private double[][] copyPhases;
+  private final double[] copyEventTimes = new double[eventsSize];
+  private final String[] copyEventNames = new String[eventsSize];
+  private final boolean[] copyEventStarts = new boolean[eventsSize];
+  private final List<String> copyActiveCommands = new ArrayList<String>();
+  private int copySize = 0;
+  private int copyEventSize = 0;
+  private double copyDumpTime = 0;
+  private int copyDumps = 0;
+  private volatile boolean writing = false;
+
+  private final ExecutorService writer =
+      Executors.newSingleThreadExecutor(ThreadPriorities.background("FlightRecorder"));
+  private final Runnable writeSnapshot = this::writeSnapshot;
+  private StringLogEntry snapshotEntry; // made on the first write, after the log has started
+
+  // Optional JFR recording, a segment is dumped alongside each snapshot
+  private Object jfr = null;
+
+  public FlightRecorder(
+      double duration,
+      double period,
+      double dumpCooldown,
+      boolean useJfr,
+      AllocationMonitor allocations) {
+    frames = (int) Math.ceil(duration / period);
+    this.period = period;
+    this.dumpCooldown = dumpCooldown;
+    this.allocations = allocations;
+
+    timestamps = new double[frames];
+    loopTimes = new double[frames];
+    gcCounts = new long[frames];
+    gcTimes = new long[frames];
+    canUtilization = new double[frames];
+    canErrors = new int[frames];
+    phases = new double[0][frames];
+    copyTimestamps = new double[frames];
+    copyLoopTimes = new double[frames];
+    copyGcCounts = new long[frames];
+    copyGcTimes = new long[frames];
+    copyCanUtilization = new double[frames];
+    copyCanErrors = new int[frames];
+    copyPhases = new double[0][frames];
+
+    var scheduler = CommandScheduler.getInstance();
+    scheduler.onCommandInitialize((command) -> recordCommand(command, true));
+    scheduler.onCommandFinish((command) -> recordCommand(command, false));
+    scheduler.onCommandInterrupt((command) -> recordCommand(command, false));
+
+    if (useJfr) jfr = Jfr.start(duration);
+  }
+
+  // Time a phase each loop, added before the first loop is recorded
+  public void addPhase(String name, DoubleSupplier time) {
+    phaseNames.add(name);
+    phaseTimes.add(time);
+    phases = new double[phaseNames.size()][frames];
+    copyPhases = new double[phaseNames.size()][frames];
+  }
+
+  // Record a loop, dumping a snapshot if it overran. Call at the end of every loop.
+  public void record(double loopTime) {
+    timestamps[head] = RobotController.getFPGATime() * 1e-6;
+    loopTimes[head] = loopTime;
+    for (int i = 0; i < phases.length; i++) phases[i][head] = phaseTimes.get(i).getAsDouble();
+    gcCounts[head] = allocations.getLoopGcCount();
+    gcTimes[head] = allocations.getLoopGcTime();
+    CANJNI.getCANStatus(canStatus);
+    canUtilization[head] = canStatus.percentBusUtilization;
+    canErrors[head] = canStatus.receiveErrorCount + canStatus.transmitErrorCount;
+
+    head = (head + 1) % frames;
+    size = Math.min(size + 1, frames);
+
+    if (loopTime > period && timestamps[(head + frames - 1) % frames] - lastDump > dumpCooldown)
+      dump();
+  }
+
+  private void recordCommand(Command command, boolean start) {
+    eventTimes[eventHead] = RobotController.getFPGATime() * 1e-6;
+    eventNames[eventHead] = command.getName();
+    eventStarts[eventHead] = start;
+    eventHead = (eventHead + 1) % eventsSize;
+    eventSize = Math.min(eventSize + 1, eventsSize);
+
+    if (start) activeCommands.add(command.getName());
+    else activeCommands.remove(command.getName());
+  }
+
+  // Copy the buffers out oldest first and hand them to the writer. Skipped if the last snapshot
+  // is still being written, the cooldown makes that rare.
+  private void dump() {
+    if (writing) return;
+    lastDump = timestamps[(head + frames - 1) % frames];
+    dumps++;
+
+    unroll(timestamps, head, size, copyTimestamps);
+    unroll(loopTimes, head, size, copyLoopTimes);
+    unroll(gcCounts, head, size, copyGcCounts);
+    unroll(gcTimes, head, size, copyGcTimes);
+    unroll(canUtilization, head, size, copyCanUtilization);
+    unroll(canErrors, head, size, copyCanErrors);
+    for (int i = 0; i < phases.length; i++) unroll(phases[i], head, size, copyPhases[i]);
+    unroll(eventTimes, eventHead, eventSize, copyEventTimes);
+    unroll(eventNames, eventHead, eventSize, copyEventNames);
+    unroll(eventStarts, eventHead, eventSize, copyEventStarts);
+    copyActiveCommands.clear();
+    copyActiveCommands.addAll(activeCommands);
+    copySize = size;
+    copyEventSize = eventSize;
+    copyDumpTime = lastDump;
+    copyDumps = dumps;
+
+    writing = true;
+    writer.execute(writeSnapshot);
+  }
+
+  // Copy the last count entries of a ring buffer, which ends before head, oldest first
+  private static void unroll(Object ring, int head, int count, Object copy) {
+    int length = Array.getLength(ring);
+    int start = (head + length - count) % length;
+    int first = Math.min(count, length - start);
+    System.arraycopy(ring, start, copy, 0, first);
+    System.arraycopy(ring, 0, copy, first, count - first);
+  }
+
+  // Runs on the writer thread
+  private void writeSnapshot() {
+    try {
+      writeSnapshotCopy();
+    } finally {
+      writing = false;
+    }
+  }
+
+  private void writeSnapshotCopy() {
+    var snapshot = new StringBuilder();
+    snapshot.append(String.format("Overrun at %.3f s%n", copyDumpTime));
+    snapshot.append("time, loop ms");
+    for (var name : phaseNames) snapshot.append(", ").append(name).append(" ms");
+    snapshot.append(", gc count, gc ms, can %, can errors\n");
+    for (int i = 0; i < copySize; i++) {
+      snapshot.append(String.format("%.3f, %.2f", copyTimestamps[i], copyLoopTimes[i] * 1e3));
+      for (var phase : copyPhases) snapshot.append(String.format(", %.2f", phase[i] * 1e3));
+      snapshot.append(
+          String.format(
+              ", %d, %d, %.1f, %d%n",
+              copyGcCounts[i], copyGcTimes[i], copyCanUtilization[i] * 100, copyCanErrors[i]));
+    }
+
+    snapshot.append("Active commands: ").append(String.join(", ", copyActiveCommands));
+    snapshot.append("\nCommand events:\n");
+    for (int i = 0; i < copyEventSize; i++) {
+      snapshot.append(
+          String.format(
+              "%.3f %s %s%n",
+              copyEventTimes[i], copyEventStarts[i] ? "start" : "end", copyEventNames[i]));
+    }
+    if (snapshotEntry == null)
+      snapshotEntry = new StringLogEntry(DataLogManager.getLog(), "FlightRecorder/Snapshot");
+    snapshotEntry.append(snapshot.toString(), (long) (copyDumpTime * 1e6));
+
+    if (jfr != null) {
+      var path = Path.of(DataLogManager.getLogDir(), "overrun-" + copyDumps + ".jfr");
+      Jfr.dump(jfr, path);
+    }
+  }
+
+  @Log.NT
+  public int getDumps() {
+    return dumps;
+  }
+
+  // Kept apart so the JFR classes only load when it's used, not every JRE has them
+  private static class Jfr {
+    static Object start(double duration) {
+      try {
+        var recording = new jdk.jfr.Recording(jdk.jfr.Configuration.getConfiguration("default"));
+        recording.setMaxAge(Duration.ofMillis((long) (duration * 1e3)));
+        recording.setToDisk(false);
+        recording.start();
+        return recording;
+      } catch (LinkageError | IllegalStateException e) {
+        DriverStation.reportWarning("JFR isn't available, recording without it", false);
+        return null;
+      } catch (IOException | ParseException e) {
+        DriverStation.reportWarning(
+            "Can't read the default JFR settings, recording without it", false);
+        return null;
+      }
+    }
+
+    static void dump(Object recording, Path path) {
+      try {
+        ((jdk.jfr.Recording) recording).dump(path);
+      } catch (Exception e) {
+        DriverStation.reportWarning("Can't dump JFR recording to " + path, false);
+      }
+    }
+  }
+}
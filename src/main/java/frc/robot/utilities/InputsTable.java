@@ -0,0 +1,82 @@
+package frc.robot.utilities;
+
+import edu.wpi.first.util.datalog.BooleanLogEntry;
+import edu.wpi.first.util.datalog.DataLog;
+import edu.wpi.first.util.datalog.DataLogEntry;
+import edu.wpi.first.util.datalog.DoubleArrayLogEntry;
+import edu.wpi.first.util.datalog.DoubleLogEntry;
+import edu.wpi.first.util.datalog.IntegerLogEntry;
+import edu.wpi.first.wpilibj.DataLogManager;
+import java.util.HashMap;
+
+// The log entries for one set of inputs, written while recording and read back during replay
+public class InputsTable {
+  private final String prefix;
+  private final HashMap<String, DataLogEntry> entries = new HashMap<String, DataLogEntry>();
+  private DataLog log;
+
+  public InputsTable(String prefix) {
+    this.prefix = prefix;
+  }
+
+  // ---------- Recording ----------
+
+  public void put(String key, double value) {
+    var entry = (DoubleLogEntry) entries.get(key);
+    if (entry == null) {
+      entry = new DoubleLogEntry(getLog(), prefix + key);
+      entries.put(key, entry);
+    }
+    entry.append(value);
+  }
+
+  public void put(String key, boolean value) {
+    var entry = (BooleanLogEntry) entries.get(key);
+    if (entry == null) {
+      entry = new BooleanLogEntry(getLog(), prefix + key);
+      entries.put(key, entry);
+    }
+    entry.append(value);
+  }
+
+  public void put(String key, long value) {
+    var entry = (IntegerLogEntry) entries.get(key);
+    if (entry == null) {
+      entry = new IntegerLogEntry(getLog(), prefix + key);
+      entries.put(key, entry);
+    }
+    entry.append(value);
+  }
+
+  public void put(String key, double[] value) {
+    var entry = (DoubleArrayLogEntry) entries.get(key);
+    if (entry == null) {
+      entry = new DoubleArrayLogEntry(getLog(), prefix + key);
+      entries.put(key, entry);
+    }
+    entry.append(value);
+  }
+
+  // ---------- Replay ----------
+
+  public double get(String key, double defaultValue) {
+    return Replay.getValue(prefix + key) instanceof Double value ? value : defaultValue;
+  }
+
+  public boolean get(String key, boolean defaultValue) {
+    return Replay.getValue(prefix + key) instanceof Boolean value ? value : defaultValue;
+  }
+
+  public long get(String key, long defaultValue) {
+    return Replay.getValue(prefix + key) instanceof Long value ? value : defaultValue;
+  }
+
+  public double[] get(String key, double[] defaultValue) {
+    return Replay.getValue(prefix + key) instanceof double[] value ? value : defaultValue;
+  }
+
+  private DataLog getLog() {
+    if (log == null) log = DataLogManager.getLog();
+    return log;
+  }
+}
@@ -0,0 +1,44 @@
+package frc.robot.utilities;
+
+import monologue.Annotations.Log;
+import monologue.Logged;
+
+// Counts of latencies in fixed buckets, the last bucket catches everything slower
+public class LatencyHistogram implements Logged {
+  // Upper bound of each bucket (s)
+  private static final double[] bucketLimits = {
+    50e-6, 100e-6, 250e-6, 500e-6, 1e-3, 2.5e-3, 5e-3, 10e-3, 20e-3, 50e-3, Double.MAX_VALUE
+  };
+
+  private final double[] counts = new double[bucketLimits.length];
+  private double last = 0;
+  private double max = 0;
+
+  public void record(double latency) {
+    int bucket = 0;
+    while (latency > bucketLimits[bucket]) bucket++;
+    counts[bucket]++;
+    last = latency;
+    max = Math.max(max, latency);
+  }
+
+  @Log.File
+  public double[] getBucketLimits() {
+    return bucketLimits;
+  }
+
+  @Log.File
+  public double[] getCounts() {
+    return counts;
+  }
+
+  @Log.File
+  public double getLast() {
+    return last;
+  }
+
+  @Log.File
+  public double getMax() {
+    return max;
+  }
+}
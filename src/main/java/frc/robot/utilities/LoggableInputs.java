@@ -0,0 +1,8 @@
+package frc.robot.utilities;
+
+// A set of hardware inputs that can be recorded to and replayed from a log
+public interface LoggableInputs {
+  public void toLog(InputsTable table);
+
+  public void fromLog(InputsTable table);
+}
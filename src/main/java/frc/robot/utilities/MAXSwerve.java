@@ -1,23 +1,14 @@
 package frc.robot.utilities;
 
-import static frc.robot.utilities.SparkConfigurator.*;
-
-import com.revrobotics.AbsoluteEncoder;
-import com.revrobotics.CANSparkBase.ControlType;
-import com.revrobotics.CANSparkBase.IdleMode;
-import com.revrobotics.CANSparkLowLevel.MotorType;
-import com.revrobotics.CANSparkMax;
-import com.revrobotics.RelativeEncoder;
-import com.revrobotics.SparkAbsoluteEncoder;
-import com.revrobotics.SparkPIDController;
 import edu.wpi.first.math.controller.SimpleMotorFeedforward;
 import edu.wpi.first.math.geometry.Rotation2d;
 import edu.wpi.first.math.kinematics.SwerveModulePosition;
 import edu.wpi.first.math.kinematics.SwerveModuleState;
 import edu.wpi.first.wpilibj.RobotBase;
 import frc.robot.Constants.kSwerve.kModule;
-import java.util.Set;
-import monologue.Annotations.Log;
+import frc.robot.subsystems.io.ModuleIO;
+import frc.robot.subsystems.io.ModuleInputs;
+import frc.robot.utilities.Telemetry.Tier;
 import monologue.Logged;
 
 public class MAXSwerve implements Logged {
@@ -25,115 +16,81 @@ public class MAXSwerve implements Logged {
   private final double chassisOffset;
 
   // Hardware
-  private final CANSparkMax driveNEO;
-  private final CANSparkMax steerNEO;
-
-  private final RelativeEncoder driveEncoder;
-  private final AbsoluteEncoder steerEncoder;
+  private final ModuleIO io;
+  private final ModuleInputs inputs = new ModuleInputs();
+  private final String inputsName;
+  private final ModuleInputs simSample = new ModuleInputs(); // last cycle's, under its own lock
 
   // Controls
-  private final SparkPIDController drivePID;
-  private final SparkPIDController steerPID;
   private final SimpleMotorFeedforward driveFF;
 
-  // Simulation
-  private double simDrivePosition = 0;
+  // Logging
+  private final double[] voltages = new double[2];
 
-  public MAXSwerve(int driveCANId, int steerCANId, double offset) {
+  public MAXSwerve(ModuleIO io, String name, double offset) {
+    this.io = io;
     chassisOffset = offset;
-
-    // Initialize hardware
-    driveNEO =
-        getSparkMax(
-            driveCANId,
-            MotorType.kBrushless,
-            false,
-            Set.of(Sensors.INTEGRATED),
-            Set.of(LogData.VOLTAGE, LogData.POSITION, LogData.VELOCITY));
-    steerNEO =
-        getSparkMax(
-            steerCANId,
-            MotorType.kBrushless,
-            false,
-            Set.of(Sensors.ABSOLUTE),
-            Set.of(LogData.VOLTAGE, LogData.POSITION, LogData.VELOCITY));
-
-    driveEncoder = driveNEO.getEncoder();
-    steerEncoder = steerNEO.getAbsoluteEncoder(SparkAbsoluteEncoder.Type.kDutyCycle);
-
-    driveEncoder.setPositionConversionFactor(kModule.drivingEncoderPositionFactor);
-    steerEncoder.setPositionConversionFactor(kModule.steeringEncoderPositionFactor);
-
-    driveEncoder.setVelocityConversionFactor(kModule.drivingEncoderVelocityFactor);
-    steerEncoder.setVelocityConversionFactor(kModule.steeringEncoderVelocityFactor);
-
-    steerEncoder.setInverted(kModule.invertSteerEncoder);
-
-    // Initialize controls objects
-    drivePID = driveNEO.getPIDController();
-    drivePID.setFeedbackDevice(driveEncoder);
-    steerPID = steerNEO.getPIDController();
-    steerPID.setFeedbackDevice(steerEncoder);
+    inputsName = name;
 
     driveFF = new SimpleMotorFeedforward(kModule.kDrive.kS, kModule.kDrive.kV, kModule.kDrive.kA);
+    io.updateInputs(inputs);
+
+    // Logged to file each logging cycle and published to NT at their tier's rate
+    Telemetry.addStruct(
+        this, Tier.DIAGNOSTIC, "getState", this::getState, SwerveModuleState.struct);
+    Telemetry.addStruct(
+        this, Tier.DIAGNOSTIC, "getTargetState", this::getTargetState, SwerveModuleState.struct);
+    Telemetry.addStruct(
+        this, Tier.SLOW, "getPositon", this::getPositon, SwerveModulePosition.struct);
+    Telemetry.addStruct(
+        this, Tier.FILE, "getHeadingError", this::getHeadingError, Rotation2d.struct);
+    Telemetry.addDoubleArray(this, Tier.DIAGNOSTIC, "getVoltages", this::getVoltages);
+  }
 
-    drivePID.setOutputRange(kModule.kDrive.minOutput, kModule.kDrive.maxOutput);
-    steerPID.setOutputRange(kModule.kSteer.minOutput, kModule.kSteer.maxOutput);
-
-    steerPID.setPositionPIDWrappingEnabled(true);
-    steerPID.setPositionPIDWrappingMaxInput(kModule.steeringEncoderPositionPIDMaxInput);
-    steerPID.setPositionPIDWrappingMinInput(kModule.steeringEncoderPositionPIDMinInput);
-
-    drivePID.setP(kModule.kDrive.kP);
-    drivePID.setD(kModule.kDrive.kD);
-
-    steerPID.setP(kModule.kSteer.kP);
-    steerPID.setD(kModule.kSteer.kD);
-
-    // Configure motor controllers
-    driveNEO.setIdleMode(IdleMode.kBrake);
-    steerNEO.setIdleMode(IdleMode.kBrake);
-
-    driveNEO.setSmartCurrentLimit(kModule.driveSmartCurrentLimit);
-    driveNEO.setSecondaryCurrentLimit(kModule.driveMaxCurrent);
-    steerNEO.setSmartCurrentLimit(kModule.steerSmartCurrentLimit);
-    steerNEO.setSecondaryCurrentLimit(kModule.steerMaxCurrent);
-
-    driveNEO.burnFlash();
-    steerNEO.burnFlash();
-
-    if (!RobotBase.isReal()) targetState.angle = new Rotation2d(steerEncoder.getPosition());
+  // Read the sensors (or the replayed log), call once per cycle before using the module
+  public void updateInputs() {
+    io.updateInputs(inputs);
+    Replay.processInputs(inputsName, inputs);
+
+    if (RobotBase.isSimulation()) {
+      synchronized (simSample) {
+        simSample.drivePosition = inputs.drivePosition;
+        simSample.driveVelocity = inputs.driveVelocity;
+        simSample.driveAppliedVolts = inputs.driveAppliedVolts;
+      }
+    }
   }
 
   // Get the corrected (for chassis offset) heading
   public Rotation2d getCorrectedSteer() {
-    if (RobotBase.isSimulation()) return targetState.angle;
-    return new Rotation2d(steerEncoder.getPosition() + chassisOffset);
+    return new Rotation2d(inputs.steerAngle);
   }
 
   // Get the state of the module (vel, heading)
-  @Log.NT
   public SwerveModuleState getState() {
-    if (RobotBase.isSimulation()) return targetState;
-    return new SwerveModuleState(driveEncoder.getVelocity(), getCorrectedSteer());
+    return new SwerveModuleState(inputs.driveVelocity, getCorrectedSteer());
   }
 
   // Get the targeted state of the module (vel, heading)
-  @Log.NT
   public SwerveModuleState getTargetState() {
     return targetState;
   }
 
   // Get the position of the module (wheel distance traveled, heading)
-  @Log.NT
   public SwerveModulePosition getPositon() {
-    if (RobotBase.isSimulation())
-      return new SwerveModulePosition(simDrivePosition, getCorrectedSteer());
-    return new SwerveModulePosition(driveEncoder.getPosition(), getCorrectedSteer());
+    return new SwerveModulePosition(inputs.drivePosition, getCorrectedSteer());
+  }
+
+  // Wheel distance traveled (m) and steer angle (rad) without allocating, for odometry
+  public double getDistance() {
+    return inputs.drivePosition;
+  }
+
+  public double getSteerAngle() {
+    return inputs.steerAngle;
   }
 
   // Get the error of the heading
-  @Log.File
   public Rotation2d getHeadingError() {
     return targetState.angle.minus(getCorrectedSteer());
   }
@@ -145,47 +102,72 @@ public class MAXSwerve implements Logged {
   // Set the module's target state
   public void setTargetState(
       SwerveModuleState desiredState, boolean closedLoopDrive, boolean optimizeHeading) {
-    // Optimize the state to prevent having to make a rotation of more than 90 degrees
-    SwerveModuleState optimizedState = desiredState;
-    if (optimizeHeading) {
-      optimizedState =
-          SwerveModuleState.optimize(
-              new SwerveModuleState(desiredState.speedMetersPerSecond, desiredState.angle),
-              getCorrectedSteer());
-    }
-
-    // Scale
-    optimizedState.speedMetersPerSecond *= Math.cos(Math.abs(getHeadingError().getRadians()));
+    var optimizedState = calculateTargetState(desiredState, optimizeHeading);
 
     // Set the built-in PID for closed loop, or just give a regular voltage for open loop
     if (closedLoopDrive) {
-      drivePID.setReference(
+      io.setDriveVelocity(
           optimizedState.speedMetersPerSecond,
-          ControlType.kVelocity,
-          0,
           driveFF.calculate(optimizedState.speedMetersPerSecond));
     } else {
-      driveNEO.setVoltage(driveFF.calculate(optimizedState.speedMetersPerSecond));
+      io.setDriveVoltage(driveFF.calculate(optimizedState.speedMetersPerSecond));
     }
 
-    steerPID.setReference(
-        optimizedState.angle.minus(new Rotation2d(chassisOffset)).getRadians(),
-        ControlType.kPosition);
+    io.setSteerAngle(optimizedState.angle.getRadians());
 
     // Record the target state
     targetState = optimizedState;
-    // Forward euler on the position in sim
-    if (RobotBase.isSimulation()) simDrivePosition += targetState.speedMetersPerSecond * 0.02;
+  }
+
+  // Run the target state math without commanding the module, for JIT warmup while disabled
+  public void warmup(SwerveModuleState desiredState) {
+    driveFF.calculate(calculateTargetState(desiredState, true).speedMetersPerSecond);
+  }
+
+  private SwerveModuleState calculateTargetState(
+      SwerveModuleState desiredState, boolean optimizeHeading) {
+    // Optimize the state to prevent having to make a rotation of more than 90 degrees
+    SwerveModuleState optimizedState = desiredState;
+    if (optimizeHeading) {
+      optimizedState =
+          SwerveModuleState.optimize(
+              new SwerveModuleState(desiredState.speedMetersPerSecond, desiredState.angle),
+              getCorrectedSteer());
+    }
+
+    // Scale
+    optimizedState.speedMetersPerSecond *= Math.cos(Math.abs(getHeadingError().getRadians()));
+    return optimizedState;
   }
 
   // rawvolts output for SysId
   public void setRawDriveVoltage(double volts) {
-    driveNEO.setVoltage(volts);
+    io.setDriveVoltage(volts);
   }
 
   // gets the volts that are being applied
   public double getRawDriveNeoVoltage() {
-    return driveNEO.getAppliedOutput() * driveNEO.getBusVoltage();
+    return inputs.driveAppliedVolts;
+  }
+
+  // Read the hardware into separate inputs, for sampling off the main thread. Simulated IO steps
+  // its model on every read, so there it copies the last cycle's inputs, which the main thread
+  // hands over under a lock.
+  public void sampleInputs(ModuleInputs sample) {
+    if (RobotBase.isReal()) {
+      io.updateInputs(sample);
+      return;
+    }
+    synchronized (simSample) {
+      sample.drivePosition = simSample.drivePosition;
+      sample.driveVelocity = simSample.driveVelocity;
+      sample.driveAppliedVolts = simSample.driveAppliedVolts;
+    }
+  }
+
+  // Fast drive status frames for a SysId capture while it runs, or back to normal
+  public void setCaptureFrames(boolean capture) {
+    io.setCaptureFrames(capture);
   }
 
   // Set the module to the chassis X configuraiton
@@ -201,26 +183,19 @@ public class MAXSwerve implements Logged {
 
   // Reset the drive encoder to zero (reset for odometry)
   public void resetEncoder() {
-    driveEncoder.setPosition(0);
-    if (RobotBase.isSimulation()) simDrivePosition = 0;
+    io.resetDriveEncoder();
   }
 
   // Put the drive motors into or out of brake mode
   public void setBrakeMode(boolean brake) {
     this.log("Brake mode", brake);
-    if (brake) {
-      driveNEO.setIdleMode(IdleMode.kBrake);
-    } else {
-      driveNEO.setIdleMode(IdleMode.kCoast);
-    }
+    io.setDriveBrakeMode(brake);
   }
 
   // Get the output voltages
-  @Log.NT
   public double[] getVoltages() {
-    return new double[] {
-      driveNEO.getAppliedOutput() * driveNEO.getBusVoltage(),
-      steerNEO.getAppliedOutput() * steerNEO.getBusVoltage()
-    };
+    voltages[0] = inputs.driveAppliedVolts;
+    voltages[1] = inputs.steerAppliedVolts;
+    return voltages;
   }
 }
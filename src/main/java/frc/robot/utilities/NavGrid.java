@@ -0,0 +1,200 @@
+package frc.robot.utilities;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import edu.wpi.first.math.geometry.Translation2d;
+import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj.Filesystem;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.PriorityQueue;
+
+// PathPlanner's obstacle grid for the field, with distance-to-goal fields to find paths through it
+public class NavGrid {
+  // 8-connected neighbours, orthogonal first
+  private static final int[] dCol = {1, -1, 0, 0, 1, 1, -1, -1};
+  private static final int[] dRow = {0, 0, 1, -1, 1, -1, 1, -1};
+
+  private final double nodeSize;
+  private final int cols;
+  private final int rows;
+  private final boolean[] blocked;
+
+  private NavGrid(double nodeSize, int cols, int rows, boolean[] blocked) {
+    this.nodeSize = nodeSize;
+    this.cols = cols;
+    this.rows = rows;
+    this.blocked = blocked;
+  }
+
+  // Load deploy/pathplanner/navgrid.json, an open field if it can't be read
+  public static NavGrid load() {
+    var file = new File(Filesystem.getDeployDirectory(), "pathplanner/navgrid.json");
+    try {
+      JsonNode json = new ObjectMapper().readTree(file);
+      JsonNode nodeSize = json.path("nodeSizeMeters");
+      if (!nodeSize.isNumber() || nodeSize.asDouble() <= 0)
+        throw new IOException("missing nodeSizeMeters");
+      JsonNode grid = json.path("grid");
+      if (!grid.isArray() || grid.isEmpty()) throw new IOException("no grid");
+
+      // Every row has to be as wide as the first
+      int rows = grid.size();
+      int cols = grid.get(0).size();
+      boolean[] blocked = new boolean[rows * cols];
+      for (int row = 0; row < rows; row++) {
+        JsonNode cells = grid.get(row);
+        if (!cells.isArray() || cells.size() != cols || cols == 0)
+          throw new IOException("row " + row + " isn't " + cols + " cells");
+        for (int col = 0; col < cols; col++) {
+          blocked[row * cols + col] = cells.get(col).asBoolean();
+        }
+      }
+      return new NavGrid(nodeSize.asDouble(), cols, rows, blocked);
+    } catch (IOException e) {
+      DriverStation.reportError("Can't read navgrid: " + e.getMessage(), e.getStackTrace());
+      return new NavGrid(0.3, 56, 28, new boolean[56 * 28]);
+    }
+  }
+
+  public int size() {
+    return blocked.length;
+  }
+
+  // Cell containing a point, clamped to the field
+  public int cellOf(Translation2d point) {
+    int col = Math.min(Math.max((int) (point.getX() / nodeSize), 0), cols - 1);
+    int row = Math.min(Math.max((int) (point.getY() / nodeSize), 0), rows - 1);
+    return row * cols + col;
+  }
+
+  public Translation2d centerOf(int cell) {
+    return new Translation2d((cell % cols + 0.5) * nodeSize, (cell / cols + 0.5) * nodeSize);
+  }
+
+  // Closest free cell to a point, the robot or a target can sit against a wall where the grid
+  // is padded out to the bumpers
+  public int freeCellNear(Translation2d point) {
+    int start = cellOf(point);
+    if (!blocked[start]) return start;
+
+    boolean[] seen = new boolean[blocked.length];
+    var queue = new ArrayDeque<Integer>();
+    queue.add(start);
+    seen[start] = true;
+    while (!queue.isEmpty()) {
+      int cell = queue.poll();
+      if (!blocked[cell]) return cell;
+      for (int i = 0; i < 4; i++) {
+        int next = neighbour(cell, i);
+        if (next >= 0 && !seen[next]) {
+          seen[next] = true;
+          queue.add(next);
+        }
+      }
+    }
+    return start;
+  }
+
+  // Distance (m) from every cell to the goal over free cells, infinite where unreachable. Fixed
+  // for a goal, so a path from any start is a walk down the field without searching again.
+  public float[] distanceField(Translation2d goal) {
+    float[] field = new float[blocked.length];
+    Arrays.fill(field, Float.POSITIVE_INFINITY);
+    int goalCell = freeCellNear(goal);
+    field[goalCell] = 0;
+
+    // Entries pack the distance above the cell so they order by distance, non-negative float
+    // bits sort the same as their values
+    var open = new PriorityQueue<Long>();
+    boolean[] closed = new boolean[blocked.length];
+    open.add((long) goalCell);
+    while (!open.isEmpty()) {
+      int cell = (int) (open.poll() & 0xFFFFFFFFL);
+      if (closed[cell]) continue;
+      closed[cell] = true;
+
+      for (int i = 0; i < 8; i++) {
+        int next = move(cell, i);
+        if (next < 0 || closed[next]) continue;
+        float distance = field[cell] + (float) (i < 4 ? nodeSize : nodeSize * Math.sqrt(2));
+        if (distance < field[next]) {
+          field[next] = distance;
+          open.add(((long) Float.floatToIntBits(distance) << 32) | next);
+        }
+      }
+    }
+    return field;
+  }
+
+  // Path from the start down a goal's field, cut to the fewest straight segments clear of
+  // obstacles. Ends at the goal itself rather than its cell's center.
+  public List<Translation2d> path(float[] field, Translation2d start, Translation2d goal) {
+    var points = new ArrayList<Translation2d>();
+    points.add(start);
+
+    int cell = freeCellNear(start);
+    if (Float.isInfinite(field[cell])) return List.of(start, goal);
+    while (field[cell] > 0) {
+      int best = cell;
+      for (int i = 0; i < 8; i++) {
+        int next = move(cell, i);
+        if (next >= 0 && field[next] < field[best]) best = next;
+      }
+      if (best == cell) break;
+      cell = best;
+      points.add(centerOf(cell));
+    }
+    points.add(goal);
+
+    // Skip ahead to the furthest point still in sight
+    var path = new ArrayList<Translation2d>();
+    path.add(start);
+    int from = 0;
+    while (from < points.size() - 1) {
+      int to = points.size() - 1;
+      while (to > from + 1 && !inSight(points.get(from), points.get(to))) to--;
+      path.add(points.get(to));
+      from = to;
+    }
+    return path;
+  }
+
+  // Whether a straight line between two points stays clear, the cells holding the end points
+  // themselves are allowed since they may be against a wall
+  public boolean inSight(Translation2d a, Translation2d b) {
+    int aCell = cellOf(a);
+    int bCell = cellOf(b);
+    int steps = (int) Math.ceil(a.getDistance(b) / (nodeSize / 4));
+    for (int i = 1; i < steps; i++) {
+      int cell = cellOf(a.interpolate(b, (double) i / steps));
+      if (blocked[cell] && cell != aCell && cell != bCell) return false;
+    }
+    return true;
+  }
+
+  // Neighbour in a direction, -1 off the grid
+  private int neighbour(int cell, int direction) {
+    int col = cell % cols + dCol[direction];
+    int row = cell / cols + dRow[direction];
+    if (col < 0 || col >= cols || row < 0 || row >= rows) return -1;
+    return row * cols + col;
+  }
+
+  // Free neighbour the robot can move to, diagonals can't cut the corner of an obstacle
+  private int move(int cell, int direction) {
+    int next = neighbour(cell, direction);
+    if (next < 0 || blocked[next]) return -1;
+    if (direction >= 4) {
+      int col = cell % cols;
+      int row = cell / cols;
+      if (blocked[row * cols + col + dCol[direction]]
+          || blocked[(row + dRow[direction]) * cols + col]) return -1;
+    }
+    return next;
+  }
+}
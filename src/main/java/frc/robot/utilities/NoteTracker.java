@@ -0,0 +1,57 @@
+package frc.robot.utilities;
+
+import edu.wpi.first.wpilibj.shuffleboard.Shuffleboard;
+import edu.wpi.first.wpilibj2.command.button.Trigger;
+import monologue.Annotations.Log;
+import monologue.Logged;
+
+// Where the note is on its way from the intake to the shooter, moved along by the commands that
+// move it so nothing has to re-derive it from the rollers every loop
+public class NoteTracker implements Logged {
+  public enum NoteState {
+    NONE, // No note in the robot
+    INTAKING, // Intake running, waiting for the sensor
+    INDEXING, // Note in the intake, intake returning home
+    HANDOFF, // Note moving from the intake to the handoff
+    STAGED, // Note held in the handoff, ready to shoot
+    SHOOTING // Note being fed into the flywheels
+  }
+
+  private NoteState state = NoteState.NONE;
+
+  public NoteTracker() {
+    Shuffleboard.getTab("Driver Info").addBoolean("Has Piece", () -> is(NoteState.STAGED));
+  }
+
+  @Log.NT
+  public NoteState getState() {
+    return state;
+  }
+
+  public void set(NoteState next) {
+    state = next;
+  }
+
+  // Only move on if the note is still where this step expects it
+  public void transition(NoteState from, NoteState to) {
+    if (state == from) state = to;
+  }
+
+  public boolean is(NoteState check) {
+    return state == check;
+  }
+
+  // A note is in the robot, past the intake sensor
+  public boolean hasNote() {
+    return state != NoteState.NONE && state != NoteState.INTAKING;
+  }
+
+  // True while the note is in any of the states
+  public Trigger state(NoteState... checks) {
+    return new Trigger(
+        () -> {
+          for (var check : checks) if (state == check) return true;
+          return false;
+        });
+  }
+}
@@ -0,0 +1,94 @@
+package frc.robot.utilities;
+
+import edu.wpi.first.math.geometry.Translation2d;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import monologue.Annotations.Log;
+import monologue.Logged;
+
+// Collision free paths over the navgrid. Distance fields are cached by goal cell and computed on
+// a background thread, so planning from the main loop only walks down a field that's ready.
+public class Pathfinder implements Logged {
+  private final ExecutorService planner =
+      Executors.newSingleThreadExecutor(ThreadPriorities.background("Pathfinder"));
+
+  private volatile NavGrid grid;
+  private final Map<Integer, float[]> fields = new ConcurrentHashMap<>();
+  private final Map<Integer, Boolean> pending = new ConcurrentHashMap<>();
+
+  // Accounting
+  private volatile double fieldTime = 0;
+  private double planTime = 0;
+  private double maxPlanTime = 0;
+
+  // Load the grid and precompute fields to goals used often, off the main thread
+  public Pathfinder(List<Translation2d> goals) {
+    planner.execute(
+        () -> {
+          grid = NavGrid.load();
+          for (var goal : goals) computeField(goal);
+        });
+  }
+
+  // Start computing a goal's field if it isn't cached or on the way
+  public void prepare(Translation2d goal) {
+    var grid = this.grid;
+    if (grid != null && fields.containsKey(grid.freeCellNear(goal))) return;
+    planner.execute(() -> computeField(goal));
+  }
+
+  public boolean isReady(Translation2d goal) {
+    var grid = this.grid;
+    return grid != null && fields.containsKey(grid.freeCellNear(goal));
+  }
+
+  // Waypoints from the start to the goal around obstacles, a straight line if the goal's field
+  // isn't ready yet
+  public List<Translation2d> plan(Translation2d start, Translation2d goal) {
+    long begin = System.nanoTime();
+    var grid = this.grid;
+    float[] field = grid == null ? null : fields.get(grid.freeCellNear(goal));
+    if (field == null) {
+      prepare(goal);
+      return List.of(start, goal);
+    }
+
+    var path = grid.path(field, start, goal);
+    planTime = (System.nanoTime() - begin) * 1e-9;
+    maxPlanTime = Math.max(maxPlanTime, planTime);
+    return path;
+  }
+
+  private void computeField(Translation2d goal) {
+    int cell = grid.freeCellNear(goal);
+    if (fields.containsKey(cell) || pending.putIfAbsent(cell, true) != null) return;
+
+    long begin = System.nanoTime();
+    fields.put(cell, grid.distanceField(goal));
+    fieldTime = (System.nanoTime() - begin) * 1e-9;
+    pending.remove(cell);
+  }
+
+  @Log.File
+  public double getFieldTime() {
+    return fieldTime;
+  }
+
+  @Log.File
+  public double getPlanTime() {
+    return planTime;
+  }
+
+  @Log.File
+  public double getMaxPlanTime() {
+    return maxPlanTime;
+  }
+
+  @Log.File
+  public int getCachedFields() {
+    return fields.size();
+  }
+}
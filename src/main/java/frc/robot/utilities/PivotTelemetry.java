@@ -0,0 +1,71 @@
+package frc.robot.utilities;
+
+import edu.wpi.first.util.struct.Struct;
+import java.nio.ByteBuffer;
+
+// Per-cycle telemetry of a pivot's profiled controller
+public class PivotTelemetry {
+  public double setpointPosition;
+  public double setpointVelocity;
+  public double currentSetpointVelocity;
+  public double accel;
+  public double feedforwardVoltage;
+  public double feedbackVoltage;
+
+  public static final PivotTelemetryStruct struct = new PivotTelemetryStruct();
+
+  // Copy another record's values into this one
+  public void set(PivotTelemetry other) {
+    setpointPosition = other.setpointPosition;
+    setpointVelocity = other.setpointVelocity;
+    currentSetpointVelocity = other.currentSetpointVelocity;
+    accel = other.accel;
+    feedforwardVoltage = other.feedforwardVoltage;
+    feedbackVoltage = other.feedbackVoltage;
+  }
+
+  public static class PivotTelemetryStruct implements Struct<PivotTelemetry> {
+    @Override
+    public Class<PivotTelemetry> getTypeClass() {
+      return PivotTelemetry.class;
+    }
+
+    @Override
+    public String getTypeString() {
+      return "struct:PivotTelemetry";
+    }
+
+    @Override
+    public int getSize() {
+      return kSizeDouble * 6;
+    }
+
+    @Override
+    public String getSchema() {
+      return "double setpointPosition;double setpointVelocity;double currentSetpointVelocity;"
+          + "double accel;double feedforwardVoltage;double feedbackVoltage";
+    }
+
+    @Override
+    public PivotTelemetry unpack(ByteBuffer bb) {
+      var value = new PivotTelemetry();
+      value.setpointPosition = bb.getDouble();
+      value.setpointVelocity = bb.getDouble();
+      value.currentSetpointVelocity = bb.getDouble();
+      value.accel = bb.getDouble();
+      value.feedforwardVoltage = bb.getDouble();
+      value.feedbackVoltage = bb.getDouble();
+      return value;
+    }
+
+    @Override
+    public void pack(ByteBuffer bb, PivotTelemetry value) {
+      bb.putDouble(value.setpointPosition);
+      bb.putDouble(value.setpointVelocity);
+      bb.putDouble(value.currentSetpointVelocity);
+      bb.putDouble(value.accel);
+      bb.putDouble(value.feedforwardVoltage);
+      bb.putDouble(value.feedbackVoltage);
+    }
+  }
+}
@@ -0,0 +1,112 @@
+package frc.robot.utilities;
+
+import edu.wpi.first.math.MathUtil;
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.kinematics.ChassisSpeeds;
+import edu.wpi.first.math.trajectory.TrapezoidProfile;
+
+// Straight line motion profile from a start pose to a goal pose. Translation is one trapezoid
+// profile along the line, so the velocity and acceleration limits hold for the chassis instead of
+// for each axis. Heading gets its own profile, and whichever finishes first is replanned with
+// lower limits so both arrive together.
+public class PoseProfile {
+  private final TrapezoidProfile.Constraints translationConstraints;
+  private final TrapezoidProfile.Constraints rotationConstraints;
+  private TrapezoidProfile translation;
+  private TrapezoidProfile rotation;
+
+  private final TrapezoidProfile.State translationStart = new TrapezoidProfile.State();
+  private final TrapezoidProfile.State translationGoal = new TrapezoidProfile.State();
+  private final TrapezoidProfile.State rotationStart = new TrapezoidProfile.State();
+  private final TrapezoidProfile.State rotationGoal = new TrapezoidProfile.State();
+
+  // The line, from the start along a unit direction
+  private double startX = 0;
+  private double startY = 0;
+  private double directionX = 0;
+  private double directionY = 0;
+
+  private double totalTime = 0;
+
+  public PoseProfile(
+      double maxVelocity,
+      double maxAcceleration,
+      double maxAngularVelocity,
+      double maxAngularAcceleration) {
+    translationConstraints = new TrapezoidProfile.Constraints(maxVelocity, maxAcceleration);
+    rotationConstraints =
+        new TrapezoidProfile.Constraints(maxAngularVelocity, maxAngularAcceleration);
+    translation = new TrapezoidProfile(translationConstraints);
+    rotation = new TrapezoidProfile(rotationConstraints);
+  }
+
+  // Plan from the current pose and field relative speeds. Speed across the line isn't carried
+  // over, feedback takes it out.
+  public void reset(Pose2d start, ChassisSpeeds fieldSpeeds, Pose2d goal) {
+    startX = start.getX();
+    startY = start.getY();
+    double dx = goal.getX() - startX;
+    double dy = goal.getY() - startY;
+    double distance = Math.hypot(dx, dy);
+    directionX = distance > 1e-6 ? dx / distance : 0;
+    directionY = distance > 1e-6 ? dy / distance : 0;
+
+    translationStart.position = 0;
+    translationStart.velocity =
+        fieldSpeeds.vxMetersPerSecond * directionX + fieldSpeeds.vyMetersPerSecond * directionY;
+    translationGoal.position = distance;
+    translationGoal.velocity = 0;
+    translation = new TrapezoidProfile(translationConstraints);
+    translation.calculate(0, translationStart, translationGoal);
+    double translationTime = translation.totalTime();
+
+    // Turn the short way around
+    double heading = start.getRotation().getRadians();
+    rotationStart.position = heading;
+    rotationStart.velocity = fieldSpeeds.omegaRadiansPerSecond;
+    rotationGoal.position =
+        heading + MathUtil.angleModulus(goal.getRotation().getRadians() - heading);
+    rotationGoal.velocity = 0;
+    rotation = new TrapezoidProfile(rotationConstraints);
+    rotation.calculate(0, rotationStart, rotationGoal);
+    double rotationTime = rotation.totalTime();
+
+    // Replan the shorter one with its velocity limit scaled by the time ratio and its
+    // acceleration limit by the square. From a standing start that stretches it to the same
+    // length exactly, and either way it starts from the true velocity instead of jumping. A
+    // start faster than the lowered limit is clamped to it by TrapezoidProfile.
+    totalTime = Math.max(translationTime, rotationTime);
+    if (translationTime > 0 && translationTime < totalTime) {
+      translation = slowed(translationConstraints, translationTime / totalTime);
+      translation.calculate(0, translationStart, translationGoal);
+      totalTime = Math.max(totalTime, translation.totalTime());
+    } else if (rotationTime > 0 && rotationTime < totalTime) {
+      rotation = slowed(rotationConstraints, rotationTime / totalTime);
+      rotation.calculate(0, rotationStart, rotationGoal);
+      totalTime = Math.max(totalTime, rotation.totalTime());
+    }
+  }
+
+  private static TrapezoidProfile slowed(TrapezoidProfile.Constraints constraints, double scale) {
+    return new TrapezoidProfile(
+        new TrapezoidProfile.Constraints(
+            constraints.maxVelocity * scale, constraints.maxAcceleration * scale * scale));
+  }
+
+  // Sample the field relative target at a time (s) since the reset
+  public void sample(double time, ChoreoTrajectory.State state) {
+    var along = translation.calculate(time, translationStart, translationGoal);
+    state.x = startX + directionX * along.position;
+    state.y = startY + directionY * along.position;
+    state.velocityX = directionX * along.velocity;
+    state.velocityY = directionY * along.velocity;
+
+    var turn = rotation.calculate(time, rotationStart, rotationGoal);
+    state.heading = MathUtil.angleModulus(turn.position);
+    state.angularVelocity = turn.velocity;
+  }
+
+  public double getTotalTime() {
+    return totalTime;
+  }
+}
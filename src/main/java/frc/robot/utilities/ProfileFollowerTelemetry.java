@@ -0,0 +1,81 @@
+package frc.robot.utilities;
+
+import edu.wpi.first.util.struct.Struct;
+import java.nio.ByteBuffer;
+
+// Per-cycle telemetry of the x, y and rotation profile followers
+public class ProfileFollowerTelemetry {
+  public double xSetpoint;
+  public double ySetpoint;
+  public double rotSetpoint;
+  public double xSetVel;
+  public double ySetVel;
+  public double rotSetVel;
+  public double xFB;
+  public double yFB;
+  public double rotFB;
+  public boolean xAtGoal;
+  public boolean yAtGoal;
+  public boolean rotAtGoal;
+
+  public static final ProfileFollowerTelemetryStruct struct = new ProfileFollowerTelemetryStruct();
+
+  public static class ProfileFollowerTelemetryStruct implements Struct<ProfileFollowerTelemetry> {
+    @Override
+    public Class<ProfileFollowerTelemetry> getTypeClass() {
+      return ProfileFollowerTelemetry.class;
+    }
+
+    @Override
+    public String getTypeString() {
+      return "struct:ProfileFollowerTelemetry";
+    }
+
+    @Override
+    public int getSize() {
+      return kSizeDouble * 9 + kSizeBool * 3;
+    }
+
+    @Override
+    public String getSchema() {
+      return "double xSetpoint;double ySetpoint;double rotSetpoint;"
+          + "double xSetVel;double ySetVel;double rotSetVel;"
+          + "double xFB;double yFB;double rotFB;"
+          + "bool xAtGoal;bool yAtGoal;bool rotAtGoal";
+    }
+
+    @Override
+    public ProfileFollowerTelemetry unpack(ByteBuffer bb) {
+      var value = new ProfileFollowerTelemetry();
+      value.xSetpoint = bb.getDouble();
+      value.ySetpoint = bb.getDouble();
+      value.rotSetpoint = bb.getDouble();
+      value.xSetVel = bb.getDouble();
+      value.ySetVel = bb.getDouble();
+      value.rotSetVel = bb.getDouble();
+      value.xFB = bb.getDouble();
+      value.yFB = bb.getDouble();
+      value.rotFB = bb.getDouble();
+      value.xAtGoal = bb.get() != 0;
+      value.yAtGoal = bb.get() != 0;
+      value.rotAtGoal = bb.get() != 0;
+      return value;
+    }
+
+    @Override
+    public void pack(ByteBuffer bb, ProfileFollowerTelemetry value) {
+      bb.putDouble(value.xSetpoint);
+      bb.putDouble(value.ySetpoint);
+      bb.putDouble(value.rotSetpoint);
+      bb.putDouble(value.xSetVel);
+      bb.putDouble(value.ySetVel);
+      bb.putDouble(value.rotSetVel);
+      bb.putDouble(value.xFB);
+      bb.putDouble(value.yFB);
+      bb.putDouble(value.rotFB);
+      bb.put((byte) (value.xAtGoal ? 1 : 0));
+      bb.put((byte) (value.yAtGoal ? 1 : 0));
+      bb.put((byte) (value.rotAtGoal ? 1 : 0));
+    }
+  }
+}
@@ -0,0 +1,104 @@
+package frc.robot.utilities;
+
+import edu.wpi.first.wpilibj.RobotController;
+import java.util.ArrayList;
+import java.util.List;
+import monologue.Annotations.Log;
+import monologue.Logged;
+
+// A set of periodic tasks run together at one rate, with its own loop time accounting
+public class RateGroup implements Logged {
+  private final double period;
+  private final List<Runnable> tasks = new ArrayList<Runnable>();
+
+  // Accounting
+  private long lastStart = 0;
+  private double loopTime = 0;
+  private double maxLoopTime = 0;
+  private double actualPeriod = 0;
+  private double jitter = 0;
+  private double maxJitter = 0;
+  private double totalJitter = 0;
+  private int jitterSamples = 0;
+  private int overruns = 0;
+
+  public RateGroup(double period) {
+    this.period = period;
+  }
+
+  public void add(Runnable task) {
+    tasks.add(task);
+  }
+
+  public double getPeriod() {
+    return period;
+  }
+
+  // Run every task once and record how long it took
+  public void run() {
+    long start = RobotController.getFPGATime();
+    for (var task : tasks) task.run();
+    long end = RobotController.getFPGATime();
+
+    loopTime = (end - start) * 1e-6;
+    maxLoopTime = Math.max(maxLoopTime, loopTime);
+    if (loopTime > period) overruns++;
+    if (lastStart != 0) {
+      actualPeriod = (start - lastStart) * 1e-6;
+      jitter = Math.abs(actualPeriod - period);
+      maxJitter = Math.max(maxJitter, jitter);
+      totalJitter += jitter;
+      jitterSamples++;
+    }
+    lastStart = start;
+  }
+
+  // Run for a span of time at once, used when replay steps only the main loop
+  public void runFor(double duration) {
+    long runs = Math.round(duration / period);
+    for (long i = 0; i < runs; i++) run();
+  }
+
+  @Log.File
+  public double getLoopTime() {
+    return loopTime;
+  }
+
+  @Log.File
+  public double getMaxLoopTime() {
+    return maxLoopTime;
+  }
+
+  @Log.File
+  public double getActualPeriod() {
+    return actualPeriod;
+  }
+
+  // How far the last start was from the period, what thread priority is meant to cut down
+  @Log.File
+  public double getJitter() {
+    return jitter;
+  }
+
+  @Log.File
+  public double getMaxJitter() {
+    return maxJitter;
+  }
+
+  @Log.File
+  public double getMeanJitter() {
+    return jitterSamples > 0 ? totalJitter / jitterSamples : 0;
+  }
+
+  // Start the jitter statistics over
+  public void resetJitter() {
+    maxJitter = 0;
+    totalJitter = 0;
+    jitterSamples = 0;
+  }
+
+  @Log.NT
+  public int getOverruns() {
+    return overruns;
+  }
+}
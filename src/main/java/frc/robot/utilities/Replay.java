@@ -0,0 +1,184 @@
+package frc.robot.utilities;
+
+import edu.wpi.first.util.datalog.DataLogReader;
+import edu.wpi.first.util.datalog.DataLogRecord;
+import edu.wpi.first.util.datalog.DoubleLogEntry;
+import edu.wpi.first.wpilibj.DataLogManager;
+import edu.wpi.first.wpilibj.RobotBase;
+import edu.wpi.first.wpilibj.Timer;
+import edu.wpi.first.wpilibj.simulation.SimHooks;
+import frc.robot.Constants;
+import frc.robot.Constants.SimMode;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Iterator;
+
+// Records hardware inputs every cycle and feeds them back through the robot code in replay mode
+public class Replay {
+  private static final String cycleKey = "/Replay/Cycle";
+
+  // Recording
+  private static DoubleLogEntry cycleEntry;
+  private static final HashMap<String, InputsTable> tables = new HashMap<String, InputsTable>();
+  private static final DriverStationInputs driverStationInputs = new DriverStationInputs();
+
+  // Replay
+  private static Iterator<DataLogRecord> records;
+  private static final HashMap<Integer, String> entryNames = new HashMap<Integer, String>();
+  private static final HashMap<Integer, String> entryTypes = new HashMap<Integer, String>();
+  private static final HashMap<String, Object> values = new HashMap<String, Object>();
+  private static final HashMap<String, ArrayDeque<Object>> queued =
+      new HashMap<String, ArrayDeque<Object>>();
+  private static double pendingCycle = Double.NaN;
+
+  private Replay() {}
+
+  public static boolean isReplay() {
+    return RobotBase.isSimulation() && Constants.simMode == SimMode.REPLAY;
+  }
+
+  // ---------- Robot loop hooks ----------
+
+  // Mark the start of a robot loop, called before anything reads inputs
+  public static void beginCycle() {
+    if (isReplay()) return;
+    if (cycleEntry == null) cycleEntry = new DoubleLogEntry(DataLogManager.getLog(), cycleKey);
+    cycleEntry.append(Timer.getFPGATimestamp());
+  }
+
+  // Record or replay a set of inputs, call after every read of the hardware. Inputs read more than
+  // once a cycle, like the pivots' at the control rate, get each recorded read back in order.
+  public static void processInputs(String name, LoggableInputs inputs) {
+    var table = tables.get(name);
+    if (table == null) {
+      table = new InputsTable("/Inputs/" + name + "/");
+      tables.put(name, table);
+    }
+    if (isReplay()) inputs.fromLog(table);
+    inputs.toLog(table);
+  }
+
+  // Record the driver station and joysticks so replay sees the same modes and driver inputs
+  public static void processDriverStation() {
+    if (isReplay()) return;
+    driverStationInputs.update();
+    processInputs("DriverStation", driverStationInputs);
+  }
+
+  // ---------- Replay ----------
+
+  // Run the robot code against a log as fast as possible instead of on the loop timer
+  public static void run(Runnable robotInit, Runnable loopFunc) {
+    String path = System.getenv("REPLAY_LOG");
+    if (path == null) path = Constants.replayLog;
+
+    try {
+      var reader = new DataLogReader(path);
+      if (!reader.isValid()) throw new IOException("not a valid wpilog");
+      records = reader.iterator();
+    } catch (IOException e) {
+      DataLogManager.log("ERROR Can't open replay log " + path + ": " + e.getMessage());
+      return;
+    }
+
+    // Time only moves when a replayed cycle says it does
+    SimHooks.pauseTiming();
+    robotInit.run();
+
+    int cycles = 0;
+    long start = System.nanoTime();
+    while (advance()) {
+      loopFunc.run();
+      cycles++;
+    }
+
+    DataLogManager.log(
+        "Replayed "
+            + cycles
+            + " cycles from "
+            + path
+            + " in "
+            + (System.nanoTime() - start) * 1e-9
+            + " s");
+    DataLogManager.getLog().flush();
+  }
+
+  // Load the next recorded cycle, returns false once the log runs out
+  private static boolean advance() {
+    // Reads the last cycle recorded but didn't replay are skipped, keeping the latest value
+    for (var entry : queued.entrySet()) {
+      var queue = entry.getValue();
+      if (!queue.isEmpty()) values.put(entry.getKey(), queue.peekLast());
+      queue.clear();
+    }
+
+    // Read up to the first cycle marker
+    while (Double.isNaN(pendingCycle)) {
+      if (!records.hasNext()) return false;
+      readRecord(records.next());
+    }
+
+    double cycleTime = pendingCycle;
+    pendingCycle = Double.NaN;
+
+    // Read the rest of the cycle, stopping at the next marker
+    while (Double.isNaN(pendingCycle) && records.hasNext()) {
+      readRecord(records.next());
+    }
+
+    // Move the simulated clock to the recorded time so timers behave the same
+    double step = cycleTime - Timer.getFPGATimestamp();
+    if (step > 0) SimHooks.stepTimingAsync(step);
+
+    // Apply the driver station before the loop refreshes it
+    processInputs("DriverStation", driverStationInputs);
+    driverStationInputs.applyToSim();
+    return true;
+  }
+
+  private static void readRecord(DataLogRecord record) {
+    if (record.isStart()) {
+      var data = record.getStartData();
+      entryNames.put(data.entry, data.name);
+      entryTypes.put(data.entry, data.type);
+      return;
+    }
+    if (record.isControl()) return;
+
+    var name = entryNames.get(record.getEntry());
+    if (name == null) return;
+
+    if (name.equals(cycleKey)) {
+      pendingCycle = record.getDouble();
+      return;
+    }
+    if (!name.startsWith("/Inputs/")) return;
+
+    Object value;
+    switch (entryTypes.get(record.getEntry())) {
+      case "double":
+        value = record.getDouble();
+        break;
+      case "boolean":
+        value = record.getBoolean();
+        break;
+      case "int64":
+        value = record.getInteger();
+        break;
+      case "double[]":
+        value = record.getDoubleArray();
+        break;
+      default:
+        return;
+    }
+    queued.computeIfAbsent(name, (key) -> new ArrayDeque<Object>()).add(value);
+  }
+
+  // Get the next replayed value of an entry this cycle, or the last one once they run out
+  static Object getValue(String name) {
+    var queue = queued.get(name);
+    if (queue != null && !queue.isEmpty()) values.put(name, queue.poll());
+    return values.get(name);
+  }
+}
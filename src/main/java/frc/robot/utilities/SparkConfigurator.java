@@ -3,7 +3,13 @@ package frc.robot.utilities;
 import com.revrobotics.CANSparkLowLevel.MotorType;
 import com.revrobotics.CANSparkLowLevel.PeriodicFrame;
 import com.revrobotics.CANSparkMax;
+import com.revrobotics.REVLibError;
 import frc.robot.Constants;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 public class SparkConfigurator {
@@ -13,6 +19,11 @@ public class SparkConfigurator {
   private static final int SLOW = 200;
   private static final int OFF = 65535;
 
+  // Every spark created through the configurator, used for health monitoring
+  private static final List<CANSparkMax> sparks = new ArrayList<CANSparkMax>();
+  private static final Map<CANSparkMax, int[]> statusPeriods = new HashMap<CANSparkMax, int[]>();
+  private static int failedConfigCalls = 0;
+
   // Sensor options
   public enum Sensors {
     INTEGRATED,
@@ -47,7 +58,8 @@ public class SparkConfigurator {
       Set<Sensors> sensors,
       Set<LogData> logData) {
     CANSparkMax spark = new CANSparkMax(id, motorType);
-    spark.restoreFactoryDefaults();
+    sparks.add(spark);
+    check(spark.restoreFactoryDefaults());
 
     int[] status = {FAST, SLOW, SLOW, OFF, OFF, OFF, OFF};
     // status0 Applied Output & Faults
@@ -81,9 +93,10 @@ public class SparkConfigurator {
 
     for (int i = 0; i < 7; i++) {
       for (int j = 0; j < Constants.configurationSetRetries; j++) {
-        spark.setPeriodicFramePeriod(PeriodicFrame.values()[i], status[i]);
+        check(spark.setPeriodicFramePeriod(PeriodicFrame.values()[i], status[i]));
       }
     }
+    statusPeriods.put(spark, status);
 
     return spark;
   }
@@ -91,7 +104,8 @@ public class SparkConfigurator {
   public static CANSparkMax getFollower(
       CANSparkMax leader, int id, MotorType motorType, boolean invert) {
     CANSparkMax spark = new CANSparkMax(id, motorType);
-    spark.follow(leader, invert);
+    sparks.add(spark);
+    check(spark.follow(leader, invert));
 
     int[] status = {SLOW, SLOW, SLOW, OFF, OFF, OFF, OFF};
     // status0 Applied Output & Faults
@@ -104,7 +118,7 @@ public class SparkConfigurator {
 
     for (int i = 0; i < 7; i++) {
       for (int j = 0; j < Constants.configurationSetRetries; j++) {
-        spark.setPeriodicFramePeriod(PeriodicFrame.values()[i], status[i]);
+        check(spark.setPeriodicFramePeriod(PeriodicFrame.values()[i], status[i]));
         try {
           Thread.sleep(5);
         } catch (Exception e) {
@@ -114,4 +128,33 @@ public class SparkConfigurator {
 
     return spark;
   }
+
+  // Send status 1 (velocity, voltage & current) and 2 (position) every period (ms), for sampling
+  // faster than the loop
+  public static void setFastStatus(CANSparkMax spark, int period) {
+    check(spark.setPeriodicFramePeriod(PeriodicFrame.kStatus1, period));
+    check(spark.setPeriodicFramePeriod(PeriodicFrame.kStatus2, period));
+  }
+
+  // Put status 1 and 2 back to the periods the spark was configured with
+  public static void restoreStatus(CANSparkMax spark) {
+    int[] status = statusPeriods.get(spark);
+    check(spark.setPeriodicFramePeriod(PeriodicFrame.kStatus1, status[1]));
+    check(spark.setPeriodicFramePeriod(PeriodicFrame.kStatus2, status[2]));
+  }
+
+  // Get every spark that has been created by the configurator
+  public static List<CANSparkMax> getSparks() {
+    return Collections.unmodifiableList(sparks);
+  }
+
+  // Get the number of configuration calls that did not return kOk
+  public static int getFailedConfigCalls() {
+    return failedConfigCalls;
+  }
+
+  // Count a configuration call that failed
+  private static void check(REVLibError error) {
+    if (error != REVLibError.kOk) failedConfigCalls++;
+  }
 }
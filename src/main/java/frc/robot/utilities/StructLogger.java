@@ -0,0 +1,42 @@
+package frc.robot.utilities;
+
+import edu.wpi.first.networktables.NetworkTableInstance;
+import edu.wpi.first.networktables.StructPublisher;
+import edu.wpi.first.util.datalog.StructLogEntry;
+import edu.wpi.first.util.struct.Struct;
+import edu.wpi.first.wpilibj.DataLogManager;
+import monologue.Logged;
+
+// Logs a whole record as one packed struct entry instead of one entry per field
+public class StructLogger<T> {
+  private final Logged owner;
+  private final String key;
+  private final Struct<T> struct;
+
+  // Created on first use, once Monologue has assigned the owner a path
+  private StructLogEntry<T> fileEntry;
+  private StructPublisher<T> ntPublisher;
+
+  public StructLogger(Logged owner, String key, Struct<T> struct) {
+    this.owner = owner;
+    this.key = key;
+    this.struct = struct;
+  }
+
+  // Log the record, to NT normally or straight to the DataLog when Telemetry has logging file only
+  public void log(T value) {
+    if (Telemetry.isFileOnly()) {
+      if (fileEntry == null)
+        fileEntry = StructLogEntry.create(DataLogManager.getLog(), getName(), struct);
+      fileEntry.append(value);
+    } else {
+      if (ntPublisher == null)
+        ntPublisher = NetworkTableInstance.getDefault().getStructTopic(getName(), struct).publish();
+      ntPublisher.set(value);
+    }
+  }
+
+  private String getName() {
+    return owner.getFullPath() + "/" + key;
+  }
+}
@@ -0,0 +1,303 @@
+package frc.robot.utilities;
+
+import edu.wpi.first.math.MathUtil;
+import edu.wpi.first.math.Matrix;
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.geometry.Translation2d;
+import edu.wpi.first.math.numbers.N1;
+import edu.wpi.first.math.numbers.N3;
+import edu.wpi.first.wpilibj.Timer;
+import org.ejml.simple.SimpleMatrix;
+
+// Swerve pose estimator kept in fixed size primitive buffers. Odometry is integrated on its own
+// and the estimate is the odometry moved by a correction transform, so a vision measurement
+// corrects the transform in effect at its timestamp instead of replaying the odometry since. Gives
+// the same result as SwerveDrivePoseEstimator for measurements at odometry timestamps (between
+// them it interpolates the pose directly), without allocating once running.
+public class SwervePoseEstimator {
+  private static final int historySize = 128; // odometry samples, 2.5 s at 50 Hz
+  private static final int correctionsSize = 256; // two cameras a loop over the buffer, and spare
+  private static final double bufferDuration = 1.5; // s, older measurements are ignored
+
+  // Robot relative twist from module displacements, least squares like SwerveDriveKinematics
+  private final double[][] forwardKinematics;
+  private final int modules;
+  private final double[] lastDistances;
+
+  // Vision gains are q / (q + sqrt(q * r)) per axis
+  private final double[] q = new double[3];
+  private final double[] visionStdDevs = new double[3];
+
+  // Odometry pose, heading is the gyro plus an offset
+  private double odomX = 0;
+  private double odomY = 0;
+  private double odomTheta = 0;
+  private double gyroOffset = 0;
+  private double lastGyro = 0;
+
+  // Odometry history, a ring buffer from oldest to newest
+  private final double[] times = new double[historySize];
+  private final double[] xs = new double[historySize];
+  private final double[] ys = new double[historySize];
+  private final double[] thetas = new double[historySize];
+  private int oldest = 0;
+  private int samples = 0;
+
+  // Odometry to field corrections in time order, a measurement drops the ones after it. Each holds
+  // until the next, so the ones superseded before the buffer starts are forgotten.
+  private final double[] correctionTimes = new double[correctionsSize];
+  private final double[] correctionXs = new double[correctionsSize];
+  private final double[] correctionYs = new double[correctionsSize];
+  private final double[] correctionThetas = new double[correctionsSize];
+  private int corrections = 0;
+
+  // Scratch output of transform/exp/log
+  private double outX;
+  private double outY;
+  private double outTheta;
+
+  private Pose2d estimate = new Pose2d();
+  private boolean estimateStale = false;
+
+  public SwervePoseEstimator(
+      Translation2d[] moduleLocations, Matrix<N3, N1> stateStdDevs, Matrix<N3, N1> visionStdDevs) {
+    modules = moduleLocations.length;
+    lastDistances = new double[modules];
+
+    var inverseKinematics = new SimpleMatrix(modules * 2, 3);
+    for (int i = 0; i < modules; i++) {
+      inverseKinematics.setRow(i * 2, 0, 1, 0, -moduleLocations[i].getY());
+      inverseKinematics.setRow(i * 2 + 1, 0, 0, 1, moduleLocations[i].getX());
+    }
+    var pseudoInverse = inverseKinematics.pseudoInverse();
+    forwardKinematics = new double[3][modules * 2];
+    for (int row = 0; row < 3; row++) {
+      for (int col = 0; col < modules * 2; col++) {
+        forwardKinematics[row][col] = pseudoInverse.get(row, col);
+      }
+    }
+
+    for (int i = 0; i < 3; i++) {
+      q[i] = stateStdDevs.get(i, 0) * stateStdDevs.get(i, 0);
+      this.visionStdDevs[i] = visionStdDevs.get(i, 0);
+    }
+    addCorrection(Double.NEGATIVE_INFINITY, 0, 0, 0);
+  }
+
+  // Start from a pose, forgetting the history
+  public void resetPosition(double gyroAngle, double[] distances, double[] angles, Pose2d pose) {
+    odomX = pose.getX();
+    odomY = pose.getY();
+    odomTheta = pose.getRotation().getRadians();
+    gyroOffset = odomTheta - gyroAngle;
+    lastGyro = gyroAngle;
+    System.arraycopy(distances, 0, lastDistances, 0, modules);
+
+    samples = 0;
+    corrections = 0;
+    addCorrection(Double.NEGATIVE_INFINITY, 0, 0, 0);
+    estimateStale = true;
+  }
+
+  // Integrate the wheel distances (m) and steer angles (rad) since the last update
+  public void update(double gyroAngle, double[] distances, double[] angles) {
+    update(Timer.getFPGATimestamp(), gyroAngle, distances, angles);
+  }
+
+  public void update(double timestamp, double gyroAngle, double[] distances, double[] angles) {
+    double dx = 0;
+    double dy = 0;
+    for (int i = 0; i < modules; i++) {
+      double delta = distances[i] - lastDistances[i];
+      double moduleDx = delta * Math.cos(angles[i]);
+      double moduleDy = delta * Math.sin(angles[i]);
+      dx += forwardKinematics[0][i * 2] * moduleDx + forwardKinematics[0][i * 2 + 1] * moduleDy;
+      dy += forwardKinematics[1][i * 2] * moduleDx + forwardKinematics[1][i * 2 + 1] * moduleDy;
+      lastDistances[i] = distances[i];
+    }
+    double dTheta = MathUtil.angleModulus(gyroAngle - lastGyro);
+    lastGyro = gyroAngle;
+
+    exp(odomX, odomY, odomTheta, dx, dy, dTheta);
+    odomX = outX;
+    odomY = outY;
+    odomTheta = MathUtil.angleModulus(gyroAngle + gyroOffset);
+
+    // Overwrite the oldest sample once full
+    int index = (oldest + samples) % historySize;
+    if (samples == historySize) oldest = (oldest + 1) % historySize;
+    else samples++;
+    times[index] = timestamp;
+    xs[index] = odomX;
+    ys[index] = odomY;
+    thetas[index] = odomTheta;
+    estimateStale = true;
+  }
+
+  public void addVisionMeasurement(Pose2d visionPose, double timestamp) {
+    addVisionMeasurement(visionPose, timestamp, 1);
+  }
+
+  // Correct toward a vision pose, trusting it less as the default std devs are scaled up
+  public void addVisionMeasurement(Pose2d visionPose, double timestamp, double stdDevScale) {
+    // Ignore measurements from before the buffer, or from before the oldest correction kept if
+    // they ever overflowed
+    if (samples == 0
+        || timestamp < newestTime() - bufferDuration
+        || timestamp < times[oldest]
+        || timestamp < correctionTimes[0]) return;
+
+    // Odometry at the measurement, interpolated between the samples either side of it
+    int low = 0;
+    int high = samples - 1;
+    while (low < high) {
+      int mid = (low + high + 1) / 2;
+      if (times[(oldest + mid) % historySize] <= timestamp) low = mid;
+      else high = mid - 1;
+    }
+    int before = (oldest + low) % historySize;
+    int after = (oldest + Math.min(low + 1, samples - 1)) % historySize;
+    double t =
+        times[after] > times[before]
+            ? MathUtil.clamp((timestamp - times[before]) / (times[after] - times[before]), 0, 1)
+            : 0;
+    double x = xs[before] + (xs[after] - xs[before]) * t;
+    double y = ys[before] + (ys[after] - ys[before]) * t;
+    double theta = thetas[before] + MathUtil.angleModulus(thetas[after] - thetas[before]) * t;
+
+    // Estimate at the measurement, with corrections after it dropped
+    while (corrections > 1 && correctionTimes[corrections - 1] > timestamp) corrections--;
+    int c = corrections - 1;
+    transform(correctionXs[c], correctionYs[c], correctionThetas[c], x, y, theta);
+    double estX = outX;
+    double estY = outY;
+    double estTheta = outTheta;
+
+    // Step the estimate part way along the twist to the vision pose
+    log(
+        estX,
+        estY,
+        estTheta,
+        visionPose.getX(),
+        visionPose.getY(),
+        visionPose.getRotation().getRadians());
+    double twistX = outX * gain(0, stdDevScale);
+    double twistY = outY * gain(1, stdDevScale);
+    double twistTheta = outTheta * gain(2, stdDevScale);
+    exp(estX, estY, estTheta, twistX, twistY, twistTheta);
+
+    // Correction that takes the odometry there
+    double correctionTheta = outTheta - theta;
+    double cos = Math.cos(correctionTheta);
+    double sin = Math.sin(correctionTheta);
+    addCorrection(
+        timestamp, outX - (x * cos - y * sin), outY - (x * sin + y * cos), correctionTheta);
+    estimateStale = true;
+  }
+
+  public Pose2d getEstimatedPosition() {
+    if (estimateStale) {
+      estimate = new Pose2d(getX(), getY(), new Rotation2d(getTheta()));
+      estimateStale = false;
+    }
+    return estimate;
+  }
+
+  public double getX() {
+    int c = corrections - 1;
+    transform(correctionXs[c], correctionYs[c], correctionThetas[c], odomX, odomY, odomTheta);
+    return outX;
+  }
+
+  public double getY() {
+    int c = corrections - 1;
+    transform(correctionXs[c], correctionYs[c], correctionThetas[c], odomX, odomY, odomTheta);
+    return outY;
+  }
+
+  public double getTheta() {
+    return MathUtil.angleModulus(odomTheta + correctionThetas[corrections - 1]);
+  }
+
+  private double gain(int axis, double stdDevScale) {
+    double r = visionStdDevs[axis] * stdDevScale;
+    r *= r;
+    return q[axis] == 0 ? 0 : q[axis] / (q[axis] + Math.sqrt(q[axis] * r));
+  }
+
+  private double newestTime() {
+    return times[(oldest + samples - 1) % historySize];
+  }
+
+  // Append a correction, forgetting the ones superseded before the buffer, and the oldest if still
+  // full
+  private void addCorrection(double timestamp, double x, double y, double theta) {
+    int drop = 0;
+    if (samples > 0) {
+      double bufferStart = newestTime() - bufferDuration;
+      while (drop + 1 < corrections && correctionTimes[drop + 1] <= bufferStart) drop++;
+    }
+    if (corrections - drop == correctionsSize) drop++;
+    if (drop > 0) {
+      corrections -= drop;
+      System.arraycopy(correctionTimes, drop, correctionTimes, 0, corrections);
+      System.arraycopy(correctionXs, drop, correctionXs, 0, corrections);
+      System.arraycopy(correctionYs, drop, correctionYs, 0, corrections);
+      System.arraycopy(correctionThetas, drop, correctionThetas, 0, corrections);
+    }
+    correctionTimes[corrections] = timestamp;
+    correctionXs[corrections] = x;
+    correctionYs[corrections] = y;
+    correctionThetas[corrections] = theta;
+    corrections++;
+  }
+
+  // Pose (x, y, theta) moved by a rigid transform
+  private void transform(double tx, double ty, double tTheta, double x, double y, double theta) {
+    double cos = Math.cos(tTheta);
+    double sin = Math.sin(tTheta);
+    outX = tx + x * cos - y * sin;
+    outY = ty + x * sin + y * cos;
+    outTheta = MathUtil.angleModulus(theta + tTheta);
+  }
+
+  // Pose2d.exp, a pose moved along a robot relative twist
+  private void exp(double x, double y, double theta, double dx, double dy, double dTheta) {
+    double sinTerm;
+    double cosTerm;
+    if (Math.abs(dTheta) < 1e-9) {
+      sinTerm = 1 - dTheta * dTheta / 6;
+      cosTerm = dTheta / 2;
+    } else {
+      sinTerm = Math.sin(dTheta) / dTheta;
+      cosTerm = (1 - Math.cos(dTheta)) / dTheta;
+    }
+    double localX = dx * sinTerm - dy * cosTerm;
+    double localY = dx * cosTerm + dy * sinTerm;
+    double cos = Math.cos(theta);
+    double sin = Math.sin(theta);
+    outX = x + localX * cos - localY * sin;
+    outY = y + localX * sin + localY * cos;
+    outTheta = MathUtil.angleModulus(theta + dTheta);
+  }
+
+  // Pose2d.log, the robot relative twist from one pose to another
+  private void log(double x, double y, double theta, double endX, double endY, double endTheta) {
+    double cos = Math.cos(theta);
+    double sin = Math.sin(theta);
+    double localX = (endX - x) * cos + (endY - y) * sin;
+    double localY = -(endX - x) * sin + (endY - y) * cos;
+    double dTheta = MathUtil.angleModulus(endTheta - theta);
+
+    double halfDTheta = dTheta / 2;
+    double cosMinusOne = Math.cos(dTheta) - 1;
+    double halfThetaByTanOfHalfDTheta =
+        Math.abs(cosMinusOne) < 1e-9
+            ? 1 - dTheta * dTheta / 12
+            : -(halfDTheta * Math.sin(dTheta)) / cosMinusOne;
+    outX = localX * halfThetaByTanOfHalfDTheta + localY * halfDTheta;
+    outY = -localX * halfDTheta + localY * halfThetaByTanOfHalfDTheta;
+    outTheta = dTheta;
+  }
+}
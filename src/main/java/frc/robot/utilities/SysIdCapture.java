@@ -0,0 +1,140 @@
+package frc.robot.utilities;
+
+import edu.wpi.first.util.datalog.DoubleLogEntry;
+import edu.wpi.first.util.function.BooleanConsumer;
+import edu.wpi.first.wpilibj.DataLogManager;
+import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj.Notifier;
+import edu.wpi.first.wpilibj.RobotController;
+import edu.wpi.first.wpilibj2.command.Command;
+
+// Samples a mechanism's motors on a Notifier much faster than the robot loop while a SysId test
+// runs, into buffers allocated up front. The samples are written to the log with their own
+// timestamps a batch per call to flush once the test ends, next to SysIdRoutine's test state. The
+// motors' status frames are sped up for the test so the samples aren't mostly repeats.
+public class SysIdCapture {
+  // Fill in each motor's applied voltage (V), position and velocity
+  @FunctionalInterface
+  public interface Sampler {
+    void sample(double[] volts, double[] positions, double[] velocities);
+  }
+
+  private final String name;
+  private final String[] motors;
+  private final Sampler sampler;
+  private final BooleanConsumer setCaptureFrames;
+  private final double period;
+  private final int flushBatch;
+  private final Notifier notifier;
+
+  // Buffers, a row per motor
+  private final long[] timestamps;
+  private final double[][] volts;
+  private final double[][] positions;
+  private final double[][] velocities;
+  private final double[] sampleVolts;
+  private final double[] samplePositions;
+  private final double[] sampleVelocities;
+  private int size = 0;
+  private int flushed = 0;
+  private boolean running = false;
+
+  // Entries are made on the first flush, after the log has started
+  private DoubleLogEntry[] voltsEntries;
+  private DoubleLogEntry[] positionEntries;
+  private DoubleLogEntry[] velocityEntries;
+
+  // Sample every period (s), keeping up to duration (s) of samples per test
+  public SysIdCapture(
+      String name,
+      String[] motors,
+      Sampler sampler,
+      BooleanConsumer setCaptureFrames,
+      double period,
+      double duration,
+      int flushBatch) {
+    this.name = name;
+    this.motors = motors;
+    this.sampler = sampler;
+    this.setCaptureFrames = setCaptureFrames;
+    this.period = period;
+    this.flushBatch = flushBatch;
+
+    int capacity = (int) Math.ceil(duration / period);
+    timestamps = new long[capacity];
+    volts = new double[motors.length][capacity];
+    positions = new double[motors.length][capacity];
+    velocities = new double[motors.length][capacity];
+    sampleVolts = new double[motors.length];
+    samplePositions = new double[motors.length];
+    sampleVelocities = new double[motors.length];
+
+    notifier = new Notifier(this::sample);
+    notifier.setName("SysIdCapture " + name);
+  }
+
+  // Capture for as long as the test command runs
+  public Command wrap(Command test) {
+    return test.beforeStarting(this::start).finallyDo(this::stop).withName(test.getName());
+  }
+
+  // Starting again before the last test was flushed drops what's left of it
+  private synchronized void start() {
+    if (flushed < size)
+      DriverStation.reportWarning(
+          "SysId capture " + name + " dropped " + (size - flushed) + " unflushed samples", false);
+    size = 0;
+    flushed = 0;
+    setCaptureFrames.accept(true);
+    running = true;
+    notifier.startPeriodic(period);
+  }
+
+  private synchronized void stop() {
+    notifier.stop();
+    running = false;
+    setCaptureFrames.accept(false);
+  }
+
+  // Runs on the Notifier's thread
+  private synchronized void sample() {
+    if (!running || size == timestamps.length) return;
+
+    sampler.sample(sampleVolts, samplePositions, sampleVelocities);
+    timestamps[size] = RobotController.getFPGATime();
+    for (int i = 0; i < motors.length; i++) {
+      volts[i][size] = sampleVolts[i];
+      positions[i][size] = samplePositions[i];
+      velocities[i][size] = sampleVelocities[i];
+    }
+    size++;
+  }
+
+  // Write the next batch of a finished test to the log, call from the logging rate group
+  public synchronized void flush() {
+    if (running || flushed == size) return;
+
+    if (voltsEntries == null) {
+      var log = DataLogManager.getLog();
+      voltsEntries = new DoubleLogEntry[motors.length];
+      positionEntries = new DoubleLogEntry[motors.length];
+      velocityEntries = new DoubleLogEntry[motors.length];
+      for (int i = 0; i < motors.length; i++) {
+        String prefix = "SysIdCapture/" + name + "/" + motors[i] + "/";
+        voltsEntries[i] = new DoubleLogEntry(log, prefix + "voltage");
+        positionEntries[i] = new DoubleLogEntry(log, prefix + "position");
+        velocityEntries[i] = new DoubleLogEntry(log, prefix + "velocity");
+      }
+    }
+
+    int end = Math.min(flushed + flushBatch, size);
+    for (int i = 0; i < motors.length; i++) {
+      for (int j = flushed; j < end; j++) {
+        voltsEntries[i].append(volts[i][j], timestamps[j]);
+        positionEntries[i].append(positions[i][j], timestamps[j]);
+        velocityEntries[i].append(velocities[i][j], timestamps[j]);
+      }
+    }
+    flushed = end;
+  }
+}
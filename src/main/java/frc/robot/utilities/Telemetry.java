@@ -0,0 +1,188 @@
+package frc.robot.utilities;
+
+import edu.wpi.first.networktables.BooleanPublisher;
+import edu.wpi.first.networktables.DoubleArrayPublisher;
+import edu.wpi.first.networktables.DoublePublisher;
+import edu.wpi.first.networktables.NetworkTableInstance;
+import edu.wpi.first.networktables.StructArrayPublisher;
+import edu.wpi.first.networktables.StructPublisher;
+import edu.wpi.first.util.struct.Struct;
+import edu.wpi.first.wpilibj.DataLogManager;
+import edu.wpi.first.wpilibj.DriverStation;
+import frc.robot.Constants;
+import frc.robot.Constants.kTelemetry;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+import java.util.function.DoubleSupplier;
+import java.util.function.Supplier;
+import monologue.Logged;
+import monologue.Monologue;
+
+// Registers each logged getter once, it is written to file every logging cycle by FileLog and
+// published to NT at a reduced rate per tier
+public class Telemetry {
+  public enum Tier {
+    CRITICAL,
+    DIAGNOSTIC,
+    SLOW,
+    FILE // file only, never published to NT
+  }
+
+  private static final List<Entry> entries = new ArrayList<Entry>();
+  private static final int[] divisors = new int[Tier.values().length];
+  private static int cycle = 0;
+  private static Boolean matchRates = null;
+  private static boolean fileOnly = Constants.logFileOnly;
+
+  private Telemetry() {}
+
+  // ---------- Registration ----------
+
+  public static void addDouble(Logged owner, Tier tier, String key, DoubleSupplier supplier) {
+    FileLog.addDouble(owner, key, supplier);
+    add(
+        new Entry(owner, tier, key) {
+          private DoublePublisher publisher;
+
+          @Override
+          void publish(String name) {
+            if (publisher == null)
+              publisher = NetworkTableInstance.getDefault().getDoubleTopic(name).publish();
+            publisher.set(supplier.getAsDouble());
+          }
+        });
+  }
+
+  public static void addBoolean(Logged owner, Tier tier, String key, BooleanSupplier supplier) {
+    FileLog.addBoolean(owner, key, supplier);
+    add(
+        new Entry(owner, tier, key) {
+          private BooleanPublisher publisher;
+
+          @Override
+          void publish(String name) {
+            if (publisher == null)
+              publisher = NetworkTableInstance.getDefault().getBooleanTopic(name).publish();
+            publisher.set(supplier.getAsBoolean());
+          }
+        });
+  }
+
+  public static void addDoubleArray(
+      Logged owner, Tier tier, String key, Supplier<double[]> supplier) {
+    FileLog.addDoubleArray(owner, key, supplier);
+    add(
+        new Entry(owner, tier, key) {
+          private DoubleArrayPublisher publisher;
+
+          @Override
+          void publish(String name) {
+            if (publisher == null)
+              publisher = NetworkTableInstance.getDefault().getDoubleArrayTopic(name).publish();
+            publisher.set(supplier.get());
+          }
+        });
+  }
+
+  public static <T> void addStruct(
+      Logged owner, Tier tier, String key, Supplier<T> supplier, Struct<T> struct) {
+    FileLog.addStruct(owner, key, supplier, struct);
+    add(
+        new Entry(owner, tier, key) {
+          private StructPublisher<T> publisher;
+
+          @Override
+          void publish(String name) {
+            if (publisher == null)
+              publisher = NetworkTableInstance.getDefault().getStructTopic(name, struct).publish();
+            publisher.set(supplier.get());
+          }
+        });
+  }
+
+  public static <T> void addStructArray(
+      Logged owner, Tier tier, String key, Supplier<T[]> supplier, Struct<T> struct) {
+    FileLog.addStructArray(owner, key, supplier, struct);
+    add(
+        new Entry(owner, tier, key) {
+          private StructArrayPublisher<T> publisher;
+
+          @Override
+          void publish(String name) {
+            if (publisher == null)
+              publisher =
+                  NetworkTableInstance.getDefault().getStructArrayTopic(name, struct).publish();
+            publisher.set(supplier.get());
+          }
+        });
+  }
+
+  private static void add(Entry entry) {
+    if (entry.tier != Tier.FILE) entries.add(entry);
+  }
+
+  // ---------- Update ----------
+
+  // Publish every entry whose tier is due this cycle, call once per robot loop. Nothing goes to
+  // NT when logging file only. During matches the match tiers keep publishing at their reduced
+  // rates, so the dashboard still gets them while Monologue is moved to file only.
+  public static void update() {
+    boolean fmsAttached = DriverStation.isFMSAttached();
+    if (matchRates == null || matchRates != fmsAttached) setMatchRates(fmsAttached);
+    if (Constants.logFileOnly) return;
+
+    for (var entry : entries) {
+      int divisor = divisors[entry.tier.ordinal()];
+      if (divisor != 0 && cycle % divisor == 0) entry.publish();
+    }
+    cycle++;
+  }
+
+  // Switch between practice and match rates, and move Monologue to file only during matches
+  private static void setMatchRates(boolean match) {
+    matchRates = match;
+    divisors[Tier.CRITICAL.ordinal()] =
+        toDivisor(match ? kTelemetry.matchCriticalRate : kTelemetry.criticalRate);
+    divisors[Tier.DIAGNOSTIC.ordinal()] =
+        toDivisor(match ? kTelemetry.matchDiagnosticRate : kTelemetry.diagnosticRate);
+    divisors[Tier.SLOW.ordinal()] =
+        toDivisor(match ? kTelemetry.matchSlowRate : kTelemetry.slowRate);
+
+    fileOnly = match || Constants.logFileOnly;
+    Monologue.setFileOnly(fileOnly);
+    DataLogManager.log("Telemetry using " + (match ? "match" : "practice") + " rates");
+  }
+
+  // Whether logging is file only right now, for loggers outside Monologue to follow
+  public static boolean isFileOnly() {
+    return fileOnly;
+  }
+
+  // Convert a rate into a number of loops between publishes, 0 means never publish
+  private static int toDivisor(double rate) {
+    if (rate <= 0) return 0;
+    return Math.max(1, (int) Math.round(kTelemetry.loopRate / rate));
+  }
+
+  private abstract static class Entry {
+    private final Logged owner;
+    private final Tier tier;
+    private final String key;
+    private String name;
+
+    Entry(Logged owner, Tier tier, String key) {
+      this.owner = owner;
+      this.tier = tier;
+      this.key = key;
+    }
+
+    // Resolve the name lazily, the owner only has a path once Monologue is set up
+    void publish() {
+      if (name == null) name = owner.getFullPath() + "/" + key;
+      publish(name);
+    }
+
+    abstract void publish(String name);
+  }
+}
@@ -0,0 +1,32 @@
+package frc.robot.utilities;
+
+import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj.RobotBase;
+import edu.wpi.first.wpilibj.Threads;
+import java.util.concurrent.ThreadFactory;
+
+// Real-time priority for the robot loop's control work, so control timing doesn't wait on the
+// threads that can run late. Those are the background executors made here and the Notifier threads
+// (logging and indications rate groups, DeviceHealth, SysIdCapture), all left at normal priority,
+// which any real-time thread preempts.
+public final class ThreadPriorities {
+  private ThreadPriorities() {}
+
+  // Raise the calling thread to a real-time priority (1-99), call from the thread itself. The
+  // simulator runs on a desktop OS without real-time scheduling, so it's left alone there.
+  public static void setRealtime(int priority) {
+    if (RobotBase.isSimulation()) return;
+    if (!Threads.setCurrentThreadPriority(true, priority))
+      DriverStation.reportWarning("Can't set real-time thread priority " + priority, false);
+  }
+
+  // Daemon threads for background work like path planning. Java thread priorities do nothing on
+  // Linux, so these stay at normal priority below the robot loop.
+  public static ThreadFactory background(String name) {
+    return (task) -> {
+      var thread = new Thread(task, name);
+      thread.setDaemon(true);
+      return thread;
+    };
+  }
+}
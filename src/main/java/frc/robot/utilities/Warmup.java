@@ -0,0 +1,63 @@
+package frc.robot.utilities;
+
+import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj.RobotController;
+import java.util.ArrayList;
+import java.util.List;
+import monologue.Annotations.Log;
+import monologue.Logged;
+
+// Runs the control paths that only run when enabled over and over while disabled, so they're
+// loaded and JIT compiled before the first enabled cycle instead of during it
+public class Warmup implements Logged {
+  private final int iterations;
+  private final double budget;
+  private final List<Runnable> tasks = new ArrayList<Runnable>();
+
+  // Accounting
+  private int completed = 0;
+  private double totalTime = 0;
+
+  // Run every task the number of iterations, spending at most the budget (s) per call
+  public Warmup(int iterations, double budget) {
+    this.iterations = iterations;
+    this.budget = budget;
+  }
+
+  // Tasks must leave outputs and state as they found them
+  public void add(Runnable task) {
+    tasks.add(task);
+  }
+
+  // Run iterations until the budget is spent, call from disabled periodic
+  public void run() {
+    if (isComplete()) return;
+
+    long start = RobotController.getFPGATime();
+    long end = start + (long) (budget * 1e6);
+    while (completed < iterations && RobotController.getFPGATime() < end) {
+      for (var task : tasks) task.run();
+      completed++;
+    }
+    totalTime += (RobotController.getFPGATime() - start) * 1e-6;
+
+    if (isComplete())
+      DriverStation.reportWarning(
+          String.format("Warmup complete, %d iterations in %.2f s", completed, totalTime), false);
+  }
+
+  @Log.NT
+  public boolean isComplete() {
+    return completed >= iterations;
+  }
+
+  @Log.File
+  public int getCompleted() {
+    return completed;
+  }
+
+  @Log.File
+  public double getTotalTime() {
+    return totalTime;
+  }
+}
@@ -0,0 +1,94 @@
+package frc.robot.subsystems;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import edu.wpi.first.hal.HAL;
+import edu.wpi.first.wpilibj.DataLogManager;
+import edu.wpi.first.wpilibj.simulation.DriverStationSim;
+import edu.wpi.first.wpilibj2.command.CommandScheduler;
+import frc.robot.Constants.kIntake.kRollers;
+import frc.robot.subsystems.io.IntakeRollersIOSim;
+import frc.robot.subsystems.io.IntakeRollersInputs;
+import java.nio.file.Path;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+// The rollers' command logic run against the simulated IO, no motor controllers or sensors. The
+// subsystem registers with the command scheduler, which reports to the HAL, so these still load
+// the WPILib natives and start the HAL and a data log for the inputs.
+class IntakeRollersTest {
+  private static final int maxLoops = 500;
+
+  @TempDir static Path logDir;
+
+  private IntakeRollers rollers;
+
+  @BeforeAll
+  static void setupHal() {
+    assertTrue(HAL.initialize(500, 0));
+    DataLogManager.start(logDir.toString());
+  }
+
+  @BeforeEach
+  void setup() {
+    DriverStationSim.setEnabled(true);
+    DriverStationSim.notifyNewData();
+    rollers = new IntakeRollers(new IntakeRollersIOSim());
+  }
+
+  @AfterEach
+  void teardown() {
+    CommandScheduler.getInstance().cancelAll();
+    CommandScheduler.getInstance().unregisterAllSubsystems();
+  }
+
+  @Test
+  void intakeStopsOnNote() {
+    var intake = rollers.intake();
+    intake.schedule();
+
+    int loops = 0;
+    while (intake.isScheduled() && loops < maxLoops) {
+      CommandScheduler.getInstance().run();
+      loops++;
+    }
+
+    assertFalse(intake.isScheduled(), "intake never saw a note");
+    assertTrue(rollers.sawPiece());
+
+    // Read on the cycle the note reached the sensor, before the command ending zeroed the rollers
+    assertEquals(0, rollers.getAppliedVoltage());
+  }
+
+  @Test
+  void simStopsOnEdge() {
+    var io = new IntakeRollersIOSim();
+    var inputs = new IntakeRollersInputs();
+    io.setStopOnPiece(true);
+    io.setVoltage(kRollers.intakeVoltage);
+
+    int loops = 0;
+    do {
+      io.updateInputs(inputs);
+      loops++;
+      if (inputs.pieceEdges == 0) assertEquals(kRollers.intakeVoltage, inputs.appliedVolts);
+    } while (inputs.pieceEdges == 0 && loops < maxLoops);
+
+    assertEquals(1, inputs.pieceEdges, "sim never saw a note");
+    assertEquals(0, inputs.appliedVolts);
+  }
+
+  @Test
+  void ejectRunsOutward() {
+    rollers.eject().schedule();
+    CommandScheduler.getInstance().run();
+    CommandScheduler.getInstance().run();
+
+    assertEquals(-kRollers.intakeVoltage, rollers.getAppliedVoltage());
+  }
+}
@@ -0,0 +1,34 @@
+package frc.robot.utilities;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import org.junit.jupiter.api.Test;
+
+class StructLoggerTest {
+  @Test
+  void packsEveryField() {
+    var value = new PivotTelemetry();
+    value.setpointPosition = 1;
+    value.setpointVelocity = 2;
+    value.currentSetpointVelocity = 3;
+    value.accel = 4;
+    value.feedforwardVoltage = 5;
+    value.feedbackVoltage = 6;
+
+    var buffer =
+        ByteBuffer.allocate(PivotTelemetry.struct.getSize()).order(ByteOrder.LITTLE_ENDIAN);
+    PivotTelemetry.struct.pack(buffer, value);
+    assertEquals(buffer.capacity(), buffer.position());
+    buffer.rewind();
+    var unpacked = PivotTelemetry.struct.unpack(buffer);
+
+    assertEquals(value.setpointPosition, unpacked.setpointPosition);
+    assertEquals(value.setpointVelocity, unpacked.setpointVelocity);
+    assertEquals(value.currentSetpointVelocity, unpacked.currentSetpointVelocity);
+    assertEquals(value.accel, unpacked.accel);
+    assertEquals(value.feedforwardVoltage, unpacked.feedforwardVoltage);
+    assertEquals(value.feedbackVoltage, unpacked.feedbackVoltage);
+  }
+}
@@ -0,0 +1,135 @@
+package frc.robot.utilities;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import edu.wpi.first.math.MathUtil;
+import edu.wpi.first.math.estimator.SwerveDrivePoseEstimator;
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.kinematics.SwerveModulePosition;
+import frc.robot.Constants.kSwerve;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+// Feeds the same odometry and vision to SwervePoseEstimator and WPILib's SwerveDrivePoseEstimator
+// and checks they agree after every step
+class SwervePoseEstimatorTest {
+  private static final double period = 0.02;
+  private static final double tolerance = 1e-6;
+  private static final Pose2d start = new Pose2d(2, 3, Rotation2d.fromDegrees(30));
+
+  private SwervePoseEstimator estimator;
+  private SwerveDrivePoseEstimator reference;
+  private final double[] distances = new double[4];
+  private final double[] angles = new double[4];
+  private int step = 0;
+
+  @BeforeEach
+  void setup() {
+    estimator =
+        new SwervePoseEstimator(
+            kSwerve.moduleLocations, kSwerve.stateStdDevs, kSwerve.visionStdDevs);
+    estimator.resetPosition(0, distances, angles, start);
+    reference =
+        new SwerveDrivePoseEstimator(
+            kSwerve.kinematics,
+            new Rotation2d(),
+            positions(),
+            start,
+            kSwerve.stateStdDevs,
+            kSwerve.visionStdDevs);
+  }
+
+  @Test
+  void odometryOnly() {
+    for (int i = 0; i < 200; i++) {
+      drive();
+      assertAgree();
+    }
+  }
+
+  @Test
+  void delayedVision() {
+    drive(20);
+    for (int i = 0; i < 100; i++) {
+      drive();
+      addVision(step - 5);
+      assertAgree();
+    }
+  }
+
+  @Test
+  void outOfOrderVision() {
+    drive(50);
+    addVision(step - 2);
+    assertAgree();
+    addVision(step - 6);
+    assertAgree();
+    addVision(step - 4);
+    assertAgree();
+    drive(10);
+    assertAgree();
+  }
+
+  // The estimator keeps its corrections in a fixed buffer, a measurement from before more of them
+  // than the old capacity of 32 still has to land on the correction in effect at its time
+  @Test
+  void visionOlderThanManyCorrections() {
+    drive(10);
+    for (int i = 0; i < 40; i++) {
+      drive();
+      addVision(step - 1);
+    }
+    assertAgree();
+    addVision(step - 45);
+    assertAgree();
+    drive(10);
+    assertAgree();
+  }
+
+  // Advance a step with the modules at varying speeds and angles and the gyro turning
+  private void drive() {
+    step++;
+    double t = step * period;
+    for (int i = 0; i < 4; i++) {
+      distances[i] += period * (1.5 + 0.3 * i + 0.5 * Math.sin(t + i));
+      angles[i] = 0.3 * Math.sin(0.7 * t + i);
+    }
+    double gyro = MathUtil.angleModulus(0.5 * t + 0.2 * Math.sin(3 * t));
+    estimator.update(t, gyro, distances, angles);
+    reference.updateWithTime(t, new Rotation2d(gyro), positions());
+  }
+
+  private void drive(int steps) {
+    for (int i = 0; i < steps; i++) drive();
+  }
+
+  // Vision at an earlier step's timestamp, somewhere near the path
+  private void addVision(int visionStep) {
+    double t = visionStep * period;
+    var pose = new Pose2d(2 + t, 3 + 0.5 * Math.sin(t), new Rotation2d(0.6 + 0.4 * t));
+    estimator.addVisionMeasurement(pose, t);
+    reference.addVisionMeasurement(pose, t);
+  }
+
+  private SwerveModulePosition[] positions() {
+    var positions = new SwerveModulePosition[4];
+    for (int i = 0; i < 4; i++) {
+      positions[i] = new SwerveModulePosition(distances[i], new Rotation2d(angles[i]));
+    }
+    return positions;
+  }
+
+  private void assertAgree() {
+    var expected = reference.getEstimatedPosition();
+    var actual = estimator.getEstimatedPosition();
+    assertEquals(expected.getX(), actual.getX(), tolerance, "x at step " + step);
+    assertEquals(expected.getY(), actual.getY(), tolerance, "y at step " + step);
+    assertEquals(
+        0,
+        MathUtil.angleModulus(
+            expected.getRotation().getRadians() - actual.getRotation().getRadians()),
+        tolerance,
+        "heading at step " + step);
+  }
+}